@@ -26,6 +26,7 @@
 package cloud.grabsky.displayentities;
 
 import cloud.grabsky.bstats.Metrics;
+import cloud.grabsky.displayentities.archive.DisplayLibrary;
 import cloud.grabsky.displayentities.command.CommandDisplayAlignment;
 import cloud.grabsky.displayentities.command.CommandDisplayBackground;
 import cloud.grabsky.displayentities.command.CommandDisplayBillboard;
@@ -56,6 +57,7 @@ import cloud.grabsky.displayentities.command.CommandDisplayRotateY;
 import cloud.grabsky.displayentities.command.CommandDisplayScale;
 import cloud.grabsky.displayentities.command.CommandDisplaySeeThrough;
 import cloud.grabsky.displayentities.command.CommandDisplaySkin;
+import cloud.grabsky.displayentities.command.CommandDisplayStats;
 import cloud.grabsky.displayentities.command.CommandDisplayTeleport;
 import cloud.grabsky.displayentities.command.CommandDisplayTextManipulation;
 import cloud.grabsky.displayentities.command.CommandDisplayTextOpacity;
@@ -63,15 +65,25 @@ import cloud.grabsky.displayentities.command.CommandDisplayTextShadow;
 import cloud.grabsky.displayentities.command.CommandDisplayTrackNearestPlayer;
 import cloud.grabsky.displayentities.command.CommandDisplayTransform;
 import cloud.grabsky.displayentities.command.CommandDisplayViewRange;
+import cloud.grabsky.displayentities.command.CommandDisplayVirtualization;
 import cloud.grabsky.displayentities.command.CommandDisplayWidth;
 import cloud.grabsky.displayentities.command.visitor.BuilderVisitor;
 import cloud.grabsky.displayentities.configuration.PluginConfiguration;
 import cloud.grabsky.displayentities.hook.PacketEventsHook;
 import cloud.grabsky.displayentities.listener.ClickCommandListener;
+import cloud.grabsky.displayentities.listener.EntityLifecycleListener;
 import cloud.grabsky.displayentities.listener.MannequinListener;
+import cloud.grabsky.displayentities.refresh.RefreshBands;
+import cloud.grabsky.displayentities.registry.DisplayIndex;
+import cloud.grabsky.displayentities.registry.EntityClassificationCache;
+import cloud.grabsky.displayentities.registry.NameRegistry;
+import cloud.grabsky.displayentities.registry.TextDisplayRegistry;
 import cloud.grabsky.displayentities.spec.ConfigurationHelper;
+import cloud.grabsky.displayentities.text.DisplayTextCache;
+import cloud.grabsky.displayentities.text.PlaceholderStats;
 import cloud.grabsky.displayentities.util.LombokExtensions;
 import cloud.grabsky.displayentities.util.MapFlattener;
+import cloud.grabsky.displayentities.virtual.VirtualDisplayStore;
 import com.google.gson.Gson;
 import dev.faststats.bukkit.BukkitMetrics;
 import io.papermc.paper.plugin.loader.PluginClasspathBuilder;
@@ -81,6 +93,7 @@ import net.kyori.adventure.text.minimessage.MiniMessage;
 import net.kyori.adventure.text.minimessage.tag.Tag;
 import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
 import org.bukkit.NamespacedKey;
+import org.bukkit.entity.TextDisplay;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.eclipse.aether.artifact.DefaultArtifact;
 import org.eclipse.aether.graph.Dependency;
@@ -99,6 +112,7 @@ import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import org.jetbrains.annotations.ApiStatus.Internal;
@@ -138,6 +152,34 @@ public final class DisplayEntities extends JavaPlugin {
     @Setter(value = AccessLevel.PUBLIC, onMethod_ = @Internal)
     private boolean isDebugEnabled = false;
 
+    @Getter(AccessLevel.PUBLIC)
+    @Setter(value = AccessLevel.PUBLIC, onMethod_ = @Internal)
+    private RefreshBands refreshBands = RefreshBands.NONE;
+
+    @Getter(AccessLevel.PUBLIC)
+    private final DisplayTextCache textCache = new DisplayTextCache();
+
+    @Getter(AccessLevel.PUBLIC)
+    private final PlaceholderStats placeholderStats = new PlaceholderStats(this);
+
+    @Getter(AccessLevel.PUBLIC)
+    private final EntityClassificationCache entityClassifications = new EntityClassificationCache(65536);
+
+    @Getter(AccessLevel.PUBLIC)
+    private final TextDisplayRegistry textDisplays = new TextDisplayRegistry();
+
+    @Getter(AccessLevel.PUBLIC)
+    private final DisplayIndex displayIndex = new DisplayIndex();
+
+    @Getter(AccessLevel.PUBLIC)
+    private final NameRegistry names = new NameRegistry(new File(this.getDataFolder(), "names.dat"));
+
+    @Getter(AccessLevel.PUBLIC)
+    private final VirtualDisplayStore virtualDisplays = new VirtualDisplayStore(new File(this.getDataFolder(), "virtual_displays.dat"));
+
+    @Getter(AccessLevel.PUBLIC)
+    private final DisplayLibrary library = new DisplayLibrary(new File(new File(this.getDataFolder(), "exported"), "library.dat"));
+
     @Getter(AccessLevel.PUBLIC)
     private static boolean isFolia;
 
@@ -166,22 +208,43 @@ public final class DisplayEntities extends JavaPlugin {
         this.configuration.save();
         // Reloading and mapping configuration file contents to the PluginConfiguration instance.
         this.configuration.reload();
-        // Printing warning to the console if PacketEvents is not installed.
-        if (this.getServer().getPluginManager().getPlugin("packetevents") != null && this.getServer().getPluginManager().getPlugin("PlaceholderAPI") != null) {
-            // Enabling PacketEvents hook.
-            if (this.packetEventsHook != null) {
-                this.packetEventsHook.enable();
-            }
+        // Loading virtual displays. This must be done before enabling PacketEvents hook, which starts sending them to players.
+        try {
+            this.virtualDisplays.load();
+        } catch (final IOException e) {
+            this.getLogger().severe("An error occurred while loading virtual displays.");
+            e.printStackTrace();
+        }
+        // Loading names of all displays, including these in unloaded chunks.
+        try {
+            this.names.load();
+        } catch (final IOException e) {
+            this.getLogger().severe("An error occurred while loading display names.");
+            e.printStackTrace();
+        }
+        // Loading index of exported displays.
+        try {
+            this.library.load(new File(this.getDataFolder(), "exported"));
+        } catch (final IOException e) {
+            this.getLogger().severe("An error occurred while loading exported displays.");
+            e.printStackTrace();
+        }
+        // Enabling PacketEvents hook, if initialized.
+        if (this.packetEventsHook != null) {
+            this.packetEventsHook.enable();
+            // Printing warning to the console if PlaceholderAPI is not installed. Virtual displays are still supported.
+            if (this.packetEventsHook.isPlaceholdersEnabled() == false)
+                this.getLogger().warning("Placeholders support not initialized. This integration requires PlaceholderAPI.");
         } else {
             // Otherwise, logging warning to the console.
-            this.getLogger().warning("Placeholders support not initialized. This integration requires PacketEvents and PlaceholderAPI.");
+            this.getLogger().warning("Placeholders and virtual displays support not initialized. This integration requires PacketEvents.");
         }
         // Customizing BukkitLamp instance.
         final BukkitLampConfig<BukkitCommandActor> config = BukkitLampConfig.builder(this)
                 // Brigadier must be disabled for completions filtering to work properly.
                 .disableBrigadier(true)
-                // Async completion must be disabled because Player#getNearbyEntities can only be called on the main thread.
-                .disableAsyncCompletion(true)
+                // Display arguments are resolved and suggested from thread-safe snapshots, so completions can be served asynchronously.
+                .disableAsyncCompletion(false)
                 .build();
         // Initializing BukkitLamp instance.
         this.lamp = BukkitLamp.builder(config)
@@ -197,6 +260,13 @@ public final class DisplayEntities extends JavaPlugin {
         // Registering event listeners.
         this.getServer().getPluginManager().registerEvents(MannequinListener.INSTANCE, this);
         this.getServer().getPluginManager().registerEvents(ClickCommandListener.INSTANCE, this);
+        final EntityLifecycleListener lifecycleListener = new EntityLifecycleListener(this);
+        this.getServer().getPluginManager().registerEvents(lifecycleListener, this);
+        // Registering entities that were added to the world before the plugin was enabled. Not possible on Folia, where entities can only be accessed from their owning region.
+        if (isFolia == false)
+            this.getServer().getWorlds().forEach(world -> world.getEntities().forEach(lifecycleListener::register));
+        // Saving display names every 5 minutes, if modified.
+        this.getServer().getAsyncScheduler().runAtFixedRate(this, (it) -> this.saveNames(), 5L, 5L, TimeUnit.MINUTES);
         // Setting up bStats...
         this.bStats = new Metrics(this, 25686);
         // Setting up FastStats...
@@ -205,16 +275,49 @@ public final class DisplayEntities extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        // Saving display names.
+        this.saveNames();
+        // Saving virtual displays. Usually saved already, unless modified shortly before the shutdown.
+        this.saveVirtualDisplays();
+        // Disabling PacketEvents hook.
+        if (this.packetEventsHook != null)
+            this.packetEventsHook.disable();
         // Shutting down bStats.
         this.bStats.shutdown();
         // Shutting down FastStats.
         this.fastStats.shutdown();
     }
 
+    private void saveNames() {
+        try {
+            this.names.save();
+        } catch (final IOException e) {
+            this.getLogger().severe("An error occurred while saving display names.");
+            e.printStackTrace();
+        }
+    }
+
+    private void saveVirtualDisplays() {
+        try {
+            this.virtualDisplays.save();
+        } catch (final IOException e) {
+            this.getLogger().severe("An error occurred while saving virtual displays.");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Saves virtual displays asynchronously. Must be called after virtual displays were added or removed.
+     */
+    @Internal
+    public void saveVirtualDisplaysAsync() {
+        this.getServer().getAsyncScheduler().runNow(this, (it) -> this.saveVirtualDisplays());
+    }
+
     @Override
     public void onLoad() {
-        if (this.getServer().getPluginManager().getPlugin("packetevents") != null && this.getServer().getPluginManager().getPlugin("PlaceholderAPI") != null) {
-            this.packetEventsHook = new PacketEventsHook(this).init();
+        if (this.getServer().getPluginManager().getPlugin("packetevents") != null) {
+            this.packetEventsHook = new PacketEventsHook(this, this.getServer().getPluginManager().getPlugin("PlaceholderAPI") != null).init();
         }
     }
 
@@ -229,6 +332,8 @@ public final class DisplayEntities extends JavaPlugin {
         lamp.register(CommandDisplayTeleport.INSTANCE);
         lamp.register(CommandDisplayExport.INSTANCE);
         lamp.register(CommandDisplayImport.INSTANCE);
+        lamp.register(CommandDisplayVirtualization.INSTANCE);
+        lamp.register(CommandDisplayStats.INSTANCE);
         // Editing (Common / All)
         lamp.register(CommandDisplayMoveTo.INSTANCE);
         // Editing (Strict / Display Entities)
@@ -268,6 +373,23 @@ public final class DisplayEntities extends JavaPlugin {
         lamp.register(CommandDisplayTrackNearestPlayer.INSTANCE);
     }
 
+    /**
+     * Renders text of specified text display again for all of it's viewers. Must be called after text was modified in a way that does not
+     * make the server send it again. Does nothing if PlaceholderAPI and PacketEvents integration is not initialized.
+     */
+    @Internal
+    public void updateText(final @NotNull TextDisplay entity) {
+        if (this.packetEventsHook != null && this.packetEventsHook.isPlaceholdersEnabled() == true)
+            this.packetEventsHook.packetListener().update(entity);
+    }
+
+    /**
+     * Returns {@code true} if virtual displays can be sent to players. Requires PacketEvents integration to be initialized.
+     */
+    public boolean isVirtualDisplaysEnabled() {
+        return this.packetEventsHook != null;
+    }
+
     public void debug(final String message) {
         if (this.isDebugEnabled == true)
             this.getLogger().warning("[DEBUG] " + message);
@@ -320,6 +442,12 @@ public final class DisplayEntities extends JavaPlugin {
         /** Used to store override for refresh interval time. */
         public static final NamespacedKey REFRESH_INTERVAL = new NamespacedKey("display_entities", "refresh_interval");
 
+        /** Used to store refresh intervals of individual lines of a text display entity. See {@link cloud.grabsky.displayentities.text.TextLines}. */
+        public static final NamespacedKey LINE_REFRESH_INTERVALS = new NamespacedKey("display_entities", "line_refresh_intervals");
+
+        /** Used to store per-locale variants of the text contents, keyed by lower-cased locale. See {@link cloud.grabsky.displayentities.text.DisplayTextCache}. */
+        public static final NamespacedKey TEXT_TRANSLATIONS = new NamespacedKey("display_entities", "text_translations");
+
         /** Used to store click command of mannequin or interaction entity. */
         public static final NamespacedKey CLICK_COMMAND = new NamespacedKey("display_entities", "click_command");
 
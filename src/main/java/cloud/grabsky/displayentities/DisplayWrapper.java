@@ -88,6 +88,11 @@ public sealed abstract class DisplayWrapper permits DisplayWrapper.Strict, Displ
     public static <T extends Entity, W extends DisplayWrapper> @NotNull W create(final @NotNull T entity, final @NotNull String name) {
         // Setting name of the display.
         entity.getPersistentDataContainer().set(DisplayEntities.Keys.NAME, PersistentDataType.STRING, name);
+        // Re-indexing the entity if it is already in the world. Otherwise, it will be indexed once added to the world.
+        if (entity.isValid() == true) {
+            DisplayEntities.instance().displayIndex().update(entity);
+            DisplayEntities.instance().names().put(name, entity, entity.getLocation());
+        }
         // Returning new instance of DisplayWrapper containing provided entity.
         return switch (entity) {
             case TextDisplay display -> (W) new Text(display, name);
@@ -103,10 +108,18 @@ public sealed abstract class DisplayWrapper permits DisplayWrapper.Strict, Displ
     /**
      * Creates new instance of {@link DisplayWrapper}
      */
-    @SuppressWarnings("unchecked")
     public static <T extends Entity, W extends DisplayWrapper> @NotNull W existing(final @NotNull T entity) {
         // Getting name of the display.
         final @NotNull String name = Objects.requireNonNull(entity.getPersistentDataContainer().get(DisplayEntities.Keys.NAME, PersistentDataType.STRING), "NAME_NOT_SET");
+        // Returning new instance of DisplayWrapper containing provided entity.
+        return existing(entity, name);
+    }
+
+    /**
+     * Creates new instance of {@link DisplayWrapper} with already known name. Persistent data of the entity is not accessed.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Entity, W extends DisplayWrapper> @NotNull W existing(final @NotNull T entity, final @NotNull String name) {
         // Returning new instance of DisplayWrapper containing provided entity.
         return switch (entity) {
             case TextDisplay it -> (W) new Text(it, name);
@@ -198,6 +211,8 @@ public sealed abstract class DisplayWrapper permits DisplayWrapper.Strict, Displ
             this.entity().setBillboard(Display.Billboard.VERTICAL);
             this.entity().setRichText("Use <#65D85F>/display edit <#C7F1C5>" + MiniMessage.miniMessage().stripTags(name) + " <#65D85F>set_line <#C7F1C5>(line) (text) <reset>command to edit.");
             this.entity().getPersistentDataContainer().set(DisplayEntities.Keys.TEXT_CONTENTS, PersistentDataType.STRING, "Use <yellow>/display set_line " + MiniMessage.miniMessage().stripTags(name) + " <reset>command to edit.");
+            // Registering the entity. It has been added to the world before text contents were set.
+            DisplayEntities.instance().textDisplays().add(this.entity().getEntityId());
             return this;
         }
 
@@ -0,0 +1,210 @@
+/*
+ * DisplayEntities (https://github.com/Grabsky/DisplayEntities)
+ *
+ * MIT License
+ *
+ * Copyright (c) 2026 Grabsky (michal.czopek.foss@proton.me)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cloud.grabsky.displayentities.archive;
+
+import cloud.grabsky.displayentities.DisplayEntities;
+import cloud.grabsky.displayentities.DisplayWrapper;
+import cloud.grabsky.displayentities.util.LombokExtensions;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.entity.CreatureSpawnEvent;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jetbrains.annotations.NotNull;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.ExtensionMethod;
+
+/**
+ * Imports all entries of a {@link DisplayArchive}. Entries are read, inflated and deserialized off the main thread
+ * and then spawned in batches, at most {@code import_spawns_per_tick} per tick, on the thread owning target location.
+ */
+@ExtensionMethod(LombokExtensions.class)
+@RequiredArgsConstructor(access = AccessLevel.PUBLIC)
+public final class ArchiveImport {
+
+    /**
+     * Decides where imported entries are placed.
+     */
+    public enum Mode {
+        /** Entries keep their offset from the archive anchor, which is moved to the target location. */
+        RELATIVE,
+        /** Entries are placed at their original coordinates in the original world. */
+        ORIGINAL
+    }
+
+    // Interval between progress updates, in ticks.
+    private static final int PROGRESS_INTERVAL = 20;
+
+    private final @NotNull DisplayEntities plugin;
+    private final @NotNull Player sender;
+    private final @NotNull File file;
+    private final @NotNull Mode mode;
+    private final @NotNull Location target;
+
+    // Deserialized entities waiting to be spawned. Bounded so that reading never gets too far ahead of spawning.
+    private final BlockingQueue<Pending> queue = new ArrayBlockingQueue<>(1024);
+
+    private final AtomicInteger spawned = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+
+    // Number of entries handed over to region threads but not yet spawned. Used on Folia only.
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // Number of ticks since the import has started.
+    private int ticks = 0;
+
+    // Number of entries in the archive. Set once the header is read.
+    private volatile int total = -1;
+
+    private volatile boolean isReadingFinished = false;
+    private volatile boolean isFailed = false;
+
+    private record Pending(@NotNull String name, @NotNull Entity entity, @NotNull Location location) {}
+
+    /**
+     * Starts the import. Sender is notified about the progress and the outcome.
+     */
+    public void start() {
+        // Reading the archive asynchronously.
+        plugin.getServer().getAsyncScheduler().runNow(plugin, (it) -> this.read());
+        // Spawning pending entries each tick.
+        plugin.getServer().getGlobalRegionScheduler().runAtFixedRate(plugin, this::tick, 1L, 1L);
+    }
+
+    private void read() {
+        try {
+            final DisplayArchive.Header header = DisplayArchive.readHeader(file);
+            final DisplayArchive.Anchor anchor = header.anchor();
+            this.total = header.index().size();
+            // Getting the world entries will be spawned in.
+            final World world = (mode == Mode.ORIGINAL) ? Bukkit.getWorld(anchor.world()) : target.getWorld();
+            // Skipping all entries if original world does not exist.
+            if (world == null) {
+                skipped.set(total);
+                return;
+            }
+            // Names already used by previous entries of this archive.
+            final Set<String> names = new HashSet<>();
+            DisplayArchive.read(file, header, (entry) -> {
+                // Skipping entries with names that are already taken, including names of virtual displays.
+                if (plugin.names().contains(entry.name()) == true || plugin.virtualDisplays().get(entry.name()) != null || names.add(entry.name()) == false) {
+                    skipped.incrementAndGet();
+                    return;
+                }
+                final Entity entity;
+                final Location location;
+                try {
+                    // Creating the Entity instance. It is not yet spawned in the world.
+                    entity = Bukkit.getUnsafe().deserializeEntity(entry.data(), world, false, false);
+                    // Computing location the entity will be spawned at.
+                    location = (mode == Mode.RELATIVE)
+                            ? entity.getLocation().set(target.getX() + (entry.x() - anchor.x()), target.getY() + (entry.y() - anchor.y()), target.getZ() + (entry.z() - anchor.z()))
+                            : entity.getLocation().set(entry.x(), entry.y(), entry.z());
+                } catch (final RuntimeException e) {
+                    // Skipping entries that cannot be deserialized, for example ones exported by an incompatible server version.
+                    plugin.getLogger().warning("Skipping entry " + entry.name() + " of archive " + file.getName() + " as it could not be deserialized: " + e.getMessage());
+                    skipped.incrementAndGet();
+                    return;
+                }
+                // Waiting for free space in the queue. Giving up if plugin is disabled in the meantime.
+                try {
+                    while (queue.offer(new Pending(entry.name(), entity, location), 1, TimeUnit.SECONDS) == false)
+                        if (plugin.isEnabled() == false)
+                            return;
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        } catch (final IOException | RuntimeException e) {
+            // Treating any unexpected exception as a failure, so the sender is always notified.
+            e.printStackTrace();
+            this.isFailed = true;
+            sender.sendMessage(plugin.miniMessage().deserialize(plugin.configuration().messages().commandDisplayImportArchiveFailureOther().repl("{file}", file.getName())));
+            // Discarding already read entries.
+            queue.clear();
+        } finally {
+            this.isReadingFinished = true;
+        }
+    }
+
+    private void tick(final @NotNull ScheduledTask task) {
+        final int budget = Math.max(1, plugin.configuration().importSpawnsPerTick());
+        // Spawning at most the budget of pending entries.
+        for (int i = 0; i < budget; i++) {
+            final Pending pending = queue.poll();
+            if (pending == null)
+                break;
+            // Spawning has to happen on the thread that owns target location.
+            if (DisplayEntities.isFolia() == true) {
+                inFlight.incrementAndGet();
+                plugin.getServer().getRegionScheduler().execute(plugin, pending.location(), () -> {
+                    try {
+                        this.spawn(pending);
+                    } finally {
+                        // Decrementing even if spawning has failed, so the import can still finish.
+                        inFlight.decrementAndGet();
+                    }
+                });
+            } else this.spawn(pending);
+        }
+        // Finishing once everything has been read and spawned.
+        if (isReadingFinished == true && queue.isEmpty() == true && inFlight.get() == 0) {
+            task.cancel();
+            // Sending success message, unless import has failed.
+            if (isFailed == false)
+                sender.sendMessage(plugin.miniMessage().deserialize(plugin.configuration().messages().commandDisplayImportArchiveSuccess().repl("{spawned}", spawned.get(), "{skipped}", skipped.get(), "{file}", file.getName())));
+            return;
+        }
+        // Sending progress to the sender periodically.
+        if (total != -1 && ++ticks % PROGRESS_INTERVAL == 0)
+            sender.sendActionBar(plugin.miniMessage().deserialize(plugin.configuration().messages().commandDisplayImportArchiveProgress().repl("{processed}", spawned.get() + skipped.get(), "{count}", total)));
+    }
+
+    private void spawn(final @NotNull Pending pending) {
+        // Modifying display identifier stored inside PersistentDataContainer.
+        DisplayWrapper.existing(pending.entity()).set(DisplayEntities.Keys.NAME, PersistentDataType.STRING, pending.name());
+        // Spawning the entity. It is then picked up by the lifecycle listener, which registers it in the index and name registry.
+        if (pending.entity().spawnAt(pending.location(), CreatureSpawnEvent.SpawnReason.COMMAND) == true)
+            spawned.incrementAndGet();
+        else skipped.incrementAndGet();
+    }
+
+}
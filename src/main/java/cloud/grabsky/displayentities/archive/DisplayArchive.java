@@ -0,0 +1,221 @@
+/*
+ * DisplayEntities (https://github.com/Grabsky/DisplayEntities)
+ *
+ * MIT License
+ *
+ * Copyright (c) 2026 Grabsky (michal.czopek.foss@proton.me)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cloud.grabsky.displayentities.archive;
+
+import com.google.common.io.CountingOutputStream;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Binary archive containing many serialized display entities. All numbers are big-endian.
+ * <pre>
+ * HEADER  | int magic, short version, UTF world, double anchorX, double anchorY, double anchorZ
+ * BLOCKS  | deflated entity data of each entry, one after another
+ * INDEX   | int count, then for each entry: UTF name, UTF type, double x, double y, double z, long offset, int compressedLength, int length
+ * FOOTER  | long indexOffset, int magic
+ * </pre>
+ * Anchor is the position archive was exported around. It allows entries to be imported relative to another position.
+ */
+public final class DisplayArchive {
+
+    public static final String EXTENSION = ".dea";
+
+    static final int MAGIC = 0x44454152; // DEAR
+    static final short VERSION = 1;
+
+    // Size of the footer, in bytes.
+    static final int FOOTER_SIZE = Long.BYTES + Integer.BYTES;
+
+    // Smallest possible size of a single index entry, in bytes. Both strings are empty in such case.
+    private static final int MIN_INDEX_ENTRY_SIZE = Short.BYTES * 2 + Double.BYTES * 3 + Long.BYTES + Integer.BYTES * 2;
+
+    // Largest ratio between uncompressed and compressed length that can be achieved by the deflate algorithm.
+    private static final int MAX_COMPRESSION_RATIO = 1032;
+
+    /**
+     * Position archive was exported around.
+     */
+    public record Anchor(@NotNull String world, double x, double y, double z) {}
+
+    /**
+     * Entity to be written to the archive. Data is the uncompressed output of {@code UnsafeValues#serializeEntity}.
+     */
+    public record Entry(@NotNull String name, @NotNull String type, double x, double y, double z, byte[] data) {}
+
+    /**
+     * Describes location of a single entry within the archive.
+     */
+    public record IndexEntry(@NotNull String name, @NotNull String type, double x, double y, double z, long offset, int compressedLength, int length) {}
+
+    /**
+     * Anchor and index of an archive.
+     */
+    public record Header(@NotNull Anchor anchor, @NotNull List<IndexEntry> index) {}
+
+    /**
+     * Writes specified entries to specified file, replacing its contents.
+     */
+    public static void write(final @NotNull File file, final @NotNull Anchor anchor, final @NotNull Collection<Entry> entries) throws IOException {
+        // Creating directories if they don't exist.
+        file.getParentFile().mkdirs();
+        final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (final CountingOutputStream counting = new CountingOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+             final DataOutputStream out = new DataOutputStream(counting)) {
+            // Writing the header.
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeUTF(anchor.world());
+            out.writeDouble(anchor.x());
+            out.writeDouble(anchor.y());
+            out.writeDouble(anchor.z());
+            // Writing compressed blocks and remembering their position.
+            final List<IndexEntry> index = new ArrayList<>(entries.size());
+            final byte[] buffer = new byte[8192];
+            for (final Entry entry : entries) {
+                out.flush();
+                final long offset = counting.getCount();
+                deflater.reset();
+                deflater.setInput(entry.data());
+                deflater.finish();
+                // Writing compressed data in chunks.
+                while (deflater.finished() == false) {
+                    final int length = deflater.deflate(buffer);
+                    out.write(buffer, 0, length);
+                }
+                out.flush();
+                index.add(new IndexEntry(entry.name(), entry.type(), entry.x(), entry.y(), entry.z(), offset, (int) (counting.getCount() - offset), entry.data().length));
+            }
+            // Writing the index.
+            out.flush();
+            final long indexOffset = counting.getCount();
+            out.writeInt(index.size());
+            for (final IndexEntry entry : index) {
+                out.writeUTF(entry.name());
+                out.writeUTF(entry.type());
+                out.writeDouble(entry.x());
+                out.writeDouble(entry.y());
+                out.writeDouble(entry.z());
+                out.writeLong(entry.offset());
+                out.writeInt(entry.compressedLength());
+                out.writeInt(entry.length());
+            }
+            // Writing the footer.
+            out.writeLong(indexOffset);
+            out.writeInt(MAGIC);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Reads anchor and index of specified archive, without reading any of the entries.
+     * Offsets and lengths are validated against the size of the file, so a corrupted archive fails with an {@link IOException}.
+     */
+    public static @NotNull Header readHeader(final @NotNull File file) throws IOException {
+        try (final RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            // Validating the header.
+            if (raf.readInt() != MAGIC || raf.readShort() != VERSION)
+                throw new IOException("Not a display archive: " + file.getName());
+            final Anchor anchor = new Anchor(raf.readUTF(), raf.readDouble(), raf.readDouble(), raf.readDouble());
+            // Blocks start right after the header.
+            final long blocksOffset = raf.getFilePointer();
+            // Validating there is enough space for the index and the footer.
+            if (raf.length() - FOOTER_SIZE - Integer.BYTES < blocksOffset)
+                throw new IOException("Archive is incomplete: " + file.getName());
+            // Reading and validating the footer.
+            raf.seek(raf.length() - FOOTER_SIZE);
+            final long indexOffset = raf.readLong();
+            if (raf.readInt() != MAGIC)
+                throw new IOException("Archive is incomplete: " + file.getName());
+            // Validating the index lies between the blocks and the footer.
+            if (indexOffset < blocksOffset || indexOffset > raf.length() - FOOTER_SIZE - Integer.BYTES)
+                throw new IOException("Archive is corrupted: " + file.getName());
+            // Reading the index.
+            raf.seek(indexOffset);
+            final byte[] bytes = new byte[(int) (raf.length() - FOOTER_SIZE - indexOffset)];
+            raf.readFully(bytes);
+            final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            final int count = in.readInt();
+            // Validating the count against space taken by the index, so a corrupted count never allocates a huge list.
+            if (count < 0 || (long) count * MIN_INDEX_ENTRY_SIZE > bytes.length - Integer.BYTES)
+                throw new IOException("Archive is corrupted: " + file.getName());
+            final List<IndexEntry> index = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                final IndexEntry entry = new IndexEntry(in.readUTF(), in.readUTF(), in.readDouble(), in.readDouble(), in.readDouble(), in.readLong(), in.readInt(), in.readInt());
+                // Validating the block lies between the header and the index, and that it's length can be inflated from it.
+                if (entry.offset() < blocksOffset || entry.compressedLength() < 0 || entry.offset() + entry.compressedLength() > indexOffset
+                        || entry.length() < 0 || entry.length() > (long) entry.compressedLength() * MAX_COMPRESSION_RATIO)
+                    throw new IOException("Entry " + entry.name() + " is corrupted: " + file.getName());
+                index.add(entry);
+            }
+            return new Header(anchor, index);
+        }
+    }
+
+    /**
+     * Reads entries listed in specified header one by one, passing each to specified consumer. Only one entry is held in memory at a time.
+     */
+    public static void read(final @NotNull File file, final @NotNull Header header, final @NotNull Consumer<Entry> consumer) throws IOException {
+        final Inflater inflater = new Inflater();
+        try (final RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            for (final IndexEntry entry : header.index()) {
+                // Reading compressed block of the entry.
+                final byte[] compressed = new byte[entry.compressedLength()];
+                raf.seek(entry.offset());
+                raf.readFully(compressed);
+                // Inflating the block.
+                final byte[] data = new byte[entry.length()];
+                inflater.reset();
+                inflater.setInput(compressed);
+                if (inflater.inflate(data) != entry.length())
+                    throw new IOException("Entry " + entry.name() + " is corrupted: " + file.getName());
+                // Passing the entry to the consumer.
+                consumer.accept(new Entry(entry.name(), entry.type(), entry.x(), entry.y(), entry.z(), data));
+            }
+        } catch (final DataFormatException e) {
+            throw new IOException("Archive is corrupted: " + file.getName(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+}
@@ -0,0 +1,302 @@
+/*
+ * DisplayEntities (https://github.com/Grabsky/DisplayEntities)
+ *
+ * MIT License
+ *
+ * Copyright (c) 2026 Grabsky (michal.czopek.foss@proton.me)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cloud.grabsky.displayentities.archive;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Library of exported displays, stored in a single append-only file which is memory-mapped for reading. All numbers are big-endian.
+ * <pre>
+ * HEADER  | int magic, short version
+ * RECORDS | for each record: short nameLength, UTF-8 name, short typeLength, UTF-8 type, long exportedAt, int length, entity data
+ * </pre>
+ * Entity data is the output of {@code UnsafeValues#serializeEntity}. Exporting a name again appends a new record, which replaces
+ * the previous one in the index. Space taken by replaced records is reclaimed when library is loaded, before the file is mapped.
+ * File grows in zero-filled chunks, so it is remapped only once per chunk rather than after each write. Records end at the first empty name.
+ */
+public final class DisplayLibrary {
+
+    static final int MAGIC = 0x44454C42; // DELB
+    static final short VERSION = 1;
+
+    // Size of the header, in bytes.
+    static final int HEADER_SIZE = Integer.BYTES + Short.BYTES;
+
+    // Size of chunks the file grows by, in bytes.
+    private static final int CHUNK_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * Exported display. Offset points to the entity data within the library file.
+     */
+    public record Entry(@NotNull String name, @NotNull String type, long exportedAt, int offset, int length) {}
+
+    private final @NotNull File file;
+
+    // Copy-on-write index of all live entries, keyed by name. Read without locking, including from completion threads.
+    private volatile Map<String, Entry> index = Collections.emptyMap();
+
+    // Read-only mapping of the library file. Remapped only when the file grows by another chunk.
+    private volatile @Nullable MappedByteBuffer buffer;
+
+    // Position right after the last record. New records are written there.
+    private long end = HEADER_SIZE;
+
+    // Number of bytes taken by records that have been replaced.
+    private long wasted = 0;
+
+    public DisplayLibrary(final @NotNull File file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns entry with specified name, or {@code null} if no such entry exists.
+     */
+    public @Nullable Entry get(final @NotNull String name) {
+        return index.get(name);
+    }
+
+    /**
+     * Returns all entries, in the order they were exported.
+     */
+    public @NotNull Collection<Entry> entries() {
+        return index.values();
+    }
+
+    /**
+     * Returns entity data of specified entry, copied straight from the mapped file.
+     */
+    public byte[] read(final @NotNull Entry entry) throws IOException {
+        final MappedByteBuffer buffer = this.buffer;
+        // Throwing if library has been remapped and no longer covers specified entry.
+        if (buffer == null || entry.offset() + entry.length() > buffer.capacity())
+            throw new IOException("Entry " + entry.name() + " is not present in the library.");
+        final byte[] data = new byte[entry.length()];
+        buffer.get(entry.offset(), data);
+        return data;
+    }
+
+    /**
+     * Appends specified entity data to the library, replacing any existing entry with the same name. Should not be called from the main thread.
+     */
+    public synchronized @NotNull Entry write(final @NotNull String name, final @NotNull String type, final byte[] data) throws IOException {
+        final byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        final byte[] typeBytes = type.getBytes(StandardCharsets.UTF_8);
+        final long exportedAt = System.currentTimeMillis();
+        final ByteBuffer record = ByteBuffer.allocate(Short.BYTES + nameBytes.length + Short.BYTES + typeBytes.length + Long.BYTES + Integer.BYTES + data.length);
+        record.putShort((short) nameBytes.length).put(nameBytes);
+        record.putShort((short) typeBytes.length).put(typeBytes);
+        record.putLong(exportedAt);
+        record.putInt(data.length);
+        final int dataOffset = record.position();
+        record.put(data).flip();
+        final Entry entry;
+        // Creating directories if they don't exist.
+        file.getParentFile().mkdirs();
+        try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Writing the header if file is empty.
+            if (channel.size() == 0) {
+                channel.write(ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putShort(VERSION).flip(), 0);
+                this.end = HEADER_SIZE;
+            }
+            final long position = end;
+            final long recordEnd = position + record.remaining();
+            // Library is mapped as a whole, which limits its size to 2GB.
+            if (recordEnd > Integer.MAX_VALUE)
+                throw new IOException("Library is full: " + file.getName());
+            // Growing the file by whole chunks and remapping it, if the record does not fit in the current mapping.
+            final @Nullable MappedByteBuffer buffer = this.buffer;
+            if (buffer == null || recordEnd > buffer.capacity()) {
+                final long capacity = Math.min(Integer.MAX_VALUE, (recordEnd + CHUNK_SIZE - 1) / CHUNK_SIZE * CHUNK_SIZE);
+                // Extending the file with zeroes, which are read as the end of records.
+                if (channel.size() < capacity)
+                    channel.write(ByteBuffer.allocate(1), capacity - 1);
+                this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, capacity);
+            }
+            // Writing the record. It is visible through the mapping straight away.
+            while (record.hasRemaining() == true)
+                channel.write(record, position + record.position());
+            this.end = recordEnd;
+            entry = new Entry(name, type, exportedAt, (int) position + dataOffset, data.length);
+        }
+        // Updating the index.
+        final Map<String, Entry> index = new LinkedHashMap<>(this.index);
+        final Entry previous = index.remove(name);
+        if (previous != null)
+            wasted += recordSize(previous);
+        index.put(name, entry);
+        this.index = Collections.unmodifiableMap(index);
+        return entry;
+    }
+
+    /**
+     * Loads the index from the library file. Legacy {@code .ent} files found in specified directory are added to the library,
+     * unless an entry with the same name already exists. Library is compacted first if most of it is taken by replaced records.
+     */
+    public synchronized void load(final @NotNull File legacyDirectory) throws IOException {
+        this.index = Collections.emptyMap();
+        this.buffer = null;
+        this.wasted = 0;
+        this.end = HEADER_SIZE;
+        if (file.exists() == true) {
+            // Indexing existing library file. Records that have not been fully written are cut off.
+            this.scan();
+            // Rewriting the library without replaced records. Done before the file is mapped, as mapped files cannot be replaced on some platforms.
+            if (wasted > 0 && wasted > end / 2 && this.compact() == true)
+                this.scan();
+            // Mapping the file, so entries can be read.
+            try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        }
+        // Adding legacy files, which were written one display per file, as Base64.
+        final File[] legacyFiles = legacyDirectory.listFiles((dir, name) -> name.endsWith(".ent") == true);
+        if (legacyFiles != null) {
+            for (final File legacyFile : legacyFiles) {
+                final String name = legacyFile.getName().substring(0, legacyFile.getName().length() - ".ent".length());
+                if (index.containsKey(name) == true)
+                    continue;
+                final byte[] data = Base64.getDecoder().decode(Files.readAllBytes(legacyFile.toPath()));
+                this.write(name, "unknown", data);
+            }
+        }
+    }
+
+    // Indexes records of the library file, without mapping it. Record that has not been fully written is zeroed, so new records are appended right after the last complete one.
+    private void scan() throws IOException {
+        final Map<String, Entry> index = new LinkedHashMap<>();
+        long wasted = 0;
+        long end = HEADER_SIZE;
+        boolean isTorn = false;
+        try (final DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            // Validating the header.
+            try {
+                if (input.readInt() != MAGIC || input.readShort() != VERSION)
+                    throw new IOException("Not a display library: " + file.getName());
+            } catch (final EOFException e) {
+                throw new IOException("Not a display library: " + file.getName());
+            }
+            // Reading records, skipping their entity data.
+            while (true) {
+                final String name, type;
+                final long exportedAt;
+                final int length;
+                // Stopping at the end of the file, at the zero-filled space of the last chunk, or at a record that has not been fully written.
+                try {
+                    name = readString(input);
+                    if (name.isEmpty() == true)
+                        break;
+                    type = readString(input);
+                    exportedAt = input.readLong();
+                    length = input.readInt();
+                    if (length < 0) {
+                        isTorn = true;
+                        break;
+                    }
+                    input.skipNBytes(length);
+                } catch (final EOFException e) {
+                    isTorn = (end < file.length());
+                    break;
+                }
+                final int size = recordSize(new Entry(name, type, exportedAt, 0, length));
+                // Stopping at a record that cannot be mapped.
+                if (end + size > Integer.MAX_VALUE) {
+                    isTorn = true;
+                    break;
+                }
+                final Entry previous = index.remove(name);
+                if (previous != null)
+                    wasted += recordSize(previous);
+                index.put(name, new Entry(name, type, exportedAt, (int) (end + size - length), length));
+                end += size;
+            }
+        }
+        // Zeroing the record that has not been fully written. File is not truncated, as it may still be mapped on some platforms.
+        if (isTorn == true) {
+            try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                final ByteBuffer zeroes = ByteBuffer.allocate(8192);
+                for (long position = end; position < channel.size(); position += zeroes.capacity())
+                    channel.write(zeroes.clear().limit((int) Math.min(zeroes.capacity(), channel.size() - position)), position);
+            }
+        }
+        this.index = Collections.unmodifiableMap(index);
+        this.wasted = wasted;
+        this.end = end;
+    }
+
+    // Rewrites the library without replaced records. Returns false if the file could not be replaced, in which case the library is left as is.
+    private boolean compact() throws IOException {
+        final File temporary = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (final FileChannel source = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+             final FileChannel channel = FileChannel.open(temporary.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putShort(VERSION).flip());
+            // Copying live records, as they are, from the library file.
+            for (final Entry entry : index.values()) {
+                final int start = entry.offset() - (recordSize(entry) - entry.length());
+                long copied = 0;
+                while (copied < recordSize(entry))
+                    copied += source.transferTo(start + copied, recordSize(entry) - copied, channel);
+            }
+        }
+        try {
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (final IOException e) {
+            // Library file is still in use. Keeping it, along with the index that describes it.
+            Files.deleteIfExists(temporary.toPath());
+            return false;
+        }
+    }
+
+    private static int recordSize(final @NotNull Entry entry) {
+        return Short.BYTES + entry.name().getBytes(StandardCharsets.UTF_8).length + Short.BYTES + entry.type().getBytes(StandardCharsets.UTF_8).length + Long.BYTES + Integer.BYTES + entry.length();
+    }
+
+    private static @NotNull String readString(final @NotNull DataInputStream input) throws IOException {
+        final byte[] bytes = new byte[input.readUnsignedShort()];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * DisplayEntities (https://github.com/Grabsky/DisplayEntities)
+ *
+ * MIT License
+ *
+ * Copyright (c) 2026 Grabsky (michal.czopek.foss@proton.me)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cloud.grabsky.displayentities.archive;
+
+import cloud.grabsky.displayentities.registry.DisplayIndex;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.util.BoundingBox;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Selects indexed displays by world, radius, region and name prefix. All specified criteria must match.
+ * Parsed from space-separated {@code key=value} pairs, for example: {@code radius=32 prefix=lobby_} or {@code world=world region=0,0,0,100,64,100}.
+ */
+public record DisplaySelector(@NotNull World world, @Nullable Double radius, @Nullable BoundingBox region, @Nullable String prefix) {
+
+    /**
+     * Returns {@code true} if specified entry matches this selector. Radius is measured from specified center.
+     */
+    public boolean matches(final @NotNull DisplayIndex.Entry entry, final @NotNull Location center) {
+        if (entry.worldId().equals(world.getUID()) == false)
+            return false;
+        if (radius != null && square(entry.x() - center.getX()) + square(entry.y() - center.getY()) + square(entry.z() - center.getZ()) > square(radius))
+            return false;
+        if (region != null && region.contains(entry.x(), entry.y(), entry.z()) == false)
+            return false;
+        return prefix == null || entry.name().startsWith(prefix) == true;
+    }
+
+    /**
+     * Parses selector from specified input. World defaults to the world of specified center.
+     *
+     * @throws IllegalArgumentException if input is not a valid selector.
+     */
+    public static @NotNull DisplaySelector parse(final @NotNull String input, final @NotNull Location center) throws IllegalArgumentException {
+        World world = center.getWorld();
+        Double radius = null;
+        BoundingBox region = null;
+        String prefix = null;
+        // Parsing each key=value pair.
+        for (final String part : input.trim().split(" +")) {
+            if (part.isEmpty() == true)
+                continue;
+            final int separator = part.indexOf('=');
+            if (separator == -1)
+                throw new IllegalArgumentException(part);
+            final String value = part.substring(separator + 1);
+            switch (part.substring(0, separator)) {
+                case "world" -> world = Bukkit.getWorld(value);
+                case "radius" -> radius = parseDouble(value, part);
+                case "prefix" -> prefix = value;
+                case "region" -> {
+                    final String[] coordinates = value.split(",");
+                    if (coordinates.length != 6)
+                        throw new IllegalArgumentException(part);
+                    region = new BoundingBox(
+                            parseDouble(coordinates[0], part), parseDouble(coordinates[1], part), parseDouble(coordinates[2], part),
+                            parseDouble(coordinates[3], part), parseDouble(coordinates[4], part), parseDouble(coordinates[5], part)
+                    );
+                }
+                default -> throw new IllegalArgumentException(part);
+            }
+            // Throwing if specified world does not exist.
+            if (world == null)
+                throw new IllegalArgumentException(part);
+        }
+        return new DisplaySelector(world, radius, region, prefix);
+    }
+
+    private static double square(final double value) {
+        return value * value;
+    }
+
+    private static double parseDouble(final @NotNull String value, final @NotNull String part) throws IllegalArgumentException {
+        try {
+            return Double.parseDouble(value);
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException(part);
+        }
+    }
+
+}
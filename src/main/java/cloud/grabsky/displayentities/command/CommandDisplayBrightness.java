@@ -25,8 +25,10 @@
  */
 package cloud.grabsky.displayentities.command;
 
+import cloud.grabsky.displayentities.DisplayEntities;
 import cloud.grabsky.displayentities.DisplayWrapper;
 import cloud.grabsky.displayentities.configuration.PluginConfiguration;
+import cloud.grabsky.displayentities.registry.DisplayIndex;
 import cloud.grabsky.displayentities.util.LombokExtensions;
 import org.bukkit.entity.Display;
 import org.bukkit.entity.Player;
@@ -69,6 +71,8 @@ public enum CommandDisplayBrightness {
         final Display.Brightness newBrightness = new Display.Brightness(finalBrightness, display.entity(Display.class).getBrightness() != null ? display.entity(Display.class).getBrightness().getSkyLight() : 15);
         // Updating value of the brightness property of the display entity.
         display.entity(Display.class).setBrightness(newBrightness);
+        // Re-indexing the entity, so suggestions can see the new value.
+        DisplayEntities.instance().displayIndex().update(display.entity());
         // Sending success message to the sender.
         return configuration.messages().commandDisplayEditBrightnessSuccess().repl("{brightness_block}", newBrightness.getBlockLight()).repl("{brightness_sky}", newBrightness.getSkyLight());
     }
@@ -86,6 +90,8 @@ public enum CommandDisplayBrightness {
         final Display.Brightness newBrightness = new Display.Brightness(display.entity(Display.class).getBrightness() != null ? display.entity(Display.class).getBrightness().getBlockLight() : 15, finalBrightness);
         // Updating value of the brightness property of the display entity.
         display.entity(Display.class).setBrightness(newBrightness);
+        // Re-indexing the entity, so suggestions can see the new value.
+        DisplayEntities.instance().displayIndex().update(display.entity());
         // Sending success message to the sender.
         return configuration.messages().commandDisplayEditBrightnessSuccess().repl("{brightness_block}", newBrightness.getBlockLight()).repl("{brightness_sky}", newBrightness.getSkyLight());
     }
@@ -104,11 +110,12 @@ public enum CommandDisplayBrightness {
             // Returning empty suggestions list if wrapper was not specified.
             if (wrapper == null)
                 return Collections.emptyList();
-            // Getting current brightness.
-            final @Nullable Display.Brightness brightness = wrapper.entity(Display.class).getBrightness();
+            // Getting current brightness from the index. Entity itself cannot be accessed from completion threads.
+            final @Nullable DisplayIndex.Entry entry = DisplayEntities.instance().displayIndex().get(wrapper.entity());
+            final @Nullable String brightness = (entry != null) ? entry.property(isBlockBrightness == true ? DisplayIndex.Property.BLOCK_LIGHT : DisplayIndex.Property.SKY_LIGHT) : null;
             // Generating and returning suggestions.
             return (brightness != null)
-                    ? Collections.singletonList("" + (isBlockBrightness == true ? brightness.getBlockLight() : brightness.getSkyLight()))
+                    ? Collections.singletonList(brightness)
                     : List.of("0", "15");
         }
 
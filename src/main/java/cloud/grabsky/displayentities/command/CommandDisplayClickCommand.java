@@ -28,6 +28,7 @@ package cloud.grabsky.displayentities.command;
 import cloud.grabsky.displayentities.DisplayEntities;
 import cloud.grabsky.displayentities.DisplayWrapper;
 import cloud.grabsky.displayentities.configuration.PluginConfiguration;
+import cloud.grabsky.displayentities.registry.DisplayIndex;
 import org.bukkit.entity.Player;
 import org.bukkit.persistence.PersistentDataType;
 import revxrsal.commands.annotation.Command;
@@ -64,10 +65,14 @@ public enum CommandDisplayClickCommand {
         // When command is specified as '@none', click command is removed from data container.
         if (command.equalsIgnoreCase("@none") == true) {
             display.remove(DisplayEntities.Keys.CLICK_COMMAND);
+            // Re-indexing the entity, so suggestions can see the new value.
+            DisplayEntities.instance().displayIndex().update(display.entity());
             return configuration.messages().commandDisplayEditClickCommandSuccess();
         }
         // Otherwise, setting / updating click command.
         display.set(DisplayEntities.Keys.CLICK_COMMAND, PersistentDataType.STRING, command);
+        // Re-indexing the entity, so suggestions can see the new value.
+        DisplayEntities.instance().displayIndex().update(display.entity());
         // Sending success message to the sender.
         return configuration.messages().commandDisplayEditClickCommandSuccess();
     }
@@ -82,10 +87,14 @@ public enum CommandDisplayClickCommand {
         // When command is specified as '@none', click command is removed from data container.
         if (command.equalsIgnoreCase("@none") == true) {
             display.remove(DisplayEntities.Keys.CLICK_COMMAND);
+            // Re-indexing the entity, so suggestions can see the new value.
+            DisplayEntities.instance().displayIndex().update(display.entity());
             return configuration.messages().commandDisplayEditClickCommandSuccess();
         }
         // Otherwise, setting / updating click command.
         display.set(DisplayEntities.Keys.CLICK_COMMAND, PersistentDataType.STRING, command);
+        // Re-indexing the entity, so suggestions can see the new value.
+        DisplayEntities.instance().displayIndex().update(display.entity());
         // Sending success message to the sender.
         return configuration.messages().commandDisplayEditClickCommandSuccess();
     }
@@ -97,9 +106,12 @@ public enum CommandDisplayClickCommand {
         public @NotNull Collection<String> getSuggestions(final @NotNull ExecutionContext<BukkitCommandActor> context) {
             // Getting the DisplayWrapper argument.
             final @Nullable DisplayWrapper wrapper = context.getResolvedArgumentOrNull(DisplayWrapper.class);
+            // Getting the current value from the index. Entity itself cannot be accessed from completion threads.
+            final @Nullable DisplayIndex.Entry entry = (wrapper != null) ? DisplayEntities.instance().displayIndex().get(wrapper.entity()) : null;
+            final @Nullable String command = (entry != null) ? entry.property(DisplayIndex.Property.CLICK_COMMAND) : null;
             // Generating and returning suggestions.
-            return (wrapper != null)
-                    ? List.of("@none", wrapper.get(DisplayEntities.Keys.CLICK_COMMAND, PersistentDataType.STRING, ""))
+            return (command != null)
+                    ? List.of("@none", command)
                     : Collections.singletonList("@none");
         }
 
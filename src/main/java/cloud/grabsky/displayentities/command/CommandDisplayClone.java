@@ -64,6 +64,9 @@ public enum CommandDisplayClone {
         // Sending error message if specified name does not does not match the format.
         if (NAME_FORMAT.matcher(name).matches() == false)
             return configuration.messages().commandDisplayCloneFailureInvalidFormat();
+        // Sending error message if specified name is already taken by another display, including virtual ones.
+        if (plugin.names().contains(name) == true || plugin.virtualDisplays().get(name) != null)
+            return configuration.messages().errorNameAlreadyTaken().repl("{name}", name);
         // Cloning the display entity.
         final Display clone = (Display) display.entity().copy();
         // Creating location for entity to be spawned at. This is sender's location but with yaw and pitch kept from the original entity.
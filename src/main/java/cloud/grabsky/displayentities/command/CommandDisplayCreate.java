@@ -25,6 +25,7 @@
  */
 package cloud.grabsky.displayentities.command;
 
+import cloud.grabsky.displayentities.DisplayEntities;
 import cloud.grabsky.displayentities.DisplayWrapper;
 import cloud.grabsky.displayentities.configuration.PluginConfiguration;
 import cloud.grabsky.displayentities.util.LombokExtensions;
@@ -43,6 +44,9 @@ import lombok.experimental.ExtensionMethod;
 public enum CommandDisplayCreate {
     INSTANCE; // SINGLETON
 
+    @Dependency
+    private DisplayEntities plugin;
+
     @Dependency
     private PluginConfiguration configuration;
 
@@ -58,6 +62,9 @@ public enum CommandDisplayCreate {
         // Sending error message if specified name does not match the format.
         if (NAME_FORMAT.matcher(name).matches() == false)
             return configuration.messages().commandDisplayCreateFailureInvalidFormat();
+        // Sending error message if specified name is already taken by another display, including virtual ones.
+        if (plugin.names().contains(name) == true || plugin.virtualDisplays().get(name) != null)
+            return configuration.messages().errorNameAlreadyTaken().repl("{name}", name);
         // Getting player's location and stripping pitch and yaw from it.
         var location = sender.getLocation();
         // Stripping yaw and pitch if display is text, block or item.
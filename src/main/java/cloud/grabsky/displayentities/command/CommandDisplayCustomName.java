@@ -28,6 +28,7 @@ package cloud.grabsky.displayentities.command;
 import cloud.grabsky.displayentities.DisplayEntities;
 import cloud.grabsky.displayentities.DisplayWrapper;
 import cloud.grabsky.displayentities.configuration.PluginConfiguration;
+import cloud.grabsky.displayentities.registry.DisplayIndex;
 import cloud.grabsky.displayentities.util.LombokExtensions;
 import org.bukkit.entity.Player;
 import org.bukkit.persistence.PersistentDataType;
@@ -68,6 +69,8 @@ public enum CommandDisplayCustomName {
             display.entity().setCustomNameVisible(false);
             // Removing custom name from mannequin's PersistentDataContainer.
             display.remove(DisplayEntities.Keys.MANNEQUIN_CUSTOM_NAME);
+            // Re-indexing the entity, so suggestions can see the new value.
+            DisplayEntities.instance().displayIndex().update(display.entity());
             // Sending success message to the sender.
             return configuration.messages().commandDisplayEditCustomNameSuccess();
         } else {
@@ -75,6 +78,8 @@ public enum CommandDisplayCustomName {
             display.entity().setCustomNameVisible(true);
             // Updating custom name inside mannequin's PersistentDataContainer.
             display.set(DisplayEntities.Keys.MANNEQUIN_CUSTOM_NAME, PersistentDataType.STRING, name);
+            // Re-indexing the entity, so suggestions can see the new value.
+            DisplayEntities.instance().displayIndex().update(display.entity());
             // Sending success message to the sender.
             return configuration.messages().commandDisplayEditCustomNameSuccess();
         }
@@ -88,7 +93,9 @@ public enum CommandDisplayCustomName {
             final @Nullable DisplayWrapper.Mannequin wrapper = context.getResolvedArgumentOrNull(DisplayWrapper.Mannequin.class);
             // If wrapper is not null, returning suggestions based on entity properties.
             if (wrapper != null) {
-                final @Nullable String name = wrapper.get(DisplayEntities.Keys.MANNEQUIN_CUSTOM_NAME, PersistentDataType.STRING);
+                // Getting the current value from the index. Entity itself cannot be accessed from completion threads.
+                final @Nullable DisplayIndex.Entry entry = DisplayEntities.instance().displayIndex().get(wrapper.entity());
+                final @Nullable String name = (entry != null) ? entry.property(DisplayIndex.Property.CUSTOM_NAME) : null;
                 return (name != null)
                         ? List.of("@hidden", name)
                         : Collections.singletonList("@hidden");
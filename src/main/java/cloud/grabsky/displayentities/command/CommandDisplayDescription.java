@@ -28,6 +28,7 @@ package cloud.grabsky.displayentities.command;
 import cloud.grabsky.displayentities.DisplayEntities;
 import cloud.grabsky.displayentities.DisplayWrapper;
 import cloud.grabsky.displayentities.configuration.PluginConfiguration;
+import cloud.grabsky.displayentities.registry.DisplayIndex;
 import cloud.grabsky.displayentities.util.LombokExtensions;
 import org.bukkit.entity.Player;
 import org.bukkit.persistence.PersistentDataType;
@@ -67,12 +68,16 @@ public enum CommandDisplayDescription {
             display.entity().setDescription(null);
             // Removing description from mannequin's PersistentDataContainer.
             display.remove(DisplayEntities.Keys.MANNEQUIN_DESCRIPTION);
+            // Re-indexing the entity, so suggestions can see the new value.
+            DisplayEntities.instance().displayIndex().update(display.entity());
             // Sending success message to the sender.
             return configuration.messages().commandDisplayEditDescriptionSuccess();
         } else {
             display.entity().setRichDescription(description);
             // Updating description inside mannequin's PersistentDataContainer.
             display.set(DisplayEntities.Keys.MANNEQUIN_DESCRIPTION, PersistentDataType.STRING, description);
+            // Re-indexing the entity, so suggestions can see the new value.
+            DisplayEntities.instance().displayIndex().update(display.entity());
             // Sending success message to the sender.
             return configuration.messages().commandDisplayEditDescriptionSuccess();
         }
@@ -86,7 +91,9 @@ public enum CommandDisplayDescription {
             final @Nullable DisplayWrapper.Mannequin wrapper = context.getResolvedArgumentOrNull(DisplayWrapper.Mannequin.class);
             // If wrapper is not null, returning suggestions based on entity properties.
             if (wrapper != null) {
-                final @Nullable String description = wrapper.get(DisplayEntities.Keys.MANNEQUIN_DESCRIPTION, PersistentDataType.STRING);
+                // Getting the current value from the index. Entity itself cannot be accessed from completion threads.
+                final @Nullable DisplayIndex.Entry entry = DisplayEntities.instance().displayIndex().get(wrapper.entity());
+                final @Nullable String description = (entry != null) ? entry.property(DisplayIndex.Property.DESCRIPTION) : null;
                 return (description != null)
                         ? List.of("@hidden", description)
                         : Collections.singletonList("@hidden");
@@ -27,9 +27,15 @@ package cloud.grabsky.displayentities.command;
 
 import cloud.grabsky.displayentities.DisplayEntities;
 import cloud.grabsky.displayentities.DisplayWrapper;
+import cloud.grabsky.displayentities.archive.DisplayArchive;
+import cloud.grabsky.displayentities.archive.DisplaySelector;
 import cloud.grabsky.displayentities.configuration.PluginConfiguration;
+import cloud.grabsky.displayentities.registry.DisplayIndex;
 import cloud.grabsky.displayentities.util.LombokExtensions;
+import net.kyori.adventure.text.minimessage.MiniMessage;
 import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import revxrsal.commands.annotation.Command;
 import revxrsal.commands.annotation.Dependency;
@@ -37,10 +43,11 @@ import revxrsal.commands.bukkit.annotation.CommandPermission;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.StandardOpenOption;
-import java.util.Base64;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
 
 import org.jetbrains.annotations.NotNull;
 
@@ -56,29 +63,87 @@ public enum CommandDisplayExport {
     @Dependency
     private PluginConfiguration configuration;
 
+    private static final Pattern FILE_NAME_FORMAT = Pattern.compile("^[a-zA-Z0-9_.-]{1,48}$");
+
     @Command("display export <display>")
     @CommandPermission("displayentities.command.display.export")
-    public String onDisplayExport(
+    public void onDisplayExport(
             final @NotNull Player sender,
             final @NotNull DisplayWrapper display
     ) {
-        // Serializing display to bytes and hashing with Base64.
+        // Serializing display to bytes. This must be done on the thread that owns the entity.
         final byte[] serializedEntity = Bukkit.getUnsafe().serializeEntity(display.entity());
-        // Serializing with Base64.
-        final String serializedEntityBase64 = new String(Base64.getEncoder().encode(serializedEntity), StandardCharsets.UTF_8);
-        // Creating File instance for the exported display.
-        final File file = new File(new File(plugin.getDataFolder(), "exported"), display.name() + ".ent");
-        // Creating directories if they don't exist.
-        file.getParentFile().mkdirs();
-        // Trying to write serialized entity to the file.
+        final String type = display.entity().getType().getKey().asString();
+        // Writing serialized entity to the library off the main thread. Sender is notified about the outcome once it's written.
+        plugin.getServer().getAsyncScheduler().runNow(plugin, (it) -> {
+            try {
+                plugin.library().write(display.name(), type, serializedEntity);
+                // Sending success message to the sender.
+                sender.sendMessage(plugin.miniMessage().deserialize(configuration.messages().commandDisplayExportSuccess().repl("{display}", display.name()).repl("{file}", display.name())));
+            } catch (final IOException e) {
+                e.printStackTrace();
+                sender.sendMessage(plugin.miniMessage().deserialize(configuration.messages().commandDisplayExportFailure().repl("{display}", display.name())));
+            }
+        });
+    }
+
+    @Command("display export selected <file> <selector>")
+    @CommandPermission("displayentities.command.display.export.selected")
+    public String onDisplayExportSelected(
+            final @NotNull Player sender,
+            final @NotNull String file,
+            final @NotNull String selector
+    ) {
+        // Sending error message if specified file name does not match the format.
+        if (FILE_NAME_FORMAT.matcher(file).matches() == false)
+            return configuration.messages().commandDisplayExportSelectedFailureInvalidFormat();
+        // Anchor of the archive is the location of the sender. Radius is measured from there as well.
+        final Location center = sender.getLocation();
+        // Parsing the selector.
+        final DisplaySelector parsedSelector;
         try {
-            Files.writeString(file.toPath(), serializedEntityBase64, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
-        } catch (final IOException e) {
-            e.printStackTrace();
-            return configuration.messages().commandDisplayExportFailure().repl("{display}");
+            parsedSelector = DisplaySelector.parse(selector, center);
+        } catch (final IllegalArgumentException e) {
+            return configuration.messages().commandDisplayExportSelectedFailureInvalidSelector().repl("{input}", MiniMessage.miniMessage().stripTags(e.getMessage()));
+        }
+        // Collecting all indexed displays matching the selector.
+        final List<DisplayIndex.Entry> matches = plugin.displayIndex().entries().stream().filter(it -> parsedSelector.matches(it, center) == true).toList();
+        // Sending error message if nothing matches.
+        if (matches.isEmpty() == true)
+            return configuration.messages().commandDisplayExportSelectedFailureNoMatches();
+        // Creating File instance for the archive.
+        final File archive = new File(new File(plugin.getDataFolder(), "exported"), file.endsWith(DisplayArchive.EXTENSION) ? file : file + DisplayArchive.EXTENSION);
+        // Taking a snapshot of each entity on the thread that owns it. Entities that are removed in the meantime are skipped.
+        final List<CompletableFuture<DisplayArchive.Entry>> snapshots = new ArrayList<>(matches.size());
+        for (final DisplayIndex.Entry match : matches) {
+            final CompletableFuture<DisplayArchive.Entry> future = new CompletableFuture<>();
+            final Entity entity = match.entity();
+            final boolean isScheduled = entity.getScheduler().run(plugin, (it) -> {
+                final Location location = entity.getLocation();
+                future.complete(new DisplayArchive.Entry(match.name(), entity.getType().getKey().asString(), location.getX(), location.getY(), location.getZ(), Bukkit.getUnsafe().serializeEntity(entity)));
+            }, () -> future.complete(null)) != null;
+            // Completing right away if entity has already been removed.
+            if (isScheduled == false)
+                future.complete(null);
+            snapshots.add(future);
         }
-        // Sending success message to the sender.
-        return configuration.messages().commandDisplayExportSuccess().repl("{display}", display.name()).repl("{file}", file.getName());
+        final DisplayArchive.Anchor anchor = new DisplayArchive.Anchor(center.getWorld().getName(), center.getX(), center.getY(), center.getZ());
+        // Compressing and writing the archive off the main thread once all snapshots are taken.
+        CompletableFuture.allOf(snapshots.toArray(CompletableFuture[]::new)).thenRun(() -> plugin.getServer().getAsyncScheduler().runNow(plugin, (it) -> {
+            final List<DisplayArchive.Entry> entries = snapshots.stream().map(CompletableFuture::join).filter(Objects::nonNull).toList();
+            try {
+                DisplayArchive.write(archive, anchor, entries);
+                // Making the new archive show up in suggestions right away.
+                CommandDisplayImport.ArchiveSuggestionProvider.invalidate();
+                // Sending success message to the sender.
+                sender.sendMessage(plugin.miniMessage().deserialize(configuration.messages().commandDisplayExportSelectedSuccess().repl("{count}", entries.size(), "{file}", archive.getName())));
+            } catch (final IOException e) {
+                e.printStackTrace();
+                sender.sendMessage(plugin.miniMessage().deserialize(configuration.messages().commandDisplayExportSelectedFailureOther().repl("{file}", archive.getName())));
+            }
+        }));
+        // Sending message to the sender. Another message is sent once the archive is written.
+        return configuration.messages().commandDisplayExportSelectedStarted().repl("{count}", matches.size(), "{file}", archive.getName());
     }
 
 }
@@ -27,6 +27,9 @@ package cloud.grabsky.displayentities.command;
 
 import cloud.grabsky.displayentities.DisplayEntities;
 import cloud.grabsky.displayentities.DisplayWrapper;
+import cloud.grabsky.displayentities.archive.ArchiveImport;
+import cloud.grabsky.displayentities.archive.DisplayArchive;
+import cloud.grabsky.displayentities.archive.DisplayLibrary;
 import cloud.grabsky.displayentities.configuration.PluginConfiguration;
 import cloud.grabsky.displayentities.util.LombokExtensions;
 import net.kyori.adventure.text.minimessage.MiniMessage;
@@ -45,11 +48,9 @@ import revxrsal.commands.node.ExecutionContext;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.util.Base64;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
@@ -76,19 +77,21 @@ public enum CommandDisplayImport {
             final @SuggestWith(FileSuggestionProvider.class) String file,
             final @NotNull String name
     ) {
-        // Creating File instance pointing to the file specified by command sender.
-        final File exportedFile = new File(new File(plugin.getDataFolder(), "exported"), file);
-        // Sending error message if file does not have .ent extension or does not exist.
-        if (exportedFile.getName().endsWith(".ent") == false || exportedFile.exists() == false)
+        // Getting library entry specified by command sender. Legacy file names, ending with .ent, are accepted as well.
+        final DisplayLibrary.Entry entry = plugin.library().get(file.endsWith(".ent") ? file.substring(0, file.length() - ".ent".length()) : file);
+        // Sending error message if specified entry does not exist.
+        if (entry == null)
             return configuration.messages().commandDisplayImportFailureFileNotFound().repl("{file}", MiniMessage.miniMessage().stripTags(file));
         // Sending error message if specified name does not match the format.
         if (NAME_FORMAT.matcher(name).matches() == false)
             return configuration.messages().commandDisplayImportFailureInvalidFormat();
-        // Trying to read serialized entity from the file and then import it to a new display.
+        // Sending error message if specified name is already taken by another display, including virtual ones.
+        if (plugin.names().contains(name) == true || plugin.virtualDisplays().get(name) != null)
+            return configuration.messages().errorNameAlreadyTaken().repl("{name}", name);
+        // Trying to read serialized entity from the library and then import it to a new display.
         try {
-            final String serializedEntityBase64 = Files.readString(exportedFile.toPath(), StandardCharsets.UTF_8);
-            // Decoding from Base64.
-            final byte[] serializedEntity = Base64.getDecoder().decode(serializedEntityBase64.getBytes(StandardCharsets.UTF_8));
+            // Reading serialized entity straight from the mapped library file.
+            final byte[] serializedEntity = plugin.library().read(entry);
             // Creating the Entity instance. It is not yet spawned in the world.
             final Entity entity = Bukkit.getUnsafe().deserializeEntity(serializedEntity, sender.getWorld(), false, false);
             // Modifying display identifier stored inside PersistentDataContainer.
@@ -103,15 +106,60 @@ public enum CommandDisplayImport {
         }
     }
 
+    @Command("display import archive <file> <mode>")
+    @CommandPermission("displayentities.command.display.import.archive")
+    public String onDisplayImportArchive(
+            final @NotNull Player sender,
+            final @SuggestWith(ArchiveSuggestionProvider.class) String file,
+            final @NotNull ArchiveImport.Mode mode
+    ) {
+        // Creating File instance pointing to the archive specified by command sender.
+        final File archive = new File(new File(plugin.getDataFolder(), "exported"), file);
+        // Sending error message if file does not have archive extension or does not exist.
+        if (archive.getName().endsWith(DisplayArchive.EXTENSION) == false || archive.exists() == false)
+            return configuration.messages().commandDisplayImportFailureFileNotFound().repl("{file}", MiniMessage.miniMessage().stripTags(file));
+        // Starting the import. Archive is read asynchronously and entries are spawned over the next ticks.
+        new ArchiveImport(plugin, sender, archive, mode, sender.getLocation()).start();
+        // Sending message to the sender. Another message is sent once the import is finished.
+        return configuration.messages().commandDisplayImportArchiveStarted().repl("{file}", MiniMessage.miniMessage().stripTags(file));
+    }
+
     public static final class FileSuggestionProvider implements SuggestionProvider<BukkitCommandActor> {
 
         @Override
         public @NotNull Collection<String> getSuggestions(final @NotNull ExecutionContext<BukkitCommandActor> context) {
-            final File[] files = new File(DisplayEntities.instance().getDataFolder(), "exported").listFiles();
-            // Returning list of files inside 'plugins/DisplayEntities/exported' directory.
-            return (files != null && files.length > 0)
-                    ? Stream.of(files).filter(it -> it.isFile() == true && it.getName().endsWith(".ent") == true).map(File::getName).toList()
-                    : Collections.emptyList();
+            // Returning names of all displays in the library. This is a read of the in-memory index.
+            return DisplayEntities.instance().library().entries().stream().map(DisplayLibrary.Entry::name).toList();
+        }
+
+    }
+
+    public static final class ArchiveSuggestionProvider implements SuggestionProvider<BukkitCommandActor> {
+
+        // Number of milliseconds listed archives are cached for. Archives can be copied to the directory manually, so it is listed again once in a while.
+        private static final long CACHE_DURATION = 5000L;
+
+        // Names of archives listed most recently, along with the time they were listed at.
+        private static volatile List<String> archives = Collections.emptyList();
+        private static volatile long listedAt = 0L;
+
+        @Override
+        public @NotNull Collection<String> getSuggestions(final @NotNull ExecutionContext<BukkitCommandActor> context) {
+            // Listing archives inside 'plugins/DisplayEntities/exported' directory, unless they have been listed recently. Concurrent completions may list them twice, which is harmless.
+            if (System.currentTimeMillis() - listedAt > CACHE_DURATION) {
+                final File[] files = new File(DisplayEntities.instance().getDataFolder(), "exported").listFiles((dir, name) -> name.endsWith(DisplayArchive.EXTENSION) == true);
+                archives = (files != null) ? Stream.of(files).filter(File::isFile).map(File::getName).sorted().toList() : Collections.emptyList();
+                listedAt = System.currentTimeMillis();
+            }
+            // Returning cached list of archives.
+            return archives;
+        }
+
+        /**
+         * Forces archives to be listed again on the next completion. Called after an archive is written.
+         */
+        public static void invalidate() {
+            listedAt = 0L;
         }
 
     }
@@ -25,8 +25,10 @@
  */
 package cloud.grabsky.displayentities.command;
 
+import cloud.grabsky.displayentities.DisplayEntities;
 import cloud.grabsky.displayentities.DisplayWrapper;
 import cloud.grabsky.displayentities.configuration.PluginConfiguration;
+import cloud.grabsky.displayentities.registry.DisplayIndex;
 import cloud.grabsky.displayentities.util.LombokExtensions;
 import org.bukkit.entity.Player;
 import revxrsal.commands.annotation.Command;
@@ -65,6 +67,8 @@ public enum CommandDisplayLineWidth {
         final int finalLineWidth = Math.max(0, lineWidth);
         // Setting line width of the text display entity.
         display.entity().setLineWidth(finalLineWidth);
+        // Re-indexing the entity, so suggestions can see the new value.
+        DisplayEntities.instance().displayIndex().update(display.entity());
         // Sending success message to the sender.
         return configuration.messages().commandDisplayEditLineWidthSuccess().repl("{width}", finalLineWidth);
     }
@@ -78,8 +82,11 @@ public enum CommandDisplayLineWidth {
         public @NotNull Collection<String> getSuggestions(@NotNull final ExecutionContext<BukkitCommandActor> context) {
             // Getting the DisplayWrapper argument.
             final @Nullable DisplayWrapper.Text wrapper = context.getResolvedArgumentOrNull(DisplayWrapper.Text.class);
+            // Getting the current value from the index. Entity itself cannot be accessed from completion threads.
+            final @Nullable DisplayIndex.Entry entry = (wrapper != null) ? DisplayEntities.instance().displayIndex().get(wrapper.entity()) : null;
+            final @Nullable String lineWidth = (entry != null) ? entry.property(DisplayIndex.Property.LINE_WIDTH) : null;
             // Generating and returning suggestions.
-            return (wrapper != null) ? Collections.singletonList(wrapper.entity().getLineWidth() + "") : Collections.emptyList();
+            return (lineWidth != null) ? Collections.singletonList(lineWidth) : Collections.emptyList();
         }
 
     }
@@ -25,8 +25,10 @@
  */
 package cloud.grabsky.displayentities.command;
 
+import cloud.grabsky.displayentities.DisplayEntities;
 import cloud.grabsky.displayentities.DisplayWrapper;
 import cloud.grabsky.displayentities.configuration.PluginConfiguration;
+import cloud.grabsky.displayentities.registry.DisplayIndex;
 import cloud.grabsky.displayentities.util.LombokExtensions;
 import io.papermc.paper.math.Position;
 import org.bukkit.entity.Player;
@@ -65,7 +67,13 @@ public enum CommandDisplayMoveTo {
             final @NotNull @SuggestWith(CurrentPositionSuggestionProvider.class) Position position
     ) {
         // Teleporting entity to desired location.
-        display.entity().teleportAsync(position.toLocation(display.entity().getWorld()));
+        display.entity().teleportAsync(position.toLocation(display.entity().getWorld())).thenAccept(success -> {
+            // Re-indexing the entity at its new location.
+            if (success == true) {
+                DisplayEntities.instance().displayIndex().update(display.entity());
+                DisplayEntities.instance().names().put(display.name(), display.entity(), display.entity().getLocation());
+            }
+        });
         // Returning (sending) success message to the sender.
         return configuration.messages().commandDisplayEditMoveToSuccess()
                 .repl("{x}", String.format("%.2f", position.x()))
@@ -83,9 +91,13 @@ public enum CommandDisplayMoveTo {
             // Getting the DisplayWrapper argument.
             final @Nullable DisplayWrapper wrapper = context.getResolvedArgumentOrNull(DisplayWrapper.class);
             // Returning empty completions if wrapper is null.
-            return (wrapper != null)
-                    ? List.of("~ ~ ~", String.format("%.2f %.2f %.2f", wrapper.entity().getX(), wrapper.entity().getY(), wrapper.entity().getZ()))
-                    : Collections.emptyList();
+            if (wrapper == null)
+                return Collections.emptyList();
+            // Getting the position from the index snapshot. Safe to be called from completion threads.
+            final @Nullable DisplayIndex.Entry entry = DisplayEntities.instance().displayIndex().get(wrapper.entity());
+            return (entry != null)
+                    ? List.of("~ ~ ~", String.format("%.2f %.2f %.2f", entry.x(), entry.y(), entry.z()))
+                    : List.of("~ ~ ~");
         }
 
     }
@@ -28,6 +28,7 @@ package cloud.grabsky.displayentities.command;
 import cloud.grabsky.displayentities.DisplayEntities;
 import cloud.grabsky.displayentities.DisplayWrapper;
 import cloud.grabsky.displayentities.configuration.PluginConfiguration;
+import cloud.grabsky.displayentities.registry.DisplayIndex;
 import cloud.grabsky.displayentities.util.LombokExtensions;
 import org.bukkit.entity.Player;
 import org.bukkit.persistence.PersistentDataType;
@@ -68,6 +69,10 @@ public enum CommandDisplayRefreshInterval {
         if (interval.equals("default") == true) {
             // Removing the stored refresh_interval so it takes the config value instead.
             display.remove(DisplayEntities.Keys.REFRESH_INTERVAL);
+            // Re-indexing the entity, so suggestions can see the new value.
+            DisplayEntities.instance().displayIndex().update(display.entity());
+            // Rescheduling refreshes of the entity.
+            plugin.updateText(display.entity());
             // Sending success message to the sender.
             return configuration.messages().commandDisplayEditRefreshIntervalSuccess().repl("{ticks}", configuration.refreshInterval());
         }
@@ -77,6 +82,10 @@ public enum CommandDisplayRefreshInterval {
             return configuration.messages().commandDisplayEditRefreshIntervalFailure();
         // Setting refresh_interval of this display entity.
         display.set(DisplayEntities.Keys.REFRESH_INTERVAL, PersistentDataType.INTEGER, Math.max(1, parsedInterval));
+        // Re-indexing the entity, so suggestions can see the new value.
+        DisplayEntities.instance().displayIndex().update(display.entity());
+        // Rescheduling refreshes of the entity.
+        plugin.updateText(display.entity());
         // Sending success message to the sender.
         return configuration.messages().commandDisplayEditRefreshIntervalSuccess().repl("{ticks}", Math.max(1, parsedInterval));
     }
@@ -100,11 +109,13 @@ public enum CommandDisplayRefreshInterval {
             // Getting the DisplayWrapper argument.
             final @Nullable DisplayWrapper wrapper = context.getResolvedArgumentOrNull(DisplayWrapper.class);
             // Returning empty list if wrapper was unspecified.
-            return (wrapper != null)
-                    ? (wrapper.get(DisplayEntities.Keys.REFRESH_INTERVAL, PersistentDataType.INTEGER) != null)
-                            ? List.of("" + wrapper.get(DisplayEntities.Keys.REFRESH_INTERVAL, PersistentDataType.INTEGER), "default")
-                            : Collections.singletonList("default")
-                    : Collections.emptyList();
+            if (wrapper == null)
+                return Collections.emptyList();
+            // Getting the refresh interval from the index snapshot. Safe to be called from completion threads.
+            final @Nullable DisplayIndex.Entry entry = DisplayEntities.instance().displayIndex().get(wrapper.entity());
+            return (entry != null && entry.refreshInterval() != null)
+                    ? List.of("" + entry.refreshInterval(), "default")
+                    : Collections.singletonList("default");
         }
 
     }
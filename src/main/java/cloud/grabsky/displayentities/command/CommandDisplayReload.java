@@ -59,6 +59,8 @@ public enum CommandDisplayReload {
         }
         // Reloading configuration.
         plugin.configuration().reload();
+        // Invalidating compiled text templates, so they are re-compiled from the current PDC contents.
+        plugin.textCache().invalidateAll();
         // Sending success message to the sender.ea
         return configuration.messages().commandDisplayReload();
     }
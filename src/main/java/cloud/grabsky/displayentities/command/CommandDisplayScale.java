@@ -25,8 +25,10 @@
  */
 package cloud.grabsky.displayentities.command;
 
+import cloud.grabsky.displayentities.DisplayEntities;
 import cloud.grabsky.displayentities.DisplayWrapper;
 import cloud.grabsky.displayentities.configuration.PluginConfiguration;
+import cloud.grabsky.displayentities.registry.DisplayIndex;
 import cloud.grabsky.displayentities.util.LombokExtensions;
 import org.bukkit.attribute.Attribute;
 import org.bukkit.entity.Display;
@@ -80,6 +82,8 @@ public enum CommandDisplayScale {
         );
         // Updating entity with a new transformation.
         display.entity(Display.class).setTransformation(modifiedTransformation);
+        // Re-indexing the entity, so suggestions can see the new value.
+        DisplayEntities.instance().displayIndex().update(display.entity());
         // Sending a success message to the sender.
         return configuration.messages().commandDisplayEditScaleSuccess().repl("{x}", scale.x).repl("{y}", scale.y).repl("{z}", scale.z);
     }
@@ -93,6 +97,8 @@ public enum CommandDisplayScale {
     ) {
         // Setting the scale attribute. Mannequins have this attribute registered by default, so NPE should generally not be thrown.
         display.entity(Mannequin.class).getAttribute(Attribute.SCALE).setBaseValue(scale);
+        // Re-indexing the entity, so suggestions can see the new value.
+        DisplayEntities.instance().displayIndex().update(display.entity());
 
         // Sending a success message to the sender.
         return configuration.messages().commandDisplayEditScaleSuccessMannequin().repl("{scale}", scale);
@@ -127,17 +133,14 @@ public enum CommandDisplayScale {
         public @NotNull Collection<String> getSuggestions(@NotNull final ExecutionContext<BukkitCommandActor> context) {
             // Getting the DisplayWrapper argument.
             final @Nullable DisplayWrapper wrapper = context.getResolvedArgumentOrNull(DisplayWrapper.class);
-            if (wrapper instanceof DisplayWrapper.Strict) {
-                // Getting the scale.
-                final Vector3f scale = wrapper.entity(Display.class).getTransformation().getScale();
-                // Generating and returning suggestions.
-                return Collections.singletonList(String.format("%.2f %.2f %.2f", scale.x, scale.y, scale.z));
-            } else if (wrapper instanceof DisplayWrapper.Mannequin) {
-                // Generating and returning suggestions. Scale attribute should always be registered for Mannequin entities, thus making NPE unlikely to be thrown.
-                return Collections.singletonList(String.format("%.2f", wrapper.entity(Mannequin.class).getAttribute(Attribute.SCALE).getBaseValue()));
-            }
             // Returning an empty list if the wrapper was unspecified.
-            return Collections.emptyList();
+            if (wrapper == null)
+                return Collections.emptyList();
+            // Getting the scale from the index. Entity itself cannot be accessed from completion threads.
+            final @Nullable DisplayIndex.Entry entry = DisplayEntities.instance().displayIndex().get(wrapper.entity());
+            final @Nullable String scale = (entry != null) ? entry.property(DisplayIndex.Property.SCALE) : null;
+            // Generating and returning suggestions.
+            return (scale != null) ? Collections.singletonList(scale) : Collections.emptyList();
         }
 
     }
@@ -0,0 +1,111 @@
+/*
+ * DisplayEntities (https://github.com/Grabsky/DisplayEntities)
+ *
+ * MIT License
+ *
+ * Copyright (c) 2026 Grabsky (michal.czopek.foss@proton.me)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cloud.grabsky.displayentities.command;
+
+import cloud.grabsky.displayentities.DisplayEntities;
+import cloud.grabsky.displayentities.configuration.PluginConfiguration;
+import cloud.grabsky.displayentities.text.PlaceholderStats;
+import cloud.grabsky.displayentities.util.LombokExtensions;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.bukkit.command.CommandSender;
+import revxrsal.commands.annotation.Command;
+import revxrsal.commands.annotation.Dependency;
+import revxrsal.commands.bukkit.annotation.CommandPermission;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.jetbrains.annotations.NotNull;
+
+import lombok.experimental.ExtensionMethod;
+
+@ExtensionMethod(LombokExtensions.class)
+public enum CommandDisplayStats {
+    INSTANCE; // SINGLETON
+
+    @Dependency
+    private DisplayEntities plugin;
+
+    @Dependency
+    private PluginConfiguration configuration;
+
+    // Number of entries shown in each section.
+    private static final int LIMIT = 5;
+
+    @Command("display stats")
+    @CommandPermission("displayentities.command.display.stats")
+    public String onDisplayStats(
+            final @NotNull CommandSender sender
+    ) {
+        final PlaceholderStats stats = plugin.placeholderStats();
+        final List<Map.Entry<String, PlaceholderStats.Histogram>> placeholders = stats.placeholders(LIMIT);
+        // Sending message if nothing has been recorded yet.
+        if (placeholders.isEmpty() == true)
+            return configuration.messages().commandDisplayStatsEmpty();
+        final List<String> lines = new ArrayList<>();
+        // Adding slowest placeholders. These are the only entries that can be flagged.
+        lines.add(configuration.messages().commandDisplayStatsPlaceholders());
+        placeholders.forEach(it -> lines.add(entry(it, stats.isFlagged(it.getKey()))));
+        // Adding slowest expansions.
+        lines.add(configuration.messages().commandDisplayStatsExpansions());
+        stats.expansions(LIMIT).forEach(it -> lines.add(entry(it, false)));
+        // Adding slowest displays, if any were rendered.
+        final List<Map.Entry<String, PlaceholderStats.Histogram>> displays = stats.displays(LIMIT);
+        if (displays.isEmpty() == false) {
+            lines.add(configuration.messages().commandDisplayStatsDisplays());
+            displays.forEach(it -> lines.add(entry(it, false)));
+        }
+        // Sending all sections as a single message.
+        return String.join("<newline>", lines);
+    }
+
+    @Command("display stats reset")
+    @CommandPermission("displayentities.command.display.stats")
+    public String onDisplayStatsReset(
+            final @NotNull CommandSender sender
+    ) {
+        // Forgetting all collected statistics.
+        plugin.placeholderStats().reset();
+        // Sending success message to the sender.
+        return configuration.messages().commandDisplayStatsReset();
+    }
+
+    /* HELPER METHODS */
+
+    private @NotNull String entry(final @NotNull Map.Entry<String, PlaceholderStats.Histogram> entry, final boolean isFlagged) {
+        final PlaceholderStats.Histogram histogram = entry.getValue();
+        return configuration.messages().commandDisplayStatsEntry().repl(
+                "{name}", MiniMessage.miniMessage().escapeTags(entry.getKey()),
+                "{count}", histogram.count(),
+                "{average}", PlaceholderStats.Histogram.format(histogram.average()),
+                "{p95}", PlaceholderStats.Histogram.format(histogram.percentile(0.95D)),
+                "{max}", PlaceholderStats.Histogram.format(histogram.max()),
+                "{flag}", (isFlagged == true) ? configuration.messages().commandDisplayStatsEntryFlag() : ""
+        );
+    }
+
+}
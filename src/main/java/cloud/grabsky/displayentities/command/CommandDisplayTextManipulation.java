@@ -28,8 +28,13 @@ package cloud.grabsky.displayentities.command;
 import cloud.grabsky.displayentities.DisplayEntities;
 import cloud.grabsky.displayentities.DisplayWrapper;
 import cloud.grabsky.displayentities.configuration.PluginConfiguration;
+import cloud.grabsky.displayentities.registry.DisplayIndex;
+import cloud.grabsky.displayentities.text.TextLines;
 import cloud.grabsky.displayentities.util.LombokExtensions;
+import org.bukkit.Bukkit;
+import org.bukkit.NamespacedKey;
 import org.bukkit.entity.Player;
+import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
 import revxrsal.commands.annotation.Command;
 import revxrsal.commands.annotation.Dependency;
@@ -39,10 +44,16 @@ import revxrsal.commands.bukkit.actor.BukkitCommandActor;
 import revxrsal.commands.bukkit.annotation.CommandPermission;
 import revxrsal.commands.node.ExecutionContext;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
 import java.util.stream.IntStream;
 
 import org.jetbrains.annotations.NotNull;
@@ -58,9 +69,15 @@ import static cloud.grabsky.displayentities.util.Conditions.inRange;
 public enum CommandDisplayTextManipulation {
     INSTANCE; // SINGLETON
 
+    @Dependency
+    private DisplayEntities plugin;
+
     @Dependency
     private PluginConfiguration configuration;
 
+    // Lower-cased locale, such as en_us, or language, such as en.
+    private static final Pattern LOCALE_FORMAT = Pattern.compile("^[a-z]{2,3}(_[a-z0-9]{2,8})?$");
+
     // Display > Edit > Add Line
 
     @Command("display edit <display> add_line <text>")
@@ -70,16 +87,10 @@ public enum CommandDisplayTextManipulation {
             final @NotNull DisplayWrapper.Text display,
             final @NotNull String text
     ) {
-        // Getting text contents stored inside PDC of the entity.
-        final List<String> contents = getTextContents(display);
-        // Setting element at specified index to the provided text.
-        contents.add(text);
-        // Joining contents to a single string with elements separated using '<newline>' delimiter.
-        final String contentsJoined = String.join("<newline>", contents);
-        // Updating contents stored in the PDC.
-        display.set(DisplayEntities.Keys.TEXT_CONTENTS, PersistentDataType.STRING, contentsJoined);
-        // Updating contents on the entity.
-        display.as(DisplayWrapper.Text.class).entity().setRichText(contentsJoined);
+        // Getting cached lines of the entity and adding the line. Only the new line is parsed.
+        final TextLines contents = plugin.textCache().lines(display.entity()).add(text);
+        // Updating contents stored in the PDC and on the entity.
+        this.update(display, contents);
         // Sending success message to the sender.
         return configuration.messages().commandDisplayEditAddLineSuccess().repl("{number}", contents.size());
     }
@@ -93,21 +104,15 @@ public enum CommandDisplayTextManipulation {
             final @NotNull DisplayWrapper.Text display,
             final @NotNull @SuggestWith(LineNumberSuggestionProvider.class) Integer number
     ) {
-        // Getting text contents stored inside PDC of the entity.
-        final List<String> contents = getTextContents(display);
+        // Getting cached lines of the entity.
+        final TextLines contents = plugin.textCache().lines(display.entity());
         // Sending error message if user specified index that is out of bounds for the element list.
         if (inRange(number, 1, contents.size()) == false)
             return configuration.messages().commandDisplayEditRemoveLineFailureOutOfBounds().repl("{number}", number).repl("{max}", contents.size());
-        // Setting element at specified index to the provided text.
-        if (contents.isEmpty() == true)
-            return configuration.messages().commandDisplayEditRemoveLineFailureOutOfBounds().repl("{number}", number).repl("{max}", contents.size());
-        else contents.remove(number - 1);
-        // Joining contents to a single string with elements separated using '<newline>' delimiter.
-        final String contentsJoined = String.join("<newline>", contents);
-        // Updating contents stored in the PDC.
-        display.set(DisplayEntities.Keys.TEXT_CONTENTS, PersistentDataType.STRING, contentsJoined);
-        // Updating contents on the entity.
-        display.as(DisplayWrapper.Text.class).entity().setRichText(contentsJoined);
+        // Removing element at specified index.
+        final TextLines modified = contents.remove(number - 1);
+        // Updating contents stored in the PDC and on the entity.
+        this.update(display, modified);
         // Sending success message to the sender.
         return configuration.messages().commandDisplayEditRemoveLineSuccess().repl("{number}", number);
     }
@@ -122,21 +127,15 @@ public enum CommandDisplayTextManipulation {
             final @NotNull @SuggestWith(LineNumberSuggestionProvider.class) Integer number,
             final @NotNull @SuggestWith(LineTextSuggestionProvider.class) String text
     ) {
-        // Getting text contents stored inside PDC of the entity.
-        final List<String> contents = getTextContents(display);
+        // Getting cached lines of the entity.
+        final TextLines contents = plugin.textCache().lines(display.entity());
         // Sending error message if user specified index that is out of bounds for the element list.
         if (inRange(number, 1, contents.size()) == false)
             return configuration.messages().commandDisplayEditSetLineFailureOutOfBounds().repl("{number}", number).repl("{max}", contents.size());
         // Setting element at specified index to the provided text.
-        if (contents.isEmpty() == true)
-            contents.add(text);
-        else contents.set(number - 1, text);
-        // Joining contents to a single string with elements separated using '<newline>' delimiter.
-        final String contentsJoined = String.join("<newline>", contents);
-        // Updating contents stored in the PDC.
-        display.set(DisplayEntities.Keys.TEXT_CONTENTS, PersistentDataType.STRING, contentsJoined);
-        // Updating contents on the entity.
-        display.as(DisplayWrapper.Text.class).entity().setRichText(contentsJoined);
+        final TextLines modified = contents.set(number - 1, text);
+        // Updating contents stored in the PDC and on the entity.
+        this.update(display, modified);
         // Sending success message to the sender.
         return configuration.messages().commandDisplayEditSetLineSuccess().repl("{number}", number);
     }
@@ -149,31 +148,149 @@ public enum CommandDisplayTextManipulation {
             final @NotNull @SuggestWith(LineNumberSuggestionProvider.class) Integer number,
             final @NotNull String text
     ) {
-        // Getting text contents stored inside PDC of the entity.
-        final List<String> contents = getTextContents(display);
+        // Getting cached lines of the entity.
+        final TextLines contents = plugin.textCache().lines(display.entity());
         // Sending error message if user specified index that is out of bounds for the element list.
         if (inRange(number, 1, contents.size()) == false)
             return configuration.messages().commandDisplayEditInsertLineFailureOutOfBounds().repl("{number}", number).repl("{max}", contents.size());
-        // Setting element at specified index to the provided text.
-        if (contents.isEmpty() == true)
-            contents.add(text);
-        else contents.add(number - 1, text);
-        // Joining contents to a single string with elements separated using '<newline>' delimiter.
-        final String contentsJoined = String.join("<newline>", contents);
-        // Updating contents stored in the PDC.
-        display.set(DisplayEntities.Keys.TEXT_CONTENTS, PersistentDataType.STRING, contentsJoined);
-        // Updating contents on the entity.
-        display.as(DisplayWrapper.Text.class).entity().setRichText(contentsJoined);
+        // Inserting element at specified index.
+        final TextLines modified = contents.insert(number - 1, text);
+        // Updating contents stored in the PDC and on the entity.
+        this.update(display, modified);
         // Sending success message to the sender.
         return configuration.messages().commandDisplayEditInsertLineSuccess().repl("{number}", number);
     }
 
+    // Display > Edit > Line Refresh Interval
+
+    @Command("display edit <display> line_refresh_interval")
+    @CommandPermission("displayentities.command.display.edit.line_refresh_interval")
+    public String onDisplayLineRefreshInterval(
+            final @NotNull Player sender,
+            final @NotNull DisplayWrapper.Text display,
+            final @NotNull @SuggestWith(LineNumberSuggestionProvider.class) Integer number,
+            final @NotNull @SuggestWith(LineIntervalSuggestionProvider.class) String interval
+    ) {
+        // Getting cached lines of the entity.
+        final TextLines contents = plugin.textCache().lines(display.entity());
+        // Sending error message if user specified index that is out of bounds for the element list.
+        if (inRange(number, 1, contents.size()) == false)
+            return configuration.messages().commandDisplayEditLineRefreshIntervalFailureOutOfBounds().repl("{number}", number).repl("{max}", contents.size());
+        // Parsing the interval. Can be null.
+        final @Nullable Integer parsedInterval = switch (interval) {
+            case "default" -> TextLines.DEFAULT_INTERVAL;
+            case "static" -> TextLines.STATIC;
+            default -> parseInt(interval);
+        };
+        // Sending error message if invalid value was found. Numeric values must be positive.
+        if (parsedInterval == null || (parsedInterval <= 0 && interval.equals("default") == false && interval.equals("static") == false))
+            return configuration.messages().commandDisplayEditLineRefreshIntervalFailureInvalidValue();
+        // Setting refresh interval of the line.
+        final TextLines modified = contents.interval(number - 1, parsedInterval);
+        // Updating contents stored in the PDC and on the entity.
+        this.update(display, modified);
+        // Sending success message to the sender.
+        return configuration.messages().commandDisplayEditLineRefreshIntervalSuccess().repl("{number}", number).repl("{interval}", (parsedInterval > 0) ? parsedInterval + " ticks" : interval);
+    }
+
+    // Display > Edit > Translation
+
+    @Command("display edit <display> translation set")
+    @CommandPermission("displayentities.command.display.edit.translation")
+    public String onDisplayTranslationSet(
+            final @NotNull Player sender,
+            final @NotNull DisplayWrapper.Text display,
+            final @NotNull @SuggestWith(LocaleSuggestionProvider.class) String locale,
+            final @NotNull String text
+    ) {
+        final String lowerCaseLocale = locale.toLowerCase(Locale.ROOT);
+        // Sending error message if specified locale does not match the format.
+        if (LOCALE_FORMAT.matcher(lowerCaseLocale).matches() == false)
+            return configuration.messages().commandDisplayEditTranslationFailureInvalidLocale().repl("{input}", locale);
+        // Getting cached translations of the entity and setting the translation. Lines share refresh intervals with lines of the entity.
+        final Map<String, TextLines> translations = new HashMap<>(plugin.textCache().translations(display.entity()));
+        translations.put(lowerCaseLocale, TextLines.parse(text, display.get(DisplayEntities.Keys.LINE_REFRESH_INTERVALS, PersistentDataType.INTEGER_ARRAY)));
+        // Updating translations stored in the PDC and in the cache.
+        this.update(display, translations);
+        // Sending success message to the sender.
+        return configuration.messages().commandDisplayEditTranslationSetSuccess().repl("{locale}", lowerCaseLocale);
+    }
+
+    @Command("display edit <display> translation remove")
+    @CommandPermission("displayentities.command.display.edit.translation")
+    public String onDisplayTranslationRemove(
+            final @NotNull Player sender,
+            final @NotNull DisplayWrapper.Text display,
+            final @NotNull @SuggestWith(TranslationSuggestionProvider.class) String locale
+    ) {
+        final String lowerCaseLocale = locale.toLowerCase(Locale.ROOT);
+        // Getting cached translations of the entity.
+        final Map<String, TextLines> translations = new HashMap<>(plugin.textCache().translations(display.entity()));
+        // Sending error message if entity has no translation for specified locale.
+        if (translations.remove(lowerCaseLocale) == null)
+            return configuration.messages().commandDisplayEditTranslationRemoveFailureNotFound().repl("{locale}", locale);
+        // Updating translations stored in the PDC and in the cache.
+        this.update(display, translations);
+        // Sending success message to the sender.
+        return configuration.messages().commandDisplayEditTranslationRemoveSuccess().repl("{locale}", lowerCaseLocale);
+    }
+
     /* HELPER METHODS */
 
-    private static @NotNull ArrayList<String> getTextContents(final @NotNull DisplayWrapper wrapper) {
-        return new ArrayList<>() {{
-            Collections.addAll(this, wrapper.get(DisplayEntities.Keys.TEXT_CONTENTS, PersistentDataType.STRING, "").split("<newline>"));
-        }};
+    private void update(final @NotNull DisplayWrapper.Text display, final @NotNull TextLines contents) {
+        // Updating contents stored in the PDC.
+        display.set(DisplayEntities.Keys.TEXT_CONTENTS, PersistentDataType.STRING, contents.source());
+        // Updating refresh intervals of lines stored in the PDC. Removed if all lines use the default interval.
+        final int[] intervals = contents.intervals();
+        if (intervals != null)
+            display.set(DisplayEntities.Keys.LINE_REFRESH_INTERVALS, PersistentDataType.INTEGER_ARRAY, intervals);
+        else display.remove(DisplayEntities.Keys.LINE_REFRESH_INTERVALS);
+        // Updating contents on the entity. Components of unchanged lines are re-used.
+        display.entity().text(contents.component());
+        // Caching modified lines and invalidating compiled text template of the entity.
+        plugin.textCache().update(display.entity(), contents);
+        // Re-indexing the entity, so suggestions can see the new contents.
+        plugin.displayIndex().update(display.entity());
+        // Rescheduling refreshes and rendering the text again, as placeholders or refresh intervals of lines may have changed.
+        plugin.updateText(display.entity());
+    }
+
+    private void update(final @NotNull DisplayWrapper.Text display, final @NotNull Map<String, TextLines> translations) {
+        // Updating translations stored in the PDC. Removed if there are none left.
+        if (translations.isEmpty() == false) {
+            final PersistentDataContainer container = display.entity().getPersistentDataContainer().getAdapterContext().newPersistentDataContainer();
+            translations.forEach((locale, contents) -> container.set(new NamespacedKey("display_entities", locale), PersistentDataType.STRING, contents.source()));
+            display.set(DisplayEntities.Keys.TEXT_TRANSLATIONS, PersistentDataType.TAG_CONTAINER, container);
+        } else display.remove(DisplayEntities.Keys.TEXT_TRANSLATIONS);
+        // Caching modified translations and invalidating compiled text template of the entity.
+        plugin.textCache().update(display.entity(), translations);
+        // Re-indexing the entity, so suggestions can see the new translations.
+        plugin.displayIndex().update(display.entity());
+        // Rendering the text again for current viewers, as server does not send anything when only translations are changed.
+        plugin.updateText(display.entity());
+    }
+
+    private static @Nullable Integer parseInt(final @NotNull String str) {
+        try {
+            return Integer.parseInt(str);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Returns cached lines of the entity, or lines parsed from the index snapshot if not cached yet. Safe to be called from completion threads, as entity itself is never accessed.
+    private static @NotNull TextLines getCachedTextContents(final @NotNull DisplayWrapper wrapper) {
+        final @Nullable TextLines lines = DisplayEntities.instance().textCache().cachedLines(wrapper.entity().getEntityId());
+        // Returning cached lines if present.
+        if (lines != null)
+            return lines;
+        // Otherwise, parsing lines from contents snapshotted when the entity was last indexed.
+        final @Nullable DisplayIndex.Entry entry = DisplayEntities.instance().displayIndex().get(wrapper.entity());
+        final @Nullable String contents = (entry != null) ? entry.property(DisplayIndex.Property.TEXT_CONTENTS) : null;
+        if (contents == null)
+            return TextLines.EMPTY;
+        final @Nullable String intervals = entry.property(DisplayIndex.Property.LINE_REFRESH_INTERVALS);
+        return TextLines.parse(contents, (intervals != null) ? Arrays.stream(intervals.split(",")).mapToInt(Integer::parseInt).toArray() : null);
     }
 
 
@@ -187,7 +304,7 @@ public enum CommandDisplayTextManipulation {
             // Getting the DisplayWrapper argument.
             final @Nullable DisplayWrapper.Text wrapper = context.getResolvedArgumentOrNull(DisplayWrapper.Text.class);
             // Generating and returning suggestions.
-            return (wrapper != null) ? IntStream.range(1, getTextContents(wrapper).size() + 1).mapToObj(String::valueOf).toList() : Collections.emptyList();
+            return (wrapper != null) ? IntStream.range(1, getCachedTextContents(wrapper).size() + 1).mapToObj(String::valueOf).toList() : Collections.emptyList();
         }
 
     }
@@ -204,10 +321,71 @@ public enum CommandDisplayTextManipulation {
             // Returning empty list if any of required arguments is null.
             if (wrapper == null || number == null)
                 return Collections.emptyList();
-            // Getting text contents stored inside PDC of the entity.
-            final List<String> contents = getTextContents(wrapper);
+            // Getting cached lines of the entity.
+            final TextLines contents = getCachedTextContents(wrapper);
             // Returning selected line in suggestions, or an empty list.
-            return (contents.size() >= number) ? Collections.singletonList(contents.get(number - 1)) : Collections.emptyList();
+            return (contents.size() >= number && number > 0) ? Collections.singletonList(contents.line(number - 1)) : Collections.emptyList();
+        }
+
+    }
+
+    @NoArgsConstructor(access = AccessLevel.PRIVATE)
+    private static final class LocaleSuggestionProvider implements SuggestionProvider<BukkitCommandActor> {
+
+        @Override
+        public @NotNull Collection<String> getSuggestions(@NotNull final ExecutionContext<BukkitCommandActor> context) {
+            // Suggesting locales of all online players, along with their languages.
+            final Set<String> suggestions = new TreeSet<>();
+            for (final Player player : Bukkit.getOnlinePlayers()) {
+                suggestions.add(player.locale().toString().toLowerCase(Locale.ROOT));
+                suggestions.add(player.locale().getLanguage().toLowerCase(Locale.ROOT));
+            }
+            return suggestions;
+        }
+
+    }
+
+    @NoArgsConstructor(access = AccessLevel.PRIVATE)
+    private static final class TranslationSuggestionProvider implements SuggestionProvider<BukkitCommandActor> {
+
+        @Override
+        public @NotNull Collection<String> getSuggestions(@NotNull final ExecutionContext<BukkitCommandActor> context) {
+            // Getting the DisplayWrapper argument.
+            final @Nullable DisplayWrapper.Text wrapper = context.getResolvedArgumentOrNull(DisplayWrapper.Text.class);
+            // Returning empty list if wrapper was not specified.
+            if (wrapper == null)
+                return Collections.emptyList();
+            // Getting cached translations of the entity. Entity itself cannot be accessed from completion threads.
+            final @Nullable Map<String, TextLines> translations = DisplayEntities.instance().textCache().cachedTranslations(wrapper.entity().getEntityId());
+            if (translations != null)
+                return new TreeSet<>(translations.keySet());
+            // Otherwise, getting translated locales snapshotted when the entity was last indexed.
+            final @Nullable DisplayIndex.Entry entry = DisplayEntities.instance().displayIndex().get(wrapper.entity());
+            final @Nullable String locales = (entry != null) ? entry.property(DisplayIndex.Property.TRANSLATIONS) : null;
+            // Generating and returning suggestions.
+            return (locales != null) ? new TreeSet<>(List.of(locales.split(","))) : Collections.emptyList();
+        }
+
+    }
+
+    @NoArgsConstructor(access = AccessLevel.PRIVATE)
+    private static final class LineIntervalSuggestionProvider implements SuggestionProvider<BukkitCommandActor> {
+
+        @Override
+        public @NotNull Collection<String> getSuggestions(@NotNull final ExecutionContext<BukkitCommandActor> context) {
+            // Getting the DisplayWrapper argument.
+            final @Nullable DisplayWrapper.Text wrapper = context.getResolvedArgumentOrNull(DisplayWrapper.Text.class);
+            // Getting the line number argument.
+            final @Nullable Integer number = context.getResolvedArgumentOrNull(Integer.class);
+            // Returning only keywords if any of required arguments is null.
+            if (wrapper == null || number == null)
+                return List.of("default", "static");
+            // Getting cached lines of the entity.
+            final TextLines contents = getCachedTextContents(wrapper);
+            // Returning current interval of selected line along with keywords, if it has been customized.
+            return (contents.size() >= number && number > 0 && contents.lines().get(number - 1).interval() > 0)
+                    ? List.of(String.valueOf(contents.lines().get(number - 1).interval()), "default", "static")
+                    : List.of("default", "static");
         }
 
     }
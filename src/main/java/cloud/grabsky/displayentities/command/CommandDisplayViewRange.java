@@ -25,8 +25,10 @@
  */
 package cloud.grabsky.displayentities.command;
 
+import cloud.grabsky.displayentities.DisplayEntities;
 import cloud.grabsky.displayentities.DisplayWrapper;
 import cloud.grabsky.displayentities.configuration.PluginConfiguration;
+import cloud.grabsky.displayentities.registry.DisplayIndex;
 import cloud.grabsky.displayentities.util.LombokExtensions;
 import org.bukkit.entity.Display;
 import org.bukkit.entity.Player;
@@ -66,6 +68,8 @@ public enum CommandDisplayViewRange {
         final float finalViewRange = Math.max(0F, viewRange);
         // Updating value of the view_range property of the display entity.
         display.entity(Display.class).setViewRange(finalViewRange);
+        // Re-indexing the entity, so suggestions can see the new value.
+        DisplayEntities.instance().displayIndex().update(display.entity());
         // Sending success message to the sender.
         return configuration.messages().commandDisplayEditViewRangeSuccess().repl("{range}", finalViewRange);
     }
@@ -79,8 +83,11 @@ public enum CommandDisplayViewRange {
         public @NotNull Collection<String> getSuggestions(@NotNull final ExecutionContext<BukkitCommandActor> context) {
             // Getting the DisplayWrapper argument.
             final @Nullable DisplayWrapper wrapper = context.getResolvedArgumentOrNull(DisplayWrapper.class);
+            // Getting the current value from the index. Entity itself cannot be accessed from completion threads.
+            final @Nullable DisplayIndex.Entry entry = (wrapper != null) ? DisplayEntities.instance().displayIndex().get(wrapper.entity()) : null;
+            final @Nullable String viewRange = (entry != null) ? entry.property(DisplayIndex.Property.VIEW_RANGE) : null;
             // Generating and returning suggestions.
-            return (wrapper != null) ? Collections.singletonList(String.format("%.2f", wrapper.entity(Display.class).getViewRange())) : Collections.emptyList();
+            return (viewRange != null) ? Collections.singletonList(viewRange) : Collections.emptyList();
         }
 
     }
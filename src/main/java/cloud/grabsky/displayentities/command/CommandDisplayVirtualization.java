@@ -0,0 +1,125 @@
+/*
+ * DisplayEntities (https://github.com/Grabsky/DisplayEntities)
+ *
+ * MIT License
+ *
+ * Copyright (c) 2026 Grabsky (michal.czopek.foss@proton.me)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cloud.grabsky.displayentities.command;
+
+import cloud.grabsky.displayentities.DisplayEntities;
+import cloud.grabsky.displayentities.DisplayWrapper;
+import cloud.grabsky.displayentities.configuration.PluginConfiguration;
+import cloud.grabsky.displayentities.util.LombokExtensions;
+import cloud.grabsky.displayentities.virtual.VirtualDisplay;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.BlockDisplay;
+import org.bukkit.entity.Display;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.ItemDisplay;
+import org.bukkit.entity.Player;
+import org.bukkit.entity.TextDisplay;
+import org.bukkit.event.entity.CreatureSpawnEvent;
+import revxrsal.commands.annotation.Command;
+import revxrsal.commands.annotation.Dependency;
+import revxrsal.commands.annotation.SuggestWith;
+import revxrsal.commands.autocomplete.SuggestionProvider;
+import revxrsal.commands.bukkit.actor.BukkitCommandActor;
+import revxrsal.commands.bukkit.annotation.CommandPermission;
+import revxrsal.commands.node.ExecutionContext;
+
+import java.util.Collection;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import lombok.experimental.ExtensionMethod;
+
+@ExtensionMethod(LombokExtensions.class)
+public enum CommandDisplayVirtualization {
+    INSTANCE; // SINGLETON
+
+    @Dependency
+    private DisplayEntities plugin;
+
+    @Dependency
+    private PluginConfiguration configuration;
+
+    @Command("display virtualize <display>")
+    @CommandPermission("displayentities.command.display.virtualize")
+    public String onDisplayVirtualize(
+            final @NotNull Player sender,
+            final @NotNull DisplayWrapper display
+    ) {
+        // Sending error message if virtual displays cannot be sent to players. Display would otherwise be removed and never shown again.
+        if (plugin.isVirtualDisplaysEnabled() == false)
+            return configuration.messages().commandDisplayVirtualizeFailureUnavailable();
+        // Sending error message if display is of unsupported type. Mannequins and interactions have server-side behavior and cannot be virtualized.
+        if ((display.entity() instanceof TextDisplay || display.entity() instanceof ItemDisplay || display.entity() instanceof BlockDisplay) == false)
+            return configuration.messages().commandDisplayVirtualizeFailureUnsupportedType();
+        // Sending error message if virtual display with the same name already exists.
+        if (plugin.virtualDisplays().get(display.name()) != null)
+            return configuration.messages().commandDisplayVirtualizeFailureAlreadyExists().repl("{name}", display.name());
+        // Adding the display to the store and saving it asynchronously.
+        plugin.virtualDisplays().add(VirtualDisplay.of(display.name(), (Display) display.entity()));
+        plugin.saveVirtualDisplaysAsync();
+        // Removing the display entity. From now on, it will be sent to players using packets.
+        display.entity().remove();
+        // Sending success message to the sender.
+        return configuration.messages().commandDisplayVirtualizeSuccess().repl("{name}", display.name());
+    }
+
+    @Command("display devirtualize <name>")
+    @CommandPermission("displayentities.command.display.devirtualize")
+    public String onDisplayDevirtualize(
+            final @NotNull Player sender,
+            final @NotNull @SuggestWith(VirtualDisplaySuggestionProvider.class) String name
+    ) {
+        final @Nullable VirtualDisplay display = plugin.virtualDisplays().get(name);
+        // Sending error message if virtual display does not exist or its world is not loaded.
+        if (display == null || display.definition() == null)
+            return configuration.messages().commandDisplayDevirtualizeFailureNotFound().repl("{name}", MiniMessage.miniMessage().stripTags(name));
+        // Sending error message if specified name is already taken by another display.
+        if (plugin.names().contains(name) == true)
+            return configuration.messages().errorNameAlreadyTaken().repl("{name}", name);
+        // Removing the display from the store and saving it asynchronously. It will be destroyed for all players during their next range check.
+        plugin.virtualDisplays().remove(name);
+        plugin.saveVirtualDisplaysAsync();
+        // Evicting compiled text template of the virtual display.
+        plugin.textCache().invalidate(display.entityId());
+        // Creating the Entity instance from the stored data and spawning it at the original location.
+        final Entity entity = Bukkit.getUnsafe().deserializeEntity(display.data(), display.definition().getWorld(), true, false);
+        entity.spawnAt(entity.getLocation(), CreatureSpawnEvent.SpawnReason.COMMAND);
+        // Sending success message to the sender.
+        return configuration.messages().commandDisplayDevirtualizeSuccess().repl("{name}", display.name());
+    }
+
+    public static final class VirtualDisplaySuggestionProvider implements SuggestionProvider<BukkitCommandActor> {
+
+        @Override
+        public @NotNull Collection<String> getSuggestions(final @NotNull ExecutionContext<BukkitCommandActor> context) {
+            return DisplayEntities.instance().virtualDisplays().names();
+        }
+
+    }
+
+}
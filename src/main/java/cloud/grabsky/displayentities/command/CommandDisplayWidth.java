@@ -25,8 +25,10 @@
  */
 package cloud.grabsky.displayentities.command;
 
+import cloud.grabsky.displayentities.DisplayEntities;
 import cloud.grabsky.displayentities.DisplayWrapper;
 import cloud.grabsky.displayentities.configuration.PluginConfiguration;
+import cloud.grabsky.displayentities.registry.DisplayIndex;
 import cloud.grabsky.displayentities.util.LombokExtensions;
 import org.bukkit.entity.Player;
 import revxrsal.commands.annotation.Command;
@@ -65,6 +67,8 @@ public enum CommandDisplayWidth {
         final float finalWidth = Math.max(0, width);
         // Setting width of the interaction entity.
         display.entity().setInteractionWidth(finalWidth);
+        // Re-indexing the entity, so suggestions can see the new value.
+        DisplayEntities.instance().displayIndex().update(display.entity());
         // Sending success message to the sender.
         return configuration.messages().commandDisplayEditWidthSuccess().repl("{width}", finalWidth);
     }
@@ -78,8 +82,11 @@ public enum CommandDisplayWidth {
         public @NotNull Collection<String> getSuggestions(@NotNull final ExecutionContext<BukkitCommandActor> context) {
             // Getting the DisplayWrapper argument.
             final @Nullable DisplayWrapper.Interaction wrapper = context.getResolvedArgumentOrNull(DisplayWrapper.Interaction.class);
+            // Getting the current value from the index. Entity itself cannot be accessed from completion threads.
+            final @Nullable DisplayIndex.Entry entry = (wrapper != null) ? DisplayEntities.instance().displayIndex().get(wrapper.entity()) : null;
+            final @Nullable String width = (entry != null) ? entry.property(DisplayIndex.Property.WIDTH) : null;
             // Generating and returning suggestions.
-            return (wrapper != null) ? Collections.singletonList(wrapper.entity().getInteractionWidth() + "") : Collections.emptyList();
+            return (width != null) ? Collections.singletonList(width) : Collections.emptyList();
         }
 
     }
@@ -27,13 +27,11 @@ package cloud.grabsky.displayentities.command.parameter;
 
 import cloud.grabsky.displayentities.DisplayEntities;
 import cloud.grabsky.displayentities.DisplayWrapper;
+import cloud.grabsky.displayentities.registry.DisplayIndex;
 import com.google.common.reflect.TypeToken;
-import org.bukkit.entity.Display;
-import org.bukkit.entity.Entity;
-import org.bukkit.entity.Interaction;
-import org.bukkit.entity.Mannequin;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
 import org.bukkit.entity.Player;
-import org.bukkit.persistence.PersistentDataType;
 import revxrsal.commands.Lamp;
 import revxrsal.commands.annotation.list.AnnotationList;
 import revxrsal.commands.autocomplete.SuggestionProvider;
@@ -44,6 +42,8 @@ import revxrsal.commands.parameter.ParameterType;
 import revxrsal.commands.stream.MutableStringStream;
 
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -68,16 +68,19 @@ public enum DisplayWrapperParameterType implements ParameterType.Factory<BukkitC
                 final Player sender = context.actor().requirePlayer();
                 // Getting the configured radius for nearby entities lookup.
                 final int radius = DisplayEntities.instance().configuration().nearbyEntitiesRadius();
-                // Getting all applicable entities around the player.
-                final @Nullable Entity display = context.actor().requirePlayer().getNearbyEntities(radius, radius, radius).stream()
-                        .filter(it -> (it instanceof Display || it instanceof Interaction || it instanceof Mannequin) && (it.getTrackedBy().contains(sender) == true) && it.getPersistentDataContainer().getOrDefault(DisplayEntities.Keys.NAME, PersistentDataType.STRING, "").equals(value) == true)
+                // Commands are executed on the thread that owns the sender, while completions are served asynchronously. Only the snapshot can be used for completions.
+                final boolean isSuggesting = Bukkit.isOwnedByCurrentRegion(sender) == false;
+                // Getting the first entry with this name that is within the radius and visible to the sender.
+                // Visibility can only be checked on the thread that owns the entity, so entities owned by other regions are rejected when executing the command.
+                final @Nullable DisplayIndex.Entry display = DisplayEntities.instance().displayIndex().byName(value).stream()
+                        .filter(it -> isNearby(it, sender, radius) == true && (isSuggesting == true || isVisible(it, sender) == true))
                         .findFirst().orElse(null);
                 // Throwing exception if not found.
                 if (display == null) {
                     throw new Exception(value);
                 }
-                // Creating DisplayWrapper from the found entity.
-                final DisplayWrapper wrapper = DisplayWrapper.existing(display);
+                // Creating DisplayWrapper from the found entity. Name is already known, so there is no need to read it again.
+                final DisplayWrapper wrapper = DisplayWrapper.existing(display.entity(), display.name());
                 // Throwing exception if the entity is not of the expected type.
                 // This filters proceeding command suggestions and ensures command will not be executed when unsupported type is used.
                 if (clazz.isInstance(wrapper) == false) {
@@ -94,17 +97,34 @@ public enum DisplayWrapperParameterType implements ParameterType.Factory<BukkitC
                     final Player sender = context.actor().requirePlayer();
                     // Getting the configured radius for nearby entities lookup.
                     final int radius = DisplayEntities.instance().configuration().nearbyEntitiesRadius();
-                    // Filtering nearby entities and showing that in completions.
-                    return context.actor().requirePlayer().getNearbyEntities(radius, radius, radius).stream()
-                            .filter(it -> (it instanceof Display || it instanceof Interaction || it instanceof Mannequin) && (it.getTrackedBy().contains(sender) == true) && it.getPersistentDataContainer().has(DisplayEntities.Keys.NAME, PersistentDataType.STRING) == true)
-                            .map(entity -> entity.getPersistentDataContainer().get(DisplayEntities.Keys.NAME, PersistentDataType.STRING))
-                            .toList();
+                    final Location location = sender.getLocation();
+                    final List<String> names = new ArrayList<>();
+                    // Collecting names of all indexed entities within the radius.
+                    DisplayEntities.instance().displayIndex().forEachNearby(location.getWorld().getUID(), location.getX(), location.getY(), location.getZ(), radius, (entry) -> names.add(entry.name()));
+                    // Showing that in completions.
+                    return names;
                 };
             }
 
         };
     }
 
+    // Returns true if specified entry is within a box of specified radius around the player. Same area as Player#getNearbyEntities.
+    private static boolean isNearby(final @NotNull DisplayIndex.Entry entry, final @NotNull Player player, final int radius) {
+        final Location location = player.getLocation();
+        return entry.worldId().equals(location.getWorld().getUID()) == true
+                && Math.abs(entry.x() - location.getX()) <= radius
+                && Math.abs(entry.y() - location.getY()) <= radius
+                && Math.abs(entry.z() - location.getZ()) <= radius;
+    }
+
+    // Returns true if entity of specified entry is owned by the current thread, still exists and is visible to the player.
+    private static boolean isVisible(final @NotNull DisplayIndex.Entry entry, final @NotNull Player player) {
+        return Bukkit.isOwnedByCurrentRegion(entry.entity()) == true
+                && entry.entity().isValid() == true
+                && entry.entity().getTrackedBy().contains(player) == true;
+    }
+
     /**
      * Represents an exception that is thrown when an invalid value is encountered
      * while parsing a {@link DisplayWrapper} argument.
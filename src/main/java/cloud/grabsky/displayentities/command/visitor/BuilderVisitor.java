@@ -27,6 +27,7 @@ package cloud.grabsky.displayentities.command.visitor;
 
 import cloud.grabsky.displayentities.DisplayEntities;
 import cloud.grabsky.displayentities.DisplayWrapper;
+import cloud.grabsky.displayentities.archive.ArchiveImport;
 import cloud.grabsky.displayentities.command.parameter.ColorParameterType;
 import cloud.grabsky.displayentities.command.parameter.DisplayWrapperParameterType;
 import cloud.grabsky.displayentities.command.parameter.NamedTextColorParameterType;
@@ -148,6 +149,8 @@ public final class BuilderVisitor implements LampBuilderVisitor<BukkitCommandAct
                 actor.reply(plugin.miniMessage().deserialize(plugin.configuration().messages().errorEnumNotFoundPose().repl("{input}", e.input())));
             else if (e.enumType() == EquipmentSlot.class)
                 actor.reply(plugin.miniMessage().deserialize(plugin.configuration().messages().errorEnumNotFoundEquipmentSlot().repl("{input}", e.input())));
+            else if (e.enumType() == ArchiveImport.Mode.class)
+                actor.reply(plugin.miniMessage().deserialize(plugin.configuration().messages().errorEnumNotFoundImportMode().repl("{input}", e.input())));
             else super.onEnumNotFound(e, actor);
         }
 
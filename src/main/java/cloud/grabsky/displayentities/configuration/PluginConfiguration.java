@@ -26,6 +26,8 @@
 package cloud.grabsky.displayentities.configuration;
 
 import cloud.grabsky.displayentities.DisplayEntities;
+import cloud.grabsky.displayentities.refresh.RefreshBands;
+import cloud.grabsky.displayentities.text.PlaceholderClassifier;
 import revxrsal.spec.annotation.Comment;
 import revxrsal.spec.annotation.ConfigSpec;
 import revxrsal.spec.annotation.Key;
@@ -54,6 +56,24 @@ public interface PluginConfiguration {
         return 200;
     }
 
+    @Order(1) @Key("refresh_distance_bands")
+    @Comment("Distance bands within which placeholders are refreshed at a lower rate. Maps distance in blocks to divisor of the refresh rate; 1 is full rate, 4 is a quarter of it and 0 stops refreshing. Viewers beyond the farthest band receive no refreshes until they come closer. Empty to refresh at full rate regardless of distance. (Example: { \"16\": 1, \"48\": 4 }) (Default: {})")
+    default LinkedHashMap<String, Integer> refreshDistanceBands() {
+        return new LinkedHashMap<>();
+    }
+
+    @Order(1) @Key("prioritize_in_view_displays")
+    @Comment("Whether placeholders should be refreshed only for viewers looking towards the display. Refreshes skipped for other viewers are caught up within a few ticks after the display comes into their view. (Default: false)")
+    default boolean prioritizeInViewDisplays() {
+        return false;
+    }
+
+    @Order(1) @Key("view_cone_angle")
+    @Comment("Angle in degrees, measured from the look direction of a player, within which displays are considered in view. Displays within 4 blocks are always considered in view. Applies only when prioritize_in_view_displays is enabled. (Default: 60.0)")
+    default double viewConeAngle() {
+        return 60.0D;
+    }
+
     @Order(2) @Key("nearby_entities_radius")
     @Comment("Radius in blocks within which entities are collected for command completions and parsed in commands. Capped to server's simulation distance. (Default: 64)")
     default int nearbyEntitiesRadius() {
@@ -70,7 +90,61 @@ public interface PluginConfiguration {
         return 2.5F;
     }
 
-    @Order(4) @Key("predefined_colors")
+    @Order(3) @Key("mannequin_look_update_rate")
+    @Comment("Interval in ticks between rotation updates of mannequin entities tracking (looking at) nearest player. Rotation is sent only when it has changed. (Default: 2)")
+    default int mannequinLookUpdateRate() {
+        return 2;
+    }
+
+    @Order(4) @Key("global_placeholders")
+    @Comment("Placeholders that do not depend on the viewer. These are resolved once per refresh and shared across all viewers. Use '*' at the end to match by prefix. Only list placeholders that are guaranteed to never depend on the viewer. (Example: [\"server_*\"]) (Default: [])")
+    default List<String> globalPlaceholders() {
+        return List.of();
+    }
+
+    @Order(5) @Key("virtual_displays_view_distance")
+    @Comment("Distance in blocks within which virtual displays are sent to players. (Default: 48)")
+    default int virtualDisplaysViewDistance() {
+        return 48;
+    }
+
+    @Order(6) @Key("slow_placeholder_budget")
+    @Comment("Time in milliseconds a single placeholder may take to resolve before it is reported as slow. Statistics can be viewed using /display stats command. (Default: 5.0)")
+    default double slowPlaceholderBudget() {
+        return 5.0D;
+    }
+
+    @Order(6) @Key("render_worker_threads")
+    @Comment("Number of threads dedicated to resolving placeholders of text displays. Text that is not rendered yet is shown without placeholders until a worker renders it. Requires restart. (Default: 2)")
+    default int renderWorkerThreads() {
+        return 2;
+    }
+
+    @Order(6) @Key("defer_initial_text_render")
+    @Comment("Whether text that is not rendered yet should be rendered over the next few ticks, instead of straight away. Smooths out the work done when many displays are shown at once, for example after joining the server. (Default: false)")
+    default boolean deferInitialTextRender() {
+        return false;
+    }
+
+    @Order(6) @Key("deferred_renders_per_tick")
+    @Comment("Maximum number of deferred text renders performed per tick, across all players. Applies only when defer_initial_text_render is enabled. (Default: 32)")
+    default int deferredRendersPerTick() {
+        return 32;
+    }
+
+    @Order(6) @Key("bundle_refresh_packets")
+    @Comment("Whether packets sent to a player during a single refresh cycle should be wrapped in a bundle, so client applies all of them on the same frame. Applies only to clients on 1.19.4 or newer. (Default: false)")
+    default boolean bundleRefreshPackets() {
+        return false;
+    }
+
+    @Order(6) @Key("import_spawns_per_tick")
+    @Comment("Maximum number of displays spawned per tick when importing an archive. Lower values spread large imports over more ticks. (Default: 25)")
+    default int importSpawnsPerTick() {
+        return 25;
+    }
+
+    @Order(100) @Key("predefined_colors")
     @Comment("Predefined colors for use in messages section of the configuration file.")
     default LinkedHashMap<String, String> predefinedColors() {
         return new LinkedHashMap<>() {{
@@ -91,7 +165,7 @@ public interface PluginConfiguration {
         }};
     }
 
-    @Order(5) @Key("messages")
+    @Order(101) @Key("messages")
     @Comment("Translatable messages used across the entire plugin. MiniMessage is the only supported text format.")
     Messages messages();
 
@@ -132,6 +206,11 @@ public interface PluginConfiguration {
             return "<dark_gray>› <red>Argument <yellow>{input}<red> is not an equipment slot.";
         }
 
+        @Order(5) @Key("error.enum_not_found.import_mode")
+        default String errorEnumNotFoundImportMode() {
+            return "<dark_gray>› <red>Argument <yellow>{input}<red> must be either <yellow>relative <red>or <yellow>original<red>.";
+        }
+
         @Order(6) @Key("error.invalid_boolean")
         default String errorInvalidBoolean() {
             return "<dark_gray>› <red>Argument <yellow>{input} <red>must be either <yellow>true <red>or <yellow>false<red>.";
@@ -177,6 +256,11 @@ public interface PluginConfiguration {
             return "<dark_gray>› <red>Argument <yellow>{input} <red>is not a color.";
         }
 
+        @Order(14) @Key("error.name_already_taken")
+        default String errorNameAlreadyTaken() {
+            return "<dark_gray>› <red>Name <yellow>{name} <red>is already taken by another display.";
+        }
+
         @Order(15) @Key("command_usage_format")
         @Comment("Command Usage Format")
         default String commandUsageFormat() {
@@ -194,7 +278,12 @@ public interface PluginConfiguration {
                 put("display.respawn",               "<primary>/display respawn <secondary>(display)");
                 put("display.teleport",              "<primary>/display teleport <secondary>(display)");
                 put("display.export",                "<primary>/display export <secondary>(display)");
+                put("display.export.selected",       "<primary>/display export selected <secondary>(file) (selector)");
                 put("display.import",                "<primary>/display import <secondary>(file) (name)");
+                put("display.import.archive",        "<primary>/display import archive <secondary>(file) (relative | original)");
+                put("display.virtualize",            "<primary>/display virtualize <secondary>(display)");
+                put("display.devirtualize",          "<primary>/display devirtualize <secondary>(name)");
+                put("display.stats",                 "<primary>/display stats <secondary>[reset]");
                 put("display.edit.scale",            "<common_primary>/display edit <common_secondary>(display) <common_primary>scale <common_secondary>(x) (y) (z)");
                 put("display.edit.view_range",       "<common_primary>/display edit <common_secondary>(display) <common_primary>view_range <common_secondary>(range)");
                 put("display.edit.move_to",          "<common_primary>/display edit <common_secondary>(display) <common_primary>move_to <common_secondary>(x) (y) (z)");
@@ -208,6 +297,9 @@ public interface PluginConfiguration {
                 put("display.edit.set_line",         "<text_primary>/display edit <text_secondary>(display) <text_primary>set_line <text_secondary>(line) (text)");
                 put("display.edit.insert_line",      "<text_primary>/display edit <text_secondary>(display) <text_primary>insert_line <text_secondary>(line) (text)");
                 put("display.edit.refresh_interval", "<text_primary>/display edit <text_secondary>(display) <text_primary>refresh_interval <text_secondary>(ticks)");
+                put("display.edit.line_refresh_interval", "<text_primary>/display edit <text_secondary>(display) <text_primary>line_refresh_interval <text_secondary>(line) (ticks | default | static)");
+                put("display.edit.translation.set",    "<text_primary>/display edit <text_secondary>(display) <text_primary>translation set <text_secondary>(locale) (text)");
+                put("display.edit.translation.remove", "<text_primary>/display edit <text_secondary>(display) <text_primary>translation remove <text_secondary>(locale)");
                 put("display.edit.alignment",        "<text_primary>/display edit <text_secondary>(display) <text_primary>alignment <text_secondary>(alignment)");
                 put("display.edit.background",       "<text_primary>/display edit <text_secondary>(display) <text_primary>background <text_secondary>(color) [opacity]");
                 put("display.edit.line_width",       "<text_primary>/display edit <text_secondary>(display) <text_primary>line_width <text_secondary>(width)");
@@ -257,7 +349,12 @@ public interface PluginConfiguration {
                     "<dark_gray>› <spec:messages.command_usages.display.respawn><dark_gray> - <gray>Respawns specified display.",
                     "<dark_gray>› <spec:messages.command_usages.display.teleport><dark_gray> - <gray>Teleports to specified display.",
                     "<dark_gray>› <spec:messages.command_usages.display.export><dark_gray> - <gray>Exports display to a file.",
+                    "<dark_gray>› <spec:messages.command_usages.display.export.selected><dark_gray> - <gray>Exports many displays to an archive.",
                     "<dark_gray>› <spec:messages.command_usages.display.import><dark_gray> - <gray>Imports display from file.",
+                    "<dark_gray>› <spec:messages.command_usages.display.import.archive><dark_gray> - <gray>Imports many displays from an archive.",
+                    "<dark_gray>› <spec:messages.command_usages.display.virtualize><dark_gray> - <gray>Turns display into a packet-only display.",
+                    "<dark_gray>› <spec:messages.command_usages.display.devirtualize><dark_gray> - <gray>Turns packet-only display back into a regular display.",
+                    "<dark_gray>› <spec:messages.command_usages.display.stats><dark_gray> - <gray>Shows which placeholders take the most time to resolve.",
                     "<dark_gray>› <spec:messages.command_usages.display.edit.scale>",
                     "<dark_gray>› <spec:messages.command_usages.display.edit.view_range>",
                     "<dark_gray>› <spec:messages.command_usages.display.edit.move_to>",
@@ -271,6 +368,9 @@ public interface PluginConfiguration {
                     "<dark_gray>› <spec:messages.command_usages.display.edit.set_line>",
                     "<dark_gray>› <spec:messages.command_usages.display.edit.insert_line>",
                     "<dark_gray>› <spec:messages.command_usages.display.edit.refresh_interval>",
+                    "<dark_gray>› <spec:messages.command_usages.display.edit.line_refresh_interval>",
+                    "<dark_gray>› <spec:messages.command_usages.display.edit.translation.set>",
+                    "<dark_gray>› <spec:messages.command_usages.display.edit.translation.remove>",
                     "<dark_gray>› <spec:messages.command_usages.display.edit.alignment>",
                     "<dark_gray>› <spec:messages.command_usages.display.edit.background>",
                     "<dark_gray>› <spec:messages.command_usages.display.edit.line_width>",
@@ -695,6 +795,177 @@ public interface PluginConfiguration {
             return "<dark_gray>› <gray>Display tracking state has been set to <primary>{state}<gray>.";
         }
 
+        // Display > Virtualize
+
+        @Order(76) @Key("command.display.virtualize.success")
+        @Comment("Display > Virtualize")
+        default String commandDisplayVirtualizeSuccess() {
+            return "<dark_gray>› <gray>Display <primary>{name}<gray> has been virtualized.";
+        }
+
+        @Order(77) @Key("command.display.virtualize.failure.unsupported_type")
+        default String commandDisplayVirtualizeFailureUnsupportedType() {
+            return "<dark_gray>› <red>Only block, item and text displays can be virtualized.";
+        }
+
+        @Order(78) @Key("command.display.virtualize.failure.already_exists")
+        default String commandDisplayVirtualizeFailureAlreadyExists() {
+            return "<dark_gray>› <red>Virtual display <yellow>{name}<red> already exists.";
+        }
+
+        @Order(79) @Key("command.display.virtualize.failure.unavailable")
+        default String commandDisplayVirtualizeFailureUnavailable() {
+            return "<dark_gray>› <red>Virtual displays are not available. This feature requires PacketEvents.";
+        }
+
+        // Display > Devirtualize
+
+        @Order(80) @Key("command.display.devirtualize.success")
+        @Comment("Display > Devirtualize")
+        default String commandDisplayDevirtualizeSuccess() {
+            return "<dark_gray>› <gray>Virtual display <primary>{name}<gray> has been turned back into a regular display.";
+        }
+
+        @Order(81) @Key("command.display.devirtualize.failure.not_found")
+        default String commandDisplayDevirtualizeFailureNotFound() {
+            return "<dark_gray>› <red>Virtual display <yellow>{name}<red> does not exist or its world is not loaded.";
+        }
+
+        // Display > Export Selected
+
+        @Order(82) @Key("command.display.export.selected.started")
+        @Comment("Display > Export Selected")
+        default String commandDisplayExportSelectedStarted() {
+            return "<dark_gray>› <gray>Exporting <primary>{count}<gray> display(s) to <primary>{file}<gray>...";
+        }
+
+        @Order(83) @Key("command.display.export.selected.success")
+        default String commandDisplayExportSelectedSuccess() {
+            return "<dark_gray>› <gray>Exported <primary>{count}<gray> display(s) to <primary>{file}<gray>.";
+        }
+
+        @Order(84) @Key("command.display.export.selected.failure.invalid_format")
+        default String commandDisplayExportSelectedFailureInvalidFormat() {
+            return "<dark_gray>› <red>Specified file name does not match format: [<yellow>0-9 A-Z . - _<red>]";
+        }
+
+        @Order(85) @Key("command.display.export.selected.failure.invalid_selector")
+        default String commandDisplayExportSelectedFailureInvalidSelector() {
+            return "<dark_gray>› <red>Selector part <yellow>{input}<red> is not valid. Use <yellow>world=<red>, <yellow>radius=<red>, <yellow>region=x1,y1,z1,x2,y2,z2<red> or <yellow>prefix=<red>.";
+        }
+
+        @Order(86) @Key("command.display.export.selected.failure.no_matches")
+        default String commandDisplayExportSelectedFailureNoMatches() {
+            return "<dark_gray>› <red>No loaded displays match specified selector.";
+        }
+
+        @Order(87) @Key("command.display.export.selected.failure.other")
+        default String commandDisplayExportSelectedFailureOther() {
+            return "<dark_gray>› <red>An error occurred while exporting displays to <yellow>{file}<red>. Check console logs.";
+        }
+
+        // Display > Import Archive
+
+        @Order(88) @Key("command.display.import.archive.started")
+        @Comment("Display > Import Archive")
+        default String commandDisplayImportArchiveStarted() {
+            return "<dark_gray>› <gray>Importing displays from <primary>{file}<gray>...";
+        }
+
+        @Order(89) @Key("command.display.import.archive.progress")
+        default String commandDisplayImportArchiveProgress() {
+            return "<gray>Importing... <primary>{processed}<gray>/<primary>{count}";
+        }
+
+        @Order(90) @Key("command.display.import.archive.success")
+        default String commandDisplayImportArchiveSuccess() {
+            return "<dark_gray>› <gray>Imported <primary>{spawned}<gray> display(s) from <primary>{file}<gray>. Skipped <primary>{skipped}<gray> display(s) with names already taken.";
+        }
+
+        @Order(91) @Key("command.display.import.archive.failure.other")
+        default String commandDisplayImportArchiveFailureOther() {
+            return "<dark_gray>› <red>An error occurred while importing displays from <yellow>{file}<red>. Check console logs.";
+        }
+
+        // Display > Edit > Line Refresh Interval
+
+        @Order(92) @Key("command.display.edit.line_refresh_interval.success")
+        @Comment("Display > Edit > Line Refresh Interval")
+        default String commandDisplayEditLineRefreshIntervalSuccess() {
+            return "<dark_gray>› <gray>Refresh interval of line <primary>{number}<gray> has been set to <primary>{interval}<gray>. It's not an immediate operation and may require respawning the entity.";
+        }
+
+        @Order(93) @Key("command.display.edit.line_refresh_interval.failure.invalid_value")
+        default String commandDisplayEditLineRefreshIntervalFailureInvalidValue() {
+            return "<dark_gray>› <red>Refresh interval must be either <yellow>default<red>, <yellow>static<red> or a positive integer value.";
+        }
+
+        @Order(94) @Key("command.display.edit.line_refresh_interval.failure.out_of_bounds")
+        default String commandDisplayEditLineRefreshIntervalFailureOutOfBounds() {
+            return "<dark_gray>› <red>Line <yellow>{number} <red>is out of bounds. (Max: {max})";
+        }
+
+        // Display > Stats
+
+        @Order(95) @Key("command.display.stats.placeholders")
+        @Comment("Display > Stats")
+        default String commandDisplayStatsPlaceholders() {
+            return "<dark_gray>› <gray>Slowest placeholders:";
+        }
+
+        @Order(96) @Key("command.display.stats.expansions")
+        default String commandDisplayStatsExpansions() {
+            return "<dark_gray>› <gray>Slowest expansions:";
+        }
+
+        @Order(97) @Key("command.display.stats.displays")
+        default String commandDisplayStatsDisplays() {
+            return "<dark_gray>› <gray>Slowest displays:";
+        }
+
+        @Order(98) @Key("command.display.stats.entry")
+        default String commandDisplayStatsEntry() {
+            return "<dark_gray>   - <primary>{name}<gray>: {count} calls, avg <primary>{average}ms<gray>, p95 <primary>{p95}ms<gray>, max <primary>{max}ms{flag}";
+        }
+
+        @Order(99) @Key("command.display.stats.entry_flag")
+        default String commandDisplayStatsEntryFlag() {
+            return " <red>(slow)";
+        }
+
+        @Order(100) @Key("command.display.stats.empty")
+        default String commandDisplayStatsEmpty() {
+            return "<dark_gray>› <gray>No placeholders have been resolved yet.";
+        }
+
+        @Order(101) @Key("command.display.stats.reset")
+        default String commandDisplayStatsReset() {
+            return "<dark_gray>› <gray>Placeholder statistics have been reset.";
+        }
+
+        // Display > Edit > Translation
+
+        @Order(102) @Key("command.display.edit.translation.set.success")
+        @Comment("Display > Edit > Translation")
+        default String commandDisplayEditTranslationSetSuccess() {
+            return "<dark_gray>› <gray>Translation for <primary>{locale}<gray> has been set. It's not an immediate operation and may require respawning the entity.";
+        }
+
+        @Order(103) @Key("command.display.edit.translation.remove.success")
+        default String commandDisplayEditTranslationRemoveSuccess() {
+            return "<dark_gray>› <gray>Translation for <primary>{locale}<gray> has been removed. It's not an immediate operation and may require respawning the entity.";
+        }
+
+        @Order(104) @Key("command.display.edit.translation.remove.failure.not_found")
+        default String commandDisplayEditTranslationRemoveFailureNotFound() {
+            return "<dark_gray>› <red>Display has no translation for <yellow>{locale}<red>.";
+        }
+
+        @Order(105) @Key("command.display.edit.translation.failure.invalid_locale")
+        default String commandDisplayEditTranslationFailureInvalidLocale() {
+            return "<dark_gray>› <red>Locale <yellow>{input} <red>is not valid. It must be either a language, like <yellow>en<red>, or a locale, like <yellow>en_us<red>.";
+        }
+
     }
 
     /* IMPLEMENTED BY SPEC */
@@ -711,6 +982,17 @@ public interface PluginConfiguration {
         DisplayEntities.instance().rebuildMiniMessage();
         // Updating debug mode. It's stored as a field value to prevent calling debugMode() through the proxy each time debug message is about to be sent.
         DisplayEntities.instance().isDebugEnabled(debugMode());
+        // Updating placeholder classifier. This also invalidates all compiled text templates.
+        DisplayEntities.instance().textCache().classifier(PlaceholderClassifier.of(globalPlaceholders()));
+        // Updating budget of slow placeholders. It's stored as a field value for the same reason as debug mode.
+        DisplayEntities.instance().placeholderStats().budget(slowPlaceholderBudget());
+        // Updating refresh distance bands. Falling back to full rate if they cannot be parsed.
+        try {
+            DisplayEntities.instance().refreshBands(RefreshBands.of(refreshDistanceBands()));
+        } catch (final IllegalArgumentException e) {
+            DisplayEntities.instance().getLogger().warning("Invalid refresh_distance_bands: " + e.getMessage() + " Placeholders will be refreshed at full rate.");
+            DisplayEntities.instance().refreshBands(RefreshBands.NONE);
+        }
     }
 
 }
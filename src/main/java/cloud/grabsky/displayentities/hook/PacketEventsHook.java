@@ -3,23 +3,66 @@ package cloud.grabsky.displayentities.hook;
 import cloud.grabsky.displayentities.DisplayEntities;
 import cloud.grabsky.displayentities.listener.PacketListener;
 import cloud.grabsky.displayentities.listener.ResourcePackListener;
+import cloud.grabsky.displayentities.virtual.VirtualDisplayTracker;
 import com.github.retrooper.packetevents.PacketEvents;
 import com.github.retrooper.packetevents.event.PacketListenerPriority;
 import io.github.retrooper.packetevents.factory.spigot.SpigotPacketEventsBuilder;
 
 import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.experimental.Accessors;
 
+@Accessors(fluent = true)
 @RequiredArgsConstructor(access = AccessLevel.PUBLIC)
 public final class PacketEventsHook {
 
     private final DisplayEntities plugin;
 
+    // Whether PlaceholderAPI is installed. Text of display entities is handled by the packet listener only if this is true.
+    @Getter(AccessLevel.PUBLIC)
+    private final boolean isPlaceholdersEnabled;
+
+    @Getter(AccessLevel.PUBLIC)
+    private PacketListener packetListener;
+
+    @Getter(AccessLevel.PUBLIC)
+    private VirtualDisplayTracker virtualDisplayTracker;
+
     public PacketEventsHook enable() {
         // Initializing PacketEvents API.
         PacketEvents.getAPI().init();
-        // Registering resource-pack listener.
-        plugin.getServer().getPluginManager().registerEvents(new ResourcePackListener(plugin), plugin);
+        // Starting text render workers. These are used by virtual displays as well.
+        packetListener.renderWorkers().start(plugin.configuration().renderWorkerThreads());
+        // Starting components responsible for text of display entities. These require PlaceholderAPI.
+        if (isPlaceholdersEnabled == true) {
+            // Starting the placeholders refresh scheduler.
+            packetListener.refreshScheduler().start(plugin, packetListener.renderWorkers());
+            // Starting the deferred text render queue.
+            packetListener.deferredRenders().start(plugin, packetListener.renderWorkers());
+            // Starting the catch-up of refreshes skipped for viewers that were not looking at displays.
+            packetListener.gazePrioritizer().start(plugin, packetListener.renderWorkers());
+            // Starting the mannequin look engine.
+            packetListener.lookEngine().start(plugin);
+            // Registering packet listener as an event listener, so it can forget data of entities removed from the world.
+            plugin.getServer().getPluginManager().registerEvents(packetListener, plugin);
+            // Registering resource-pack listener.
+            plugin.getServer().getPluginManager().registerEvents(new ResourcePackListener(plugin, packetListener.refreshScheduler()), plugin);
+        }
+        // Registering virtual displays tracker and starting to track players that are already online. Virtual displays require PacketEvents only.
+        this.virtualDisplayTracker = new VirtualDisplayTracker(plugin, packetListener.renderWorkers());
+        plugin.getServer().getPluginManager().registerEvents(virtualDisplayTracker, plugin);
+        virtualDisplayTracker.start();
+        // Returning...
+        return this;
+    }
+
+    public PacketEventsHook disable() {
+        // Stopping placeholders refresh of virtual displays.
+        if (virtualDisplayTracker != null)
+            virtualDisplayTracker.stop();
+        // Stopping text render workers.
+        packetListener.renderWorkers().stop();
         // Returning...
         return this;
     }
@@ -29,8 +72,10 @@ public final class PacketEventsHook {
         PacketEvents.setAPI(SpigotPacketEventsBuilder.build(plugin));
         // Loading PacketEvents.
         PacketEvents.getAPI().load();
-        // Registering event listeners.
-        PacketEvents.getAPI().getEventManager().registerListener(new PacketListener(plugin), PacketListenerPriority.HIGHEST);
+        // Creating the packet listener. It is registered only if PlaceholderAPI is installed, as otherwise there is nothing to render.
+        this.packetListener = new PacketListener(plugin);
+        if (isPlaceholdersEnabled == true)
+            PacketEvents.getAPI().getEventManager().registerListener(packetListener, PacketListenerPriority.HIGHEST);
         // Returning...
         return this;
     }
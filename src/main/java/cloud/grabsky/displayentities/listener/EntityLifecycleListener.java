@@ -0,0 +1,123 @@
+/*
+ * DisplayEntities (https://github.com/Grabsky/DisplayEntities)
+ *
+ * MIT License
+ *
+ * Copyright (c) 2026 Grabsky (michal.czopek.foss@proton.me)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cloud.grabsky.displayentities.listener;
+
+import cloud.grabsky.displayentities.DisplayEntities;
+import cloud.grabsky.displayentities.registry.DisplayIndex;
+import com.destroystokyo.paper.event.entity.EntityAddToWorldEvent;
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.TextDisplay;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityRemoveEvent;
+import org.bukkit.event.entity.EntityTeleportEvent;
+import org.bukkit.event.world.EntitiesLoadEvent;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.persistence.PersistentDataType;
+
+import org.jetbrains.annotations.NotNull;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor(access = AccessLevel.PUBLIC)
+public final class EntityLifecycleListener implements Listener {
+
+    // Holds reference to the plugin instance.
+    private final @NotNull DisplayEntities plugin;
+
+    // Registering entities handled by the plugin as soon as they are added to the world.
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityAddToWorld(final @NotNull EntityAddToWorldEvent event) {
+        this.register(event.getEntity());
+    }
+
+    // Re-indexing entities that are teleported. Entity is still at its previous location when this event is called.
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityTeleport(final @NotNull EntityTeleportEvent event) {
+        if (event.getTo() != null && DisplayIndex.isIndexable(event.getEntity()) == true) {
+            plugin.displayIndex().update(event.getEntity(), event.getTo());
+            plugin.names().put(event.getEntity().getPersistentDataContainer().get(DisplayEntities.Keys.NAME, PersistentDataType.STRING), event.getEntity(), event.getTo());
+        }
+    }
+
+    // Evicting cached data of entities that are no longer present in the world. Entity ids are never re-used, so there is no point in keeping them.
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityRemoveFromWorld(final @NotNull EntityRemoveFromWorldEvent event) {
+        // Evicting classification of the entity.
+        plugin.entityClassifications().invalidate(event.getEntity().getEntityId());
+        // Evicting compiled text template of the entity.
+        if (event.getEntity() instanceof TextDisplay) {
+            plugin.textCache().invalidate(event.getEntity().getEntityId());
+            plugin.textDisplays().remove(event.getEntity().getEntityId());
+        }
+        // Removing the entity from the index.
+        plugin.displayIndex().remove(event.getEntity());
+    }
+
+    // Updating the name registry when an entity handled by the plugin is removed. Names of unloaded entities are kept, along with their last position.
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityRemove(final @NotNull EntityRemoveEvent event) {
+        // Skipping entities not handled by the plugin.
+        if (DisplayIndex.isIndexable(event.getEntity()) == false)
+            return;
+        final String name = event.getEntity().getPersistentDataContainer().get(DisplayEntities.Keys.NAME, PersistentDataType.STRING);
+        // Updating last known position of entities that are being unloaded.
+        if (event.getCause() == EntityRemoveEvent.Cause.UNLOAD)
+            plugin.names().put(name, event.getEntity(), event.getEntity().getLocation());
+        // Forgetting entities that are removed for good.
+        else plugin.names().remove(name, event.getEntity().getUniqueId());
+    }
+
+    // Forgetting names of entities that were supposed to be in the loaded chunk, but no longer exist.
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesLoad(final @NotNull EntitiesLoadEvent event) {
+        plugin.names().reconcile(event.getWorld().getUID(), event.getChunk().getX(), event.getChunk().getZ(), event.getEntities().stream().map(Entity::getUniqueId).toList());
+    }
+
+    // Resolving virtual displays of worlds that were loaded after the plugin was enabled. These are not shown until then.
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldLoad(final @NotNull WorldLoadEvent event) {
+        plugin.virtualDisplays().resolve(event.getWorld());
+    }
+
+    /**
+     * Registers specified entity in all registries it belongs to. Called for entities added to the world, including these that were added before the plugin was enabled.
+     */
+    public void register(final @NotNull Entity entity) {
+        // Registering text displays handled by the plugin.
+        if (entity instanceof TextDisplay && entity.getPersistentDataContainer().has(DisplayEntities.Keys.TEXT_CONTENTS) == true)
+            plugin.textDisplays().add(entity.getEntityId());
+        // Indexing entities handled by the plugin.
+        if (DisplayIndex.isIndexable(entity) == true) {
+            plugin.displayIndex().update(entity);
+            plugin.names().put(entity.getPersistentDataContainer().get(DisplayEntities.Keys.NAME, PersistentDataType.STRING), entity, entity.getLocation());
+        }
+    }
+
+}
@@ -26,248 +26,342 @@
 package cloud.grabsky.displayentities.listener;
 
 import cloud.grabsky.displayentities.DisplayEntities;
-import com.github.retrooper.packetevents.PacketEvents;
+import cloud.grabsky.displayentities.mannequin.MannequinLookEngine;
+import cloud.grabsky.displayentities.refresh.DeferredRenderQueue;
+import cloud.grabsky.displayentities.refresh.EncodedMetadataCache;
+import cloud.grabsky.displayentities.refresh.GazePrioritizer;
+import cloud.grabsky.displayentities.refresh.PacketBatch;
+import cloud.grabsky.displayentities.refresh.RefreshBands;
+import cloud.grabsky.displayentities.refresh.RefreshScheduler;
+import cloud.grabsky.displayentities.refresh.RenderWorkers;
+import cloud.grabsky.displayentities.refresh.RenderedComponentCache;
+import cloud.grabsky.displayentities.refresh.SentComponentTracker;
+import cloud.grabsky.displayentities.refresh.ViewerSnapshot;
+import cloud.grabsky.displayentities.registry.DisplayIndex;
+import cloud.grabsky.displayentities.registry.EntityClassificationCache.Classification;
+import cloud.grabsky.displayentities.text.DisplayText;
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
 import com.github.retrooper.packetevents.event.PacketSendEvent;
+import com.github.retrooper.packetevents.event.UserDisconnectEvent;
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
 import com.github.retrooper.packetevents.protocol.entity.data.EntityData;
 import com.github.retrooper.packetevents.protocol.entity.data.EntityDataTypes;
 import com.github.retrooper.packetevents.protocol.packettype.PacketType;
-import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerEntityHeadLook;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerDestroyEntities;
 import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerEntityMetadata;
-import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerEntityRotation;
 import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerSpawnEntity;
 import io.github.retrooper.packetevents.util.SpigotConversionUtil;
-import me.clip.placeholderapi.PlaceholderAPI;
 import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.minimessage.MiniMessage;
-import org.bukkit.Location;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Mannequin;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.TextDisplay;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
 import org.bukkit.persistence.PersistentDataType;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.experimental.Accessors;
 
-// TO-DO: - Mannequin direction task may need some adjustments to work on Folia.
-//        - Perhaps there's a smart way to avoid sending same packets over and over again.
+@Accessors(fluent = true)
 @RequiredArgsConstructor(access = AccessLevel.PUBLIC)
-public final class PacketListener implements com.github.retrooper.packetevents.event.PacketListener {
+public final class PacketListener implements com.github.retrooper.packetevents.event.PacketListener, Listener {
 
     // Holds reference to the plugin instance.
     private final @NotNull DisplayEntities plugin;
 
-    // Stores entities that have an active task.
-    private final Set<Integer> hasActiveTextRefreshTask = ConcurrentHashMap.newKeySet();
+    // Responsible for scheduling placeholder refreshes of all text display entities.
+    @Getter(AccessLevel.PUBLIC)
+    private final RefreshScheduler refreshScheduler = new RefreshScheduler(this::refresh);
 
-    // Stores entities that have an active task.
-    private final Set<Integer> hasActiveDirectionTask = ConcurrentHashMap.newKeySet();
+    // Dedicated threads on which text of displays is rendered when it is not available in the cache.
+    @Getter(AccessLevel.PUBLIC)
+    private final RenderWorkers renderWorkers = new RenderWorkers();
 
-    // Stores players that are currently being tracked by a mannequin entity.
-    private final Set<String> isBeingTracked = ConcurrentHashMap.newKeySet();
+    // Stores text most recently rendered for each viewer of each text display entity.
+    private final RenderedComponentCache renderedComponents = new RenderedComponentCache();
 
-    // Stores entities not created by DisplayEntities.
-    // This should (hopefully) avoid many calls to a rather expensive (?) SpigotConversionUtil#getEntityById method.
-    private final Set<Integer> notHandled = ConcurrentHashMap.newKeySet();
+    // Responsible for rendering text of displays that were first shown with a preview.
+    @Getter(AccessLevel.PUBLIC)
+    private final DeferredRenderQueue deferredRenders = new DeferredRenderQueue(this::render);
+
+    // Responsible for catching up refreshes skipped for viewers that were not looking at the display.
+    @Getter(AccessLevel.PUBLIC)
+    private final GazePrioritizer gazePrioritizer = new GazePrioritizer(this::render);
+
+    // Responsible for making mannequin entities look at their viewers.
+    @Getter(AccessLevel.PUBLIC)
+    private final MannequinLookEngine lookEngine = new MannequinLookEngine();
+
+    // Stores encoded text metadata packets, so text shared by many viewers is encoded only once.
+    private final EncodedMetadataCache encodedMetadata = new EncodedMetadataCache();
+
+    // Stores last text component sent to each viewer of each text display entity.
+    private final SentComponentTracker sentComponents = new SentComponentTracker();
 
     @Override @SuppressWarnings("unchecked")
     public void onPacketSend(final @NotNull PacketSendEvent event) {
         if (event.getPacketType() == PacketType.Play.Server.SPAWN_ENTITY && event.getPlayer() instanceof Player eventPlayer) {
             // Getting the id of the entity associated with the event.
             final int entityId = new WrapperPlayServerSpawnEntity(event).getEntityId();
-            // Skipping further execution if this entity was already marked as not created by the plugin.
-            if (notHandled.contains(entityId) == true)
+            // Getting cached classification of the entity. Can be null.
+            final @Nullable Classification cached = plugin.entityClassifications().get(entityId);
+            // Skipping further execution if this entity was already classified as not created by the plugin.
+            if (cached == Classification.NOT_HANDLED)
                 return;
             // Getting the entity from it's int id. Can be null.
             final @Nullable Entity entity = SpigotConversionUtil.getEntityById(eventPlayer.getWorld(), entityId);
-            // Checking if the entity with this id exists on the server and is a text display entity.
-            if (entity instanceof TextDisplay && entity.getPersistentDataContainer().has(DisplayEntities.Keys.TEXT_CONTENTS) == true) {
-                // Skipping further logic if the task is already running.
-                if (hasActiveTextRefreshTask.contains(entityId) == true)
+            // Skipping further execution if entity with this id does not exist on the server.
+            if (entity == null)
+                return;
+            // Classifying the entity, unless it has been classified already.
+            final Classification classification = (cached != null) ? cached : plugin.entityClassifications().classify(entity);
+            // Checking if the entity is a text display entity.
+            if (classification == Classification.TEXT_DISPLAY) {
+                // Registering the entity, in case it was added to the world before the plugin started listening. Spawn packet is always sent before metadata.
+                plugin.textDisplays().add(entityId);
+                // Skipping further logic if refreshes are already scheduled.
+                if (refreshScheduler.isScheduled(entityId) == true)
                     return;
-                // Getting the text contents stored inside PDC.
-                final String text = entity.getPersistentDataContainer().getOrDefault(DisplayEntities.Keys.TEXT_CONTENTS, PersistentDataType.STRING, "");
-                // Checking if text contains PlaceholderAPI placeholders and is tracked by any player.
-                if (PlaceholderAPI.containsPlaceholders(text) == true) {
-                    // Scheduling logic to be executed on Folia's EntityScheduler if needed, or on the current thread, which is NOT the main thread.
-                    runWrapped(entity, () -> {
-                        // Continuing only if the entity is being tracked by at least one player.
-                        if (entity.getTrackedBy().isEmpty() == true)
-                            return;
-                        hasActiveTextRefreshTask.add(entityId);
-                        // Getting refresh interval from the entity. Defaults to the configured value.
-                        final int refreshInterval = entity.getPersistentDataContainer().getOrDefault(DisplayEntities.Keys.REFRESH_INTERVAL, PersistentDataType.INTEGER, plugin.configuration().refreshInterval());
+                // Getting the compiled text of the entity.
+                final DisplayText text = plugin.textCache().get(entity);
+                // Checking if text contains PlaceholderAPI placeholders that must be refreshed.
+                if (text.isRefreshed() == true) {
+                    // Getting refresh interval from the entity. Defaults to the configured value. Lines with shorter interval make the whole text refresh more often.
+                    final int refreshInterval = text.refreshInterval(entity.getPersistentDataContainer().getOrDefault(DisplayEntities.Keys.REFRESH_INTERVAL, PersistentDataType.INTEGER, plugin.configuration().refreshInterval()));
+                    // Scheduling placeholders refresh for all viewers, every N ticks. Entity is unscheduled once nobody is tracking it.
+                    if (refreshScheduler.schedule(entity, refreshInterval) == true)
                         // Logging debug information to the console.
-                        plugin.debug("[E:" + entityId + "] Starting the placeholders refresh task... [RI:" + refreshInterval + "]");
-                        // Scheduling a repeating task to refresh placeholders for all viewers, every N ticks.
-                        entity.getScheduler().runAtFixedRate(plugin, (task) -> {
-                            // Cancelling the task if nobody is tracking the entity.
-                            if (entity.getTrackedBy().isEmpty() == true) {
-                                // Logging debug information to the console.
-                                plugin.debug("[E:" + entityId + "] Cancelling the placeholders refresh task... [C:SELF]");
-                                // Cancelling the task.
-                                task.cancel();
-                                // Removing the task from the list of active tasks.
-                                hasActiveTextRefreshTask.remove(entityId);
-                                return;
-                            }
-                            // Scheduling further logic to be executed off the main thread or on Folia's EntityScheduler if needed.
-                            runWrappedAsync(entity, () -> {
-                                entity.getTrackedBy().forEach(viewer -> {
-                                    final var packet = new WrapperPlayServerEntityMetadata(entityId, List.of(
-                                            // Setting text to an empty component. This is intercepted in the entity_metadata listener where all placeholders and colors are applied.
-                                            new EntityData<>(23, EntityDataTypes.ADV_COMPONENT, Component.empty())
-                                    ));
-                                    // Sending the packet to the viewer.
-                                    PacketEvents.getAPI().getPlayerManager().sendPacket(viewer, packet);
-                                    // Logging debug information to the console.
-                                    plugin.debug("[E:" + entityId + "] Packet sent to user " + viewer.getName() + "... [P:" + packet.getNativePacketId() + "] [H:" + packet.hashCode() + "]");
-                                });
-                            });
-                        }, () -> {
-                            // Logging debug information to the console.
-                            plugin.debug("[E:" + entityId + "] Cancelling the placeholders refresh task... [C:RETIRED]");
-                            // Removing the task from the list of active tasks.
-                            hasActiveTextRefreshTask.remove(entityId);
-                        }, 10L, refreshInterval);
-                    });
+                        plugin.debug("[E:" + entityId + "] Scheduling the placeholders refresh... [RI:" + refreshInterval + "]");
                 }
             }
-            // Handling mannequin's player tracking task.
-            else if (entity instanceof Mannequin && entity.getPersistentDataContainer().has(DisplayEntities.Keys.MANNEQUIN_TRACK_NEAREST_PLAYER) == true) {
-                // Skipping further logic if the task is already running.
-                if (hasActiveDirectionTask.contains(entityId) == true)
-                    return;
-                // Scheduling logic to be executed on Folia's EntityScheduler if needed, or on the current thread, which is NOT the main thread.
-                runWrapped(entity, () -> {
-                    // Continuing only if the entity is being tracked by at least one player.
-                    if (entity.getTrackedBy().isEmpty() == true)
-                        return;
-                    hasActiveDirectionTask.add(entityId);
-                    // Calculating squared distance of the configured radius.
-                    final float trackNearestPlayerRadius = plugin.configuration().trackNearestPlayerRadius();
-                    final float squaredTrackNearestPlayerRadius = trackNearestPlayerRadius * trackNearestPlayerRadius;
+            // Handling mannequin's player tracking.
+            else if (classification == Classification.MANNEQUIN && entity.getPersistentDataContainer().has(DisplayEntities.Keys.MANNEQUIN_TRACK_NEAREST_PLAYER) == true) {
+                // Handing the mannequin over to the look engine. Nothing happens if it is already being processed.
+                if (lookEngine.track((Mannequin) entity) == true)
                     // Logging debug information to the console.
-                    plugin.debug("[E:" + entityId + "] Starting the mannequin radius search task task... [R:" + trackNearestPlayerRadius + "]");
-                    // Scheduling a repeating task to refresh the entity's rotation to make it look at the nearest player.
-                    entity.getScheduler().runAtFixedRate(plugin, (distanceTask) -> {
-                        // Cancelling the task if nobody is tracking the entity.
-                        if (entity.getTrackedBy().isEmpty() == true) {
-                            // Logging debug information to the console.
-                            plugin.debug("[E:" + entityId + "] Cancelling the mannequin radius search task... [C:SELF]");
-                            // Cancelling the task.
-                            distanceTask.cancel();
-                            // Removing a task from the list of active tasks.
-                            hasActiveDirectionTask.remove(entityId);
-                            return;
-                        }
-                        // Scheduling further logic to be executed off the main thread or on Folia's EntityScheduler if needed.
-                        runWrappedAsync(entity, () -> {
-                            // Calculating the center point of the circular radius within which the mannequin entity will look at the nearest player.
-                            final Location center = entity.getLocation().add(entity.getLocation().getDirection().normalize().multiply(trackNearestPlayerRadius - 0.35));
-                            // Iterating over all viewers of the mannequin entity.
-                            for (final Player viewer : entity.getTrackedBy()) {
-                                // Skipping further logic if the viewer is not within the configured radius.
-                                if (viewer.getLocation().distanceSquared(center) > squaredTrackNearestPlayerRadius)
-                                    continue;
-                                // Getting viewer's entity id.
-                                final int viewerId = viewer.getEntityId();
-                                // Generating identifier to store in the set and keep track of current tasks.
-                                final String identifier = viewerId + ":" + entityId;
-                                // Skipping further logic if the viewer is already being tracked.
-                                if (isBeingTracked.contains(identifier) == true)
-                                    continue;
-                                isBeingTracked.add(identifier);
-                                // Scheduling a repeating task...
-                                entity.getScheduler().runAtFixedRate(plugin, (refreshTask) -> {
-                                    // Cancelling the task if the viewer is no longer connected to the server.
-                                    if (viewer.isConnected() == false) {
-                                        // Removing viewer from the list.
-                                        isBeingTracked.remove(identifier);
-                                        // Cancelling the task.
-                                        refreshTask.cancel();
-                                        return;
-                                    }
-                                    // Resetting the mannequin position and cancelling the task if the viewer is no longer within the configured radius.
-                                    if (viewer.getLocation().distanceSquared(center) > squaredTrackNearestPlayerRadius) {
-                                        // Resetting a mannequin's body and head rotations.
-                                        PacketEvents.getAPI().getPlayerManager().sendPacket(viewer, new WrapperPlayServerEntityRotation(entityId, entity.getYaw(), entity.getPitch(), false));
-                                        PacketEvents.getAPI().getPlayerManager().sendPacket(viewer, new WrapperPlayServerEntityHeadLook(entityId, entity.getYaw()));
-                                        // Removing viewer from the list.
-                                        isBeingTracked.remove(identifier);
-                                        // Cancelling the task.
-                                        refreshTask.cancel();
-                                        return;
-                                    }
-                                    // Calculating the direction for the mannequin to look at.
-                                    final Location direction = entity.getLocation().setDirection(viewer.getEyeLocation().toVector().subtract(((Mannequin) entity).getEyeLocation().toVector()));
-                                    // Updating the mannequin's body and head rotations to face the nearest player.
-                                    PacketEvents.getAPI().getPlayerManager().sendPacket(viewer, new WrapperPlayServerEntityRotation(entityId, direction.getYaw(), direction.getPitch(), false));
-                                    PacketEvents.getAPI().getPlayerManager().sendPacket(viewer, new WrapperPlayServerEntityHeadLook(entityId, direction.getYaw()));
-                                }, () -> {
-                                    // Resetting a mannequin's body and head rotations.
-                                    PacketEvents.getAPI().getPlayerManager().sendPacket(viewer, new WrapperPlayServerEntityRotation(entityId, entity.getYaw(), entity.getPitch(), false));
-                                    PacketEvents.getAPI().getPlayerManager().sendPacket(viewer, new WrapperPlayServerEntityHeadLook(entityId, entity.getYaw()));
-                                    // Removing viewer from the list.
-                                    isBeingTracked.remove(identifier);
-                                }, 1L, 2L);
-                            }
-                        });
-                    }, () -> {
-                        // Logging debug information to the console.
-                        plugin.debug("[E:" + entityId + "] Cancelling the mannequin radius search task... [C:RETIRED]");
-                        // Removing the task from the list of active tasks.
-                        hasActiveDirectionTask.remove(entityId);
-                    }, 3L, 3L);
-                });
-            } else if (entity != null) {
-                // Adding id of this entity to the list of entities that should not be handled.
-                notHandled.add(entityId);
+                    plugin.debug("[E:" + entityId + "] Starting the mannequin look-at processing... [R:" + plugin.configuration().trackNearestPlayerRadius() + "]");
             }
         }
         // Handling text display formatting and placeholder parsing.
         else if (event.getPacketType() == PacketType.Play.Server.ENTITY_METADATA && event.getPlayer() instanceof Player player) {
+            // Reading id of the entity directly from the buffer. Reader index is restored afterwards, so the packet can still be decoded.
+            final Object buffer = event.getByteBuf();
+            final int readerIndex = ByteBufHelper.readerIndex(buffer);
+            final int entityId = ByteBufHelper.readVarInt(buffer);
+            ByteBufHelper.readerIndex(buffer, readerIndex);
+            // Skipping entities that are not text displays handled by the plugin. Packet is not decoded in such case.
+            if (plugin.textDisplays().contains(entityId) == false)
+                return;
             final var packet = new WrapperPlayServerEntityMetadata(event);
             // Getting the entity from it's int id. Can be null.
-            final @Nullable Entity entity = SpigotConversionUtil.getEntityById(player.getWorld(), packet.getEntityId());
-            // Checking if an entity with this id exists on the server and is a text display entity.
-            if (entity instanceof TextDisplay) {
-                // Getting the text contents stored inside PDC.
-                final String text = entity.getPersistentDataContainer().getOrDefault(DisplayEntities.Keys.TEXT_CONTENTS, PersistentDataType.STRING, "");
+            final @Nullable Entity entity = SpigotConversionUtil.getEntityById(player.getWorld(), entityId);
+            // Checking if an entity with this id exists on the server.
+            if (entity != null) {
+                // Getting the compiled text. Compiled once and cached until text contents are changed.
+                final DisplayText base = plugin.textCache().get(entity);
+                // Getting variant of the text for locale of the viewer. Viewers sharing a locale share rendered components.
+                final DisplayText text = base.variant(player.locale());
                 // Checking if text contains PlaceholderAPI placeholders.
-                if (PlaceholderAPI.containsPlaceholders(text) == true) {
+                if (text.hasSlots() == true) {
                     // Iterating over list entity metadata in search for text changes.
                     for (final EntityData<?> data : packet.getEntityMetadata()) {
-                        if (data.getType() == EntityDataTypes.ADV_COMPONENT)
-                            // Overriding with a parsed component.
-                            ((EntityData<Component>) data).setValue(MiniMessage.miniMessage().deserialize(PlaceholderAPI.setPlaceholders(player, text)));
+                        if (data.getType() == EntityDataTypes.ADV_COMPONENT) {
+                            // Getting component that has already been rendered for this viewer. Placeholders are never resolved on the network thread.
+                            final @Nullable Component rendered = renderedComponents.get(player.getEntityId(), entityId, text);
+                            if (rendered != null) {
+                                // Overriding with the rendered component.
+                                ((EntityData<Component>) data).setValue(rendered);
+                                // Remembering the component, so refresh task does not send it again.
+                                sentComponents.record(player.getEntityId(), entityId, rendered);
+                                continue;
+                            }
+                            // Sending text without placeholders instead. Full text is rendered on a render worker and sent right after.
+                            final Component preview = text.preview();
+                            ((EntityData<Component>) data).setValue(preview);
+                            // Remembering the preview, so following renders are never suppressed because of it.
+                            sentComponents.record(player.getEntityId(), entityId, preview);
+                            // Spreading renders across the next few ticks, if enabled. Otherwise, rendering straight away.
+                            if (plugin.configuration().deferInitialTextRender() == true)
+                                deferredRenders.enqueue(player, entity);
+                            else renderWorkers.submit(() -> {
+                                // Single packet is never bundled.
+                                final PacketBatch packets = new PacketBatch(false);
+                                this.render(entity, player, packets);
+                                packets.flush();
+                            });
+                        }
+                    }
+                }
+                // Checking if text was translated to locale of the viewer. Translation without placeholders can be sent straight away.
+                else if (text != base) {
+                    for (final EntityData<?> data : packet.getEntityMetadata()) {
+                        if (data.getType() == EntityDataTypes.ADV_COMPONENT) {
+                            // Overriding with the translated component. It has no placeholders, so preview is the full text.
+                            ((EntityData<Component>) data).setValue(text.preview());
+                            // Remembering the component, so it can be compared with following renders.
+                            sentComponents.record(player.getEntityId(), entityId, text.preview());
+                        }
                     }
                 }
             }
         }
+        // Forgetting components sent to the player for all entities that are no longer visible to them.
+        else if (event.getPacketType() == PacketType.Play.Server.DESTROY_ENTITIES && event.getPlayer() instanceof Player player) {
+            for (final int entityId : new WrapperPlayServerDestroyEntities(event).getEntityIds()) {
+                sentComponents.forget(player.getEntityId(), entityId);
+                renderedComponents.forget(player.getEntityId(), entityId);
+                gazePrioritizer.forget(player.getEntityId(), entityId);
+                plugin.textCache().forget(entityId, player.getEntityId());
+            }
+        }
+    }
+
+    /**
+     * Renders text of specified entity again for all of it's viewers and reschedules it's refreshes. Must be called from the thread that owns the
+     * entity, after text was modified in a way that does not make the server send it again, for example when translations are changed.
+     */
+    public void update(final @NotNull Entity entity) {
+        final int entityId = entity.getEntityId();
+        // Getting the compiled text. Compiled here, so render workers never have to access data container of the entity.
+        final DisplayText text = plugin.textCache().get(entity);
+        // Unscheduling refreshes, as the text may no longer need them or may need them at a different interval.
+        refreshScheduler.unschedule(entityId);
+        // Scheduling refreshes again, if text contains placeholders that must be refreshed.
+        if (text.isRefreshed() == true) {
+            final int refreshInterval = text.refreshInterval(entity.getPersistentDataContainer().getOrDefault(DisplayEntities.Keys.REFRESH_INTERVAL, PersistentDataType.INTEGER, plugin.configuration().refreshInterval()));
+            if (refreshScheduler.schedule(entity, refreshInterval) == true)
+                // Logging debug information to the console.
+                plugin.debug("[E:" + entityId + "] Rescheduling the placeholders refresh... [RI:" + refreshInterval + "]");
+        }
+        // Getting current viewers of the entity.
+        final List<Player> viewers = List.copyOf(entity.getTrackedBy());
+        // Skipping if nobody is tracking the entity.
+        if (viewers.isEmpty() == true)
+            return;
+        // Rendering the text for all viewers on render workers and sending it with a single flush per viewer.
+        renderWorkers.submit(() -> {
+            final PacketBatch packets = new PacketBatch(plugin.configuration().bundleRefreshPackets());
+            for (final Player viewer : viewers)
+                this.render(entity, viewer, packets);
+            packets.flush();
+        });
+    }
+
+    // Called on render workers for text displays that were shown with a preview. Renders the full text and queues it to be sent to specified viewer.
+    private void render(final @NotNull Entity entity, final @NotNull Player viewer, final @NotNull PacketBatch packets) {
+        final int entityId = entity.getEntityId();
+        // Skipping if entity is no longer visible to the viewer.
+        if (sentComponents.contains(viewer.getEntityId(), entityId) == false)
+            return;
+        // Rendering the text for this viewer, using variant for their locale, and recording how long it took.
+        final DisplayText text = plugin.textCache().get(entity).variant(viewer.locale());
+        final long start = System.nanoTime();
+        final Component component = text.render(viewer, refreshScheduler.currentTick());
+        plugin.placeholderStats().recordDisplay(this.displayName(entity), System.nanoTime() - start);
+        // Caching the component, so it can be used when server sends the text again.
+        renderedComponents.put(viewer.getEntityId(), entityId, text, component);
+        // Skipping if viewer already has the exact same text.
+        if (sentComponents.shouldSend(viewer.getEntityId(), entityId, component) == false)
+            return;
+        // Queuing the packet to be sent to the viewer. Packets are sent silently, as text is already rendered and there is no need for them to go through the entity_metadata listener.
+        packets.add(viewer, encodedMetadata.text(entityId, component));
+        // Logging debug information to the console.
+        plugin.debug("[E:" + entityId + "] Deferred text queued for user " + viewer.getName() + "... [H:" + component.hashCode() + "]");
+    }
+
+    // Called by the RefreshScheduler for all text display entities that are due. Renders the text and queues it to be sent to all specified viewers.
+    private void refresh(final @NotNull Entity entity, final @NotNull Collection<ViewerSnapshot> viewers, final @NotNull PacketBatch packets) {
+        final int entityId = entity.getEntityId();
+        // Getting the compiled text.
+        final DisplayText text = plugin.textCache().get(entity);
+        // Getting refresh interval of the entity from the index. Used by lines that do not specify their own interval.
+        final @Nullable DisplayIndex.Entry indexed = plugin.displayIndex().get(entity);
+        final int defaultInterval = (indexed != null && indexed.refreshInterval() != null) ? indexed.refreshInterval() : plugin.configuration().refreshInterval();
+        // Getting interval at which the entity is refreshed. Lines are aligned to it, so none of them is refreshed early.
+        final int cadence = text.refreshInterval(defaultInterval);
+        // Getting the current cycle. Global placeholders are resolved once and shared by all viewers.
+        final long cycle = refreshScheduler.currentTick();
+        final String name = (indexed != null) ? indexed.name() : "#" + entityId;
+        // Getting distance bands used to lower refresh rate for viewers that are far away.
+        final RefreshBands bands = plugin.refreshBands();
+        // Getting position of the entity. Indexed position is preferred, as it can be safely read from any thread.
+        final double x = (indexed != null) ? indexed.x() : entity.getX();
+        final double y = (indexed != null) ? indexed.y() : entity.getY();
+        final double z = (indexed != null) ? indexed.z() : entity.getZ();
+        // Getting cosine of the view cone angle, if refreshes are prioritized for viewers looking towards the display.
+        final boolean isPrioritized = plugin.configuration().prioritizeInViewDisplays();
+        final double cosine = (isPrioritized == true) ? GazePrioritizer.cosine(plugin.configuration().viewConeAngle()) : 0.0D;
+        for (final ViewerSnapshot snapshot : viewers) {
+            final Player viewer = snapshot.player();
+            // Getting divisor of the refresh rate, based on distance between the viewer and the entity. Position of the viewer was captured on it's owning thread.
+            final double distanceX = snapshot.x() - x;
+            final double distanceY = snapshot.y() - y;
+            final double distanceZ = snapshot.z() - z;
+            final int divisor = bands.divisor(distanceX * distanceX + distanceY * distanceY + distanceZ * distanceZ);
+            // Skipping viewers that are too far away to receive any refreshes. They keep the text they were last sent.
+            if (divisor == RefreshBands.FROZEN)
+                continue;
+            // Skipping viewers that are not looking towards the display. Refresh is caught up once it comes into their view.
+            if (isPrioritized == true && GazePrioritizer.isInView(snapshot, x, y, z, cosine) == false) {
+                gazePrioritizer.skip(viewer, entity);
+                continue;
+            }
+            // Forgetting refresh skipped previously, as it is caught up right now.
+            if (isPrioritized == true)
+                gazePrioritizer.forget(viewer.getEntityId(), entityId);
+            // Getting variant of the text for locale of the viewer. Viewers sharing a locale share rendered components.
+            final DisplayText variant = text.variant(viewer.locale());
+            // Rendering the text for this viewer and recording how long it took. Only lines that are due are resolved again.
+            final long start = System.nanoTime();
+            final Component component = variant.refresh(viewer, cycle, defaultInterval, cadence, divisor);
+            plugin.placeholderStats().recordDisplay(name, System.nanoTime() - start);
+            // Caching the component, so it can be used when server sends the text again.
+            renderedComponents.put(viewer.getEntityId(), entityId, variant, component);
+            // Skipping viewers that already have the exact same text.
+            if (sentComponents.shouldSend(viewer.getEntityId(), entityId, component) == false)
+                continue;
+            // Getting the packet. Payload is encoded once and shared by all viewers that receive the same component.
+            final PacketWrapper<?> packet = encodedMetadata.text(entityId, component);
+            // Queuing the packet to be sent to the viewer. Packets are sent silently, as text is already rendered and there is no need for them to go through the entity_metadata listener.
+            packets.add(viewer, packet);
+            // Logging debug information to the console.
+            plugin.debug("[E:" + entityId + "] Packet queued for user " + viewer.getName() + "... [P:" + packet.getNativePacketId() + "] [H:" + component.hashCode() + "]");
+        }
+        // Logging debug information to the console.
+        plugin.debug("[E:" + entityId + "] Placeholders refreshed... [S:" + sentComponents.sent() + "] [SP:" + sentComponents.suppressed() + "]");
+    }
+
+    // Returns name of specified display, or it's id if it is not indexed.
+    private @NotNull String displayName(final @NotNull Entity entity) {
+        final @Nullable DisplayIndex.Entry indexed = plugin.displayIndex().get(entity);
+        return (indexed != null) ? indexed.name() : "#" + entity.getEntityId();
     }
 
-    private void runWrapped(final @NotNull Entity entity, final @NotNull Runnable runnable) {
-        // Executing runnable on EntityScheduler when the server is using Folia.
-        if (DisplayEntities.isFolia() == true)
-            entity.getScheduler().run(plugin, (it) -> runnable.run(), null);
-        // Otherwise, runnable is executed on the current thread.
-        else runnable.run();
+    // Forgetting payloads encoded for text displays that are no longer present in the world. Entity ids are never re-used, so there is no point in keeping them.
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityRemoveFromWorld(final @NotNull EntityRemoveFromWorldEvent event) {
+        if (event.getEntity() instanceof TextDisplay)
+            encodedMetadata.forget(event.getEntity().getEntityId());
     }
 
-    private void runWrappedAsync(final @NotNull Entity entity, final @NotNull Runnable runnable) {
-        // Executing runnable on EntityScheduler when the server is using Folia.
-        if (DisplayEntities.isFolia() == true)
-            entity.getScheduler().run(plugin, (it) -> runnable.run(), null);
-        // Otherwise, runnable is executed on async scheduler.
-        else plugin.getServer().getAsyncScheduler().runNow(plugin, (it) -> runnable.run());
+    @Override
+    public void onUserDisconnect(final @NotNull UserDisconnectEvent event) {
+        // Forgetting all components sent to the disconnected user.
+        sentComponents.forgetViewer(event.getUser().getEntityId());
+        renderedComponents.forgetViewer(event.getUser().getEntityId());
+        gazePrioritizer.forgetViewer(event.getUser().getEntityId());
+        plugin.textCache().forgetViewer(event.getUser().getEntityId());
     }
 
 }
@@ -26,15 +26,15 @@
 package cloud.grabsky.displayentities.listener;
 
 import cloud.grabsky.displayentities.DisplayEntities;
-import com.github.retrooper.packetevents.PacketEvents;
+import cloud.grabsky.displayentities.refresh.PacketBatch;
+import cloud.grabsky.displayentities.refresh.RefreshScheduler;
 import com.github.retrooper.packetevents.protocol.entity.data.EntityData;
 import com.github.retrooper.packetevents.protocol.entity.data.EntityDataTypes;
 import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerEntityMetadata;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
-import me.clip.placeholderapi.PlaceholderAPI;
-import net.kyori.adventure.text.minimessage.MiniMessage;
-import org.bukkit.entity.Entity;
+import net.kyori.adventure.text.Component;
+import org.bukkit.entity.Player;
 import org.bukkit.entity.TextDisplay;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -57,6 +57,9 @@ public final class ResourcePackListener implements Listener {
     @Getter(AccessLevel.PUBLIC)
     private final @NotNull DisplayEntities plugin;
 
+    // Used to identify the current refresh cycle, so global placeholders can be shared with regular refreshes.
+    private final @NotNull RefreshScheduler refreshScheduler;
+
     // Responsible for storing packs that are being currently loaded.
     private final Multimap<UUID, UUID> loadingResourcePacks = ArrayListMultimap.create();
 
@@ -78,36 +81,43 @@ public final class ResourcePackListener implements Listener {
                 plugin.debug("[P:" + event.getPlayer().getName() + "] All resource-packs has been loaded... Refreshing display entities...");
                 // Removing all packs associated with the player.
                 loadingResourcePacks.removeAll(uniqueId);
-                // Refreshing all display entities around the player.
-                event.getPlayer().getNearbyEntities(event.getPlayer().getWorld().getSimulationDistance() * 16, (double) Math.abs(event.getPlayer().getWorld().getMinHeight() - event.getPlayer().getWorld().getMaxHeight()) / 2, event.getPlayer().getWorld().getSimulationDistance() * 16).forEach(it -> {
-                    // Scheduling further logic to be executed off the main thread, or on Folia's EntityScheduler if needed.
-                    runWrappedAsync(event.getPlayer(), () -> {
-                        // Checking entity is a TextDisplay and was created by the plugin. Otherwise, skipping.
-                        if (it instanceof TextDisplay entity && entity.getPersistentDataContainer().has(DisplayEntities.Keys.NAME) == true) {
-                            // Getting the text contents stored inside PDC.
-                            final String text = entity.getPersistentDataContainer().getOrDefault(DisplayEntities.Keys.TEXT_CONTENTS, PersistentDataType.STRING, "");
-                            // Creating and sending entity metadata packet to the player. This should refresh the client-side text display and re-align all custom characters.
-                            PacketEvents.getAPI().getPlayerManager().sendPacket(
-                                    event.getPlayer(),
-                                    new WrapperPlayServerEntityMetadata(entity.getEntityId(), List.of(
-                                        new EntityData<>(23, EntityDataTypes.ADV_COMPONENT, MiniMessage.miniMessage().deserialize(PlaceholderAPI.setPlaceholders(event.getPlayer(), text)))
-                                    ))
-                            );
-                            // Logging debug info to the console.
-                            plugin.debug("[P:" + event.getPlayer().getName() + "] [E:" + entity.getEntityId() + "] Refreshing packet after loading all resource-packs.");
-                        }
-                    });
+                // Collecting all text displays around the player.
+                final List<TextDisplay> entities = event.getPlayer().getNearbyEntities(event.getPlayer().getWorld().getSimulationDistance() * 16, (double) Math.abs(event.getPlayer().getWorld().getMinHeight() - event.getPlayer().getWorld().getMaxHeight()) / 2, event.getPlayer().getWorld().getSimulationDistance() * 16).stream()
+                        .filter(it -> it instanceof TextDisplay)
+                        .map(it -> (TextDisplay) it)
+                        .toList();
+                // Executing on EntityScheduler of each entity when server is using Folia. Packets of each entity are flushed separately.
+                if (DisplayEntities.isFolia() == true)
+                    entities.forEach(entity -> entity.getScheduler().run(plugin, (it) -> {
+                        final PacketBatch packets = new PacketBatch(false);
+                        this.refresh(event.getPlayer(), entity, packets);
+                        packets.flush();
+                    }, null));
+                // Otherwise, refreshing all entities in a single asynchronous job, with a single flush.
+                else plugin.getServer().getAsyncScheduler().runNow(plugin, (it) -> {
+                    final PacketBatch packets = new PacketBatch(plugin.configuration().bundleRefreshPackets());
+                    entities.forEach(entity -> this.refresh(event.getPlayer(), entity, packets));
+                    packets.flush();
                 });
             }
         }
     }
 
-    private void runWrappedAsync(final @NotNull Entity entity, final @NotNull Runnable runnable) {
-        // Executing runnable on EntityScheduler when server is using Folia.
-        if (DisplayEntities.isFolia() == true)
-            entity.getScheduler().run(plugin, (it) -> runnable.run(), null);
-        // Otherwise, runnable is executed on async scheduler.
-        else plugin.getServer().getAsyncScheduler().runNow(plugin, (it) -> runnable.run());
+    // Renders text of specified entity for specified player and queues it to be sent.
+    private void refresh(final @NotNull Player player, final @NotNull TextDisplay entity, final @NotNull PacketBatch packets) {
+        // Skipping entities that were not created by the plugin.
+        if (entity.getPersistentDataContainer().has(DisplayEntities.Keys.NAME) == false)
+            return;
+        // Rendering the text for the player, using compiled text of the entity, and recording how long it took.
+        final long start = System.nanoTime();
+        final Component text = plugin.textCache().get(entity).variant(player.locale()).render(player, refreshScheduler.currentTick());
+        plugin.placeholderStats().recordDisplay(entity.getPersistentDataContainer().getOrDefault(DisplayEntities.Keys.NAME, PersistentDataType.STRING, "#" + entity.getEntityId()), System.nanoTime() - start);
+        // Creating and queuing entity metadata packet for the player. This should refresh the client-side text display and re-align all custom characters.
+        packets.add(player, new WrapperPlayServerEntityMetadata(entity.getEntityId(), List.of(
+                new EntityData<>(23, EntityDataTypes.ADV_COMPONENT, text)
+        )));
+        // Logging debug info to the console.
+        plugin.debug("[P:" + player.getName() + "] [E:" + entity.getEntityId() + "] Refreshing packet after loading all resource-packs.");
     }
 
 }
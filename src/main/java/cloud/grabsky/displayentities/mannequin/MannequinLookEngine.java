@@ -0,0 +1,239 @@
+/*
+ * DisplayEntities (https://github.com/Grabsky/DisplayEntities)
+ *
+ * MIT License
+ *
+ * Copyright (c) 2026 Grabsky (michal.czopek.foss@proton.me)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cloud.grabsky.displayentities.mannequin;
+
+import cloud.grabsky.displayentities.DisplayEntities;
+import cloud.grabsky.displayentities.refresh.PacketBatch;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerEntityHeadLook;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerEntityRotation;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import it.unimi.dsi.fastutil.ints.Int2ShortMap;
+import it.unimi.dsi.fastutil.ints.Int2ShortOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import org.bukkit.entity.Mannequin;
+import org.bukkit.entity.Player;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Makes mannequin entities with {@link DisplayEntities.Keys#MANNEQUIN_TRACK_NEAREST_PLAYER} enabled look at their viewers.
+ * On Paper, all tracked mannequins are processed in a single pass on the main thread. On Folia, each mannequin is processed by its own entity scheduler, within the tick of its region.
+ * Rotations are computed from raw coordinates, without allocating any {@link org.bukkit.Location} or {@link org.bukkit.util.Vector} objects.
+ */
+public final class MannequinLookEngine {
+
+    // Stores all mannequins that are currently processed, keyed by entity id.
+    private final Map<Integer, Tracked> mannequins = new ConcurrentHashMap<>();
+
+    private @Nullable DisplayEntities plugin;
+    private @Nullable ScheduledTask task;
+
+    // Number of ticks since the last pass. Only accessed from the global region.
+    private int ticksSinceLastPass = 0;
+
+    /**
+     * Starts the engine. Must be called after the plugin is enabled.
+     */
+    public void start(final @NotNull DisplayEntities plugin) {
+        this.plugin = plugin;
+        // Processing all mannequins in a single pass on the global region. This is the main thread on Paper. Update rate is checked every tick, so it can be changed with a reload.
+        if (DisplayEntities.isFolia() == false)
+            this.task = plugin.getServer().getGlobalRegionScheduler().runAtFixedRate(plugin, (it) -> {
+                if (++ticksSinceLastPass < plugin.configuration().mannequinLookUpdateRate())
+                    return;
+                ticksSinceLastPass = 0;
+                tickAll();
+            }, 1L, 1L);
+    }
+
+    /**
+     * Stops the engine and forgets all tracked mannequins.
+     */
+    public void stop() {
+        if (task != null)
+            task.cancel();
+        mannequins.clear();
+    }
+
+    /**
+     * Starts processing specified mannequin. Returns {@code false} if it is already being processed or the engine has not been started yet.
+     * Mannequin is processed until nobody is tracking it anymore. Can be called from any thread.
+     */
+    public boolean track(final @NotNull Mannequin entity) {
+        // Skipping if engine has not been started yet.
+        if (plugin == null)
+            return false;
+        final Tracked tracked = new Tracked(entity, entity.getEntityId());
+        // Skipping if mannequin is already being processed.
+        if (mannequins.putIfAbsent(tracked.entityId, tracked) != null)
+            return false;
+        // Scheduling a repeating task on the entity scheduler when the server is using Folia. Update rate is read once, when the task is scheduled.
+        if (DisplayEntities.isFolia() == true) {
+            entity.getScheduler().runAtFixedRate(plugin, (it) -> {
+                final PacketBatch packets = new PacketBatch(plugin.configuration().bundleRefreshPackets());
+                // Cancelling the task once mannequin no longer needs to be processed.
+                if (tick(tracked, plugin.configuration().trackNearestPlayerRadius(), packets) == false) {
+                    mannequins.remove(tracked.entityId, tracked);
+                    it.cancel();
+                }
+                // Sending rotations to all viewers of the mannequin.
+                packets.flush();
+            }, () -> mannequins.remove(tracked.entityId, tracked), 1L, Math.max(1, plugin.configuration().mannequinLookUpdateRate()));
+        }
+        return true;
+    }
+
+    /**
+     * Returns {@code true} if mannequin with specified id is currently being processed.
+     */
+    public boolean isTracked(final int entityId) {
+        return mannequins.containsKey(entityId);
+    }
+
+    // Processes all mannequins. Called only on Paper.
+    private void tickAll() {
+        final float radius = plugin.configuration().trackNearestPlayerRadius();
+        // Queuing rotations of all mannequins, so each viewer is flushed only once per pass.
+        final PacketBatch packets = new PacketBatch(plugin.configuration().bundleRefreshPackets());
+        // Iterating over all tracked mannequins and removing ones that no longer need to be processed.
+        for (final Iterator<Tracked> iterator = mannequins.values().iterator(); iterator.hasNext();) {
+            if (tick(iterator.next(), radius, packets) == false)
+                iterator.remove();
+        }
+        // Sending queued rotations to all viewers.
+        packets.flush();
+    }
+
+    // Queues rotations of specified mannequin for all of its viewers. Returns false if the mannequin no longer needs to be processed.
+    private boolean tick(final @NotNull Tracked tracked, final float radius, final @NotNull PacketBatch packets) {
+        final Mannequin entity = tracked.entity;
+        // Retiring if entity is no longer valid or nobody is tracking it.
+        if (entity.isValid() == false || entity.getTrackedBy().isEmpty() == true) {
+            // Logging debug information to the console.
+            plugin.debug("[E:" + tracked.entityId + "] Cancelling the mannequin look-at processing... [C:SELF]");
+            return false;
+        }
+        // Resetting rotations and retiring if tracking has been disabled in the meantime.
+        if (entity.getPersistentDataContainer().getOrDefault(DisplayEntities.Keys.MANNEQUIN_TRACK_NEAREST_PLAYER, PersistentDataType.BOOLEAN, false) == false) {
+            for (final Player viewer : entity.getTrackedBy())
+                if (tracked.looking.containsKey(viewer.getEntityId()) == true)
+                    reset(viewer, entity, tracked.entityId, packets);
+            return false;
+        }
+        // Getting position and rotation of the mannequin.
+        final double x = entity.getX();
+        final double y = entity.getY();
+        final double z = entity.getZ();
+        final double eyeY = y + entity.getEyeHeight();
+        final double yaw = Math.toRadians(entity.getYaw());
+        final double pitch = Math.toRadians(entity.getPitch());
+        // Calculating the center point of the circular radius within which the mannequin entity will look at the nearest player. Same as Location#getDirection, scaled.
+        final double offset = radius - 0.35;
+        final double centerX = x + (-Math.sin(yaw) * Math.cos(pitch)) * offset;
+        final double centerY = y + (-Math.sin(pitch)) * offset;
+        final double centerZ = z + (Math.cos(yaw) * Math.cos(pitch)) * offset;
+        final double squaredRadius = radius * radius;
+        // Stores ids of viewers processed during this tick.
+        final IntSet viewers = new IntOpenHashSet();
+        // Iterating over all viewers of the mannequin entity.
+        for (final Player viewer : entity.getTrackedBy()) {
+            final int viewerId = viewer.getEntityId();
+            viewers.add(viewerId);
+            // Calculating squared distance between the viewer and the center point.
+            final double distanceX = viewer.getX() - centerX;
+            final double distanceY = viewer.getY() - centerY;
+            final double distanceZ = viewer.getZ() - centerZ;
+            // Resetting rotations if viewer is no longer within the configured radius.
+            if (distanceX * distanceX + distanceY * distanceY + distanceZ * distanceZ > squaredRadius) {
+                if (tracked.looking.containsKey(viewerId) == true) {
+                    tracked.looking.remove(viewerId);
+                    reset(viewer, entity, tracked.entityId, packets);
+                }
+                continue;
+            }
+            // Calculating the direction for the mannequin to look at. Same as Location#setDirection.
+            final double directionX = viewer.getX() - x;
+            final double directionY = (viewer.getY() + viewer.getEyeHeight()) - eyeY;
+            final double directionZ = viewer.getZ() - z;
+            final float lookYaw = (float) Math.toDegrees((Math.atan2(-directionX, directionZ) + (Math.PI * 2)) % (Math.PI * 2));
+            final float lookPitch = (float) Math.toDegrees(Math.atan(-directionY / Math.sqrt(directionX * directionX + directionZ * directionZ)));
+            // Quantizing rotation to the byte angles used by the protocol.
+            final short quantized = quantize(lookYaw, lookPitch);
+            // Skipping viewers that would receive exactly the same rotation as the last one sent to them. This is the case for viewers that did not move.
+            if (tracked.looking.containsKey(viewerId) == true && tracked.looking.get(viewerId) == quantized)
+                continue;
+            tracked.looking.put(viewerId, quantized);
+            // Updating the mannequin's body and head rotations to face the viewer.
+            send(viewer, tracked.entityId, lookYaw, lookPitch, packets);
+        }
+        // Forgetting viewers that are no longer tracking the mannequin. Their client has already discarded the entity.
+        for (final IntIterator iterator = tracked.looking.keySet().iterator(); iterator.hasNext();) {
+            if (viewers.contains(iterator.nextInt()) == false)
+                iterator.remove();
+        }
+        return true;
+    }
+
+    // Returns yaw and pitch quantized to byte angles, packed into a single short.
+    private static short quantize(final float yaw, final float pitch) {
+        return (short) (((int) (yaw * 256.0F / 360.0F) & 0xFF) << 8 | ((int) (pitch * 256.0F / 360.0F) & 0xFF));
+    }
+
+    // Resets body and head rotations of the mannequin for specified viewer.
+    private static void reset(final @NotNull Player viewer, final @NotNull Mannequin entity, final int entityId, final @NotNull PacketBatch packets) {
+        send(viewer, entityId, entity.getYaw(), entity.getPitch(), packets);
+    }
+
+    private static void send(final @NotNull Player viewer, final int entityId, final float yaw, final float pitch, final @NotNull PacketBatch packets) {
+        packets.add(viewer, new WrapperPlayServerEntityRotation(entityId, yaw, pitch, false));
+        packets.add(viewer, new WrapperPlayServerEntityHeadLook(entityId, yaw));
+    }
+
+    // Holds state of a single tracked mannequin. Only accessed by the thread that processes this mannequin.
+    private static final class Tracked {
+
+        private final @NotNull Mannequin entity;
+        private final int entityId;
+
+        // Stores ids of viewers the mannequin is currently looking at, along with quantized rotation last sent to each of them.
+        private final Int2ShortMap looking = new Int2ShortOpenHashMap();
+
+        private Tracked(final @NotNull Mannequin entity, final int entityId) {
+            this.entity = entity;
+            this.entityId = entityId;
+        }
+
+    }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * DisplayEntities (https://github.com/Grabsky/DisplayEntities)
+ *
+ * MIT License
+ *
+ * Copyright (c) 2026 Grabsky (michal.czopek.foss@proton.me)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cloud.grabsky.displayentities.refresh;
+
+import cloud.grabsky.displayentities.DisplayEntities;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Queue of text displays shown to viewers with a preview text, waiting to be fully rendered. Each tick, at most
+ * {@code deferred_renders_per_tick} of them are handed over to the {@link Renderer} in one batch, on {@link RenderWorkers}, so
+ * displays shown all at once, for example after joining the server, are rendered over the next few ticks.
+ */
+public final class DeferredRenderQueue {
+
+    // Responsible for rendering and sending text of specified entity to specified viewer.
+    private final @NotNull Renderer renderer;
+
+    // Requests waiting to be rendered, in order they were queued.
+    private final Queue<Request> queue = new ConcurrentLinkedQueue<>();
+
+    // Keys of all queued requests. Prevents the same text from being queued twice for the same viewer.
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+
+    private @Nullable DisplayEntities plugin;
+    private @Nullable RenderWorkers workers;
+    private @Nullable ScheduledTask task;
+
+    public DeferredRenderQueue(final @NotNull Renderer renderer) {
+        this.renderer = renderer;
+    }
+
+    /**
+     * Starts draining the queue. Must be called after the plugin is enabled.
+     */
+    public void start(final @NotNull DisplayEntities plugin, final @NotNull RenderWorkers workers) {
+        this.plugin = plugin;
+        this.workers = workers;
+        // Draining the queue every tick on the global region. This is the main thread on Paper.
+        this.task = plugin.getServer().getGlobalRegionScheduler().runAtFixedRate(plugin, (it) -> drain(), 1L, 1L);
+    }
+
+    /**
+     * Stops draining the queue and forgets all queued requests.
+     */
+    public void stop() {
+        if (task != null)
+            task.cancel();
+        queue.clear();
+        queued.clear();
+    }
+
+    /**
+     * Queues text of specified entity to be rendered for specified viewer. Nothing happens if it is already queued.
+     */
+    public void enqueue(final @NotNull Player viewer, final @NotNull Entity entity) {
+        final long key = SentComponentTracker.key(viewer.getEntityId(), entity.getEntityId());
+        if (queued.add(key) == true)
+            queue.add(new Request(viewer, entity, key));
+    }
+
+    private void drain() {
+        // Collecting at most the budget of requests.
+        final int budget = Math.max(1, plugin.configuration().deferredRendersPerTick());
+        final List<Request> batch = new ArrayList<>(Math.min(budget, queue.size()));
+        Request request;
+        while (batch.size() < budget && (request = queue.poll()) != null)
+            batch.add(request);
+        // Skipping if there is nothing to render.
+        if (batch.isEmpty() == true)
+            return;
+        workers.submit(() -> {
+            // Queuing packets of the whole batch, so each viewer is flushed only once.
+            final PacketBatch packets = new PacketBatch(plugin.configuration().bundleRefreshPackets());
+            for (final Request entry : batch) {
+                queued.remove(entry.key());
+                // Skipping viewers that have left in the meantime.
+                if (entry.viewer().isOnline() == true)
+                    renderer.render(entry.entity(), entry.viewer(), packets);
+            }
+            packets.flush();
+        });
+    }
+
+    private record Request(@NotNull Player viewer, @NotNull Entity entity, long key) {}
+
+    /**
+     * Responsible for rendering text of specified entity and queuing it to be sent to specified viewer.
+     */
+    @FunctionalInterface
+    public interface Renderer {
+
+        void render(final @NotNull Entity entity, final @NotNull Player viewer, final @NotNull PacketBatch packets);
+
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * DisplayEntities (https://github.com/Grabsky/DisplayEntities)
+ *
+ * MIT License
+ *
+ * Copyright (c) 2026 Grabsky (michal.czopek.foss@proton.me)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cloud.grabsky.displayentities.refresh;
+
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import com.github.retrooper.packetevents.netty.buffer.UnpooledByteBufAllocationHelper;
+import com.github.retrooper.packetevents.protocol.entity.data.EntityData;
+import com.github.retrooper.packetevents.protocol.entity.data.EntityDataTypes;
+import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerEntityMetadata;
+import net.kyori.adventure.text.Component;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Stores encoded payloads of text metadata packets, keyed by entity id and identity of the component. Text is encoded once per
+ * distinct render and the resulting bytes are re-used for every viewer that receives the exact same component instance, which
+ * is the case for text shared across viewers. Each entity keeps a few payloads, so per-locale variants do not evict each other.
+ */
+public final class EncodedMetadataCache {
+
+    // Maximum number of entities payloads are kept for at once. Prevents unbounded growth when many text displays are loaded and unloaded.
+    private static final int MAX_CACHED_ENTITIES = 4096;
+
+    // Maximum number of payloads kept for a single entity. Enough to hold payloads of all variants rendered within a single refresh cycle.
+    private static final int MAX_PAYLOADS_PER_ENTITY = 8;
+
+    // Index of the text entity data of text displays.
+    private static final int TEXT_INDEX = 23;
+
+    // Stores payloads most recently encoded for each entity, keyed by identity of the component they were encoded from.
+    private final Map<Integer, Map<Component, byte[]>> payloads = new ConcurrentHashMap<>();
+
+    /**
+     * Returns metadata packet setting text of specified entity to specified component. Payload is encoded only if it has not been
+     * encoded for the same component instance before. Packets are encoded in the format of the server, like all packets sent by it.
+     */
+    public @NotNull PacketWrapper<?> text(final int entityId, final @NotNull Component component) {
+        final @Nullable Map<Component, byte[]> encoded = payloads.get(entityId);
+        final byte[] cached = (encoded != null) ? encoded.get(component) : null;
+        // Returning packet with payload encoded earlier for the same component.
+        if (cached != null)
+            return new EncodedMetadata(cached);
+        // Clearing the cache when it gets too large. Cheaper than maintaining LRU order on every render.
+        if (encoded == null && payloads.size() >= MAX_CACHED_ENTITIES)
+            payloads.clear();
+        // Encoding and caching the payload. Concurrent renders may encode the same component twice, which is harmless.
+        final byte[] payload = encode(new WrapperPlayServerEntityMetadata(entityId, List.of(
+                new EntityData<>(TEXT_INDEX, EntityDataTypes.ADV_COMPONENT, component)
+        )));
+        final Map<Component, byte[]> entity = payloads.computeIfAbsent(entityId, (it) -> Collections.synchronizedMap(new IdentityHashMap<>()));
+        synchronized (entity) {
+            // Dropping payloads of previous renders once the entity holds too many of them.
+            if (entity.size() >= MAX_PAYLOADS_PER_ENTITY)
+                entity.clear();
+            entity.put(component, payload);
+        }
+        return new EncodedMetadata(payload);
+    }
+
+    /**
+     * Forgets payloads encoded for entity with specified id. Called when entity is removed from the world.
+     */
+    public void forget(final int entityId) {
+        payloads.remove(entityId);
+    }
+
+    // Writes contents of specified packet, without the packet id, to a temporary buffer and returns them.
+    private static byte[] encode(final @NotNull PacketWrapper<?> packet) {
+        final Object buffer = UnpooledByteBufAllocationHelper.buffer();
+        try {
+            packet.setBuffer(buffer);
+            packet.write();
+            return packet.readBytes(ByteBufHelper.readableBytes(buffer));
+        } finally {
+            ByteBufHelper.release(buffer);
+        }
+    }
+
+    /**
+     * Entity metadata packet which contents are already encoded. Contents are copied as-is when packet is sent.
+     */
+    private static final class EncodedMetadata extends PacketWrapper<EncodedMetadata> {
+
+        private final byte[] payload;
+
+        private EncodedMetadata(final byte[] payload) {
+            super(PacketType.Play.Server.ENTITY_METADATA);
+            this.payload = payload;
+        }
+
+        @Override
+        public void write() {
+            this.writeBytes(payload);
+        }
+
+    }
+
+}
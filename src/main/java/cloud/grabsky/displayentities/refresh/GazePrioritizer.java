@@ -0,0 +1,188 @@
+/*
+ * DisplayEntities (https://github.com/Grabsky/DisplayEntities)
+ *
+ * MIT License
+ *
+ * Copyright (c) 2026 Grabsky (michal.czopek.foss@proton.me)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cloud.grabsky.displayentities.refresh;
+
+import cloud.grabsky.displayentities.DisplayEntities;
+import cloud.grabsky.displayentities.registry.DisplayIndex;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Keeps track of text displays which refreshes were skipped because they were outside of viewer's field of view.
+ * Every few ticks, each viewer is checked on their own scheduler and displays that came into view are handed over to the
+ * {@link DeferredRenderQueue.Renderer} in one batch, on {@link RenderWorkers}, so viewers never look at stale text for longer than that.
+ */
+public final class GazePrioritizer {
+
+    // Interval between checks of skipped displays, in ticks.
+    private static final long CHECK_INTERVAL = 4L;
+
+    // Squared distance, in blocks, within which displays are always considered in view. Viewers can turn towards them too quickly.
+    private static final double SQUARED_NEAR_DISTANCE = 4.0D * 4.0D;
+
+    // Responsible for rendering and sending text of specified entity to specified viewer.
+    private final @NotNull DeferredRenderQueue.Renderer renderer;
+
+    // Displays which refreshes were skipped, keyed by the viewer id and then by the entity id.
+    private final Map<Integer, Skipped> skipped = new ConcurrentHashMap<>();
+
+    private @Nullable DisplayEntities plugin;
+    private @Nullable RenderWorkers workers;
+    private @Nullable ScheduledTask task;
+
+    public GazePrioritizer(final @NotNull DeferredRenderQueue.Renderer renderer) {
+        this.renderer = renderer;
+    }
+
+    /**
+     * Starts checking skipped displays. Must be called after the plugin is enabled.
+     */
+    public void start(final @NotNull DisplayEntities plugin, final @NotNull RenderWorkers workers) {
+        this.plugin = plugin;
+        this.workers = workers;
+        // Checking skipped displays every few ticks on the global region. This is the main thread on Paper.
+        this.task = plugin.getServer().getGlobalRegionScheduler().runAtFixedRate(plugin, (it) -> check(), CHECK_INTERVAL, CHECK_INTERVAL);
+    }
+
+    /**
+     * Stops checking skipped displays and forgets all of them.
+     */
+    public void stop() {
+        if (task != null)
+            task.cancel();
+        skipped.clear();
+    }
+
+    /**
+     * Returns cosine of the view cone angle, in degrees, measured from the look direction. Used with {@link #isInView}.
+     */
+    public static double cosine(final double angle) {
+        return Math.cos(Math.toRadians(angle));
+    }
+
+    /**
+     * Returns {@code true} if specified point is within the view cone of specified viewer snapshot. Points close to the viewer are always in view.
+     */
+    public static boolean isInView(final @NotNull ViewerSnapshot viewer, final double x, final double y, final double z, final double cosine) {
+        // Calculating the direction from viewer's eyes to the point.
+        final double directionX = x - viewer.x();
+        final double directionY = y - viewer.eyeY();
+        final double directionZ = z - viewer.z();
+        final double squaredDistance = directionX * directionX + directionY * directionY + directionZ * directionZ;
+        if (squaredDistance <= SQUARED_NEAR_DISTANCE)
+            return true;
+        // Calculating the look direction of the viewer. Same as Location#getDirection.
+        final double yaw = Math.toRadians(viewer.yaw());
+        final double pitch = Math.toRadians(viewer.pitch());
+        final double lookX = -Math.sin(yaw) * Math.cos(pitch);
+        final double lookY = -Math.sin(pitch);
+        final double lookZ = Math.cos(yaw) * Math.cos(pitch);
+        // Comparing cosine of the angle between both directions with cosine of the cone angle. Look direction is already normalized.
+        return (directionX * lookX + directionY * lookY + directionZ * lookZ) >= cosine * Math.sqrt(squaredDistance);
+    }
+
+    /**
+     * Remembers that refresh of specified entity was skipped for specified viewer, so it can be caught up once it comes into view.
+     */
+    public void skip(final @NotNull Player viewer, final @NotNull Entity entity) {
+        skipped.computeIfAbsent(viewer.getEntityId(), (it) -> new Skipped(viewer, new ConcurrentHashMap<>())).entities().put(entity.getEntityId(), entity);
+    }
+
+    /**
+     * Forgets skipped refresh of specified entity for specified viewer. Called when entity is refreshed or no longer visible to the viewer.
+     */
+    public void forget(final int viewerId, final int entityId) {
+        final @Nullable Skipped entry = skipped.get(viewerId);
+        if (entry != null)
+            entry.entities().remove(entityId);
+    }
+
+    /**
+     * Forgets all skipped refreshes of specified viewer.
+     */
+    public void forgetViewer(final int viewerId) {
+        skipped.remove(viewerId);
+    }
+
+    // Called every few ticks on the global region. Positions of viewers can only be read from their own schedulers, so each of them is checked there.
+    private void check() {
+        // Skipping if nothing has been skipped.
+        if (skipped.isEmpty() == true)
+            return;
+        final double cosine = cosine(plugin.configuration().viewConeAngle());
+        for (final Iterator<Skipped> iterator = skipped.values().iterator(); iterator.hasNext();) {
+            final Skipped entry = iterator.next();
+            // Skipping viewers that have nothing to catch up.
+            if (entry.entities().isEmpty() == true)
+                continue;
+            // Checking displays on the viewer's scheduler. Viewers that have left in the meantime are forgotten.
+            final @Nullable ScheduledTask scheduled = entry.viewer().getScheduler().run(plugin, (it) -> this.check(entry, cosine), () -> skipped.remove(entry.viewer().getEntityId(), entry));
+            if (scheduled == null)
+                iterator.remove();
+        }
+    }
+
+    // Called on the scheduler of the viewer. Hands all displays that came into view over to the render workers in one batch.
+    private void check(final @NotNull Skipped entry, final double cosine) {
+        // Capturing position of the viewer while still on the owning thread.
+        final ViewerSnapshot viewer = ViewerSnapshot.of(entry.viewer());
+        // Collecting displays that came into view.
+        final List<Entity> inView = new ArrayList<>();
+        entry.entities().values().removeIf(entity -> {
+            // Getting position of the entity from the index, as it can be safely read from any thread. Entities that are no longer indexed are dropped.
+            final @Nullable DisplayIndex.Entry indexed = plugin.displayIndex().get(entity);
+            if (indexed == null)
+                return true;
+            if (isInView(viewer, indexed.x(), indexed.y(), indexed.z(), cosine) == false)
+                return false;
+            inView.add(entity);
+            return true;
+        });
+        // Skipping if nothing came into view.
+        if (inView.isEmpty() == true)
+            return;
+        workers.submit(() -> {
+            // Queuing packets of the whole batch, so the viewer is flushed only once.
+            final PacketBatch packets = new PacketBatch(plugin.configuration().bundleRefreshPackets());
+            for (final Entity entity : inView)
+                renderer.render(entity, entry.viewer(), packets);
+            packets.flush();
+        });
+    }
+
+    private record Skipped(@NotNull Player viewer, @NotNull Map<Integer, Entity> entities) {}
+
+}
@@ -0,0 +1,107 @@
+/*
+ * DisplayEntities (https://github.com/Grabsky/DisplayEntities)
+ *
+ * MIT License
+ *
+ * Copyright (c) 2026 Grabsky (michal.czopek.foss@proton.me)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cloud.grabsky.displayentities.refresh;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.protocol.player.ClientVersion;
+import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerBundle;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Queues packets sent to each viewer during a single cycle and writes them all at once, with a single flush per viewer.
+ * Packets can optionally be wrapped in a bundle, so client applies all of them on the same frame.
+ * Not thread-safe; each batch must be filled and flushed by a single thread.
+ */
+public final class PacketBatch {
+
+    // Maximum number of packets client accepts within a single bundle.
+    private static final int MAX_BUNDLE_SIZE = 4096;
+
+    // Whether packets should be wrapped in a bundle, for clients that support it.
+    private final boolean isBundled;
+
+    // Stores queued packets, keyed by the viewer they are sent to.
+    private final Map<Player, List<PacketWrapper<?>>> queued = new LinkedHashMap<>();
+
+    public PacketBatch(final boolean isBundled) {
+        this.isBundled = isBundled;
+    }
+
+    /**
+     * Queues specified packet to be sent to specified viewer. Packet is sent silently, once the batch is flushed.
+     */
+    public void add(final @NotNull Player viewer, final @NotNull PacketWrapper<?> packet) {
+        queued.computeIfAbsent(viewer, (it) -> new ArrayList<>()).add(packet);
+    }
+
+    /**
+     * Returns {@code true} if nothing has been queued since the last flush.
+     */
+    public boolean isEmpty() {
+        return queued.isEmpty();
+    }
+
+    /**
+     * Writes all queued packets to their viewers, flushing each connection once. Batch can be reused afterwards.
+     */
+    public void flush() {
+        for (final Map.Entry<Player, List<PacketWrapper<?>>> entry : queued.entrySet()) {
+            final @Nullable User user = PacketEvents.getAPI().getPlayerManager().getUser(entry.getKey());
+            // Skipping viewers that have disconnected in the meantime.
+            if (user == null)
+                continue;
+            final List<PacketWrapper<?>> packets = entry.getValue();
+            // Bundling only when there is more than one packet. Bundles are not supported by clients older than 1.19.4.
+            final boolean isBundling = isBundled == true && packets.size() > 1 && user.getClientVersion().isNewerThanOrEquals(ClientVersion.V_1_19_4) == true;
+            for (int i = 0; i < packets.size(); i++) {
+                // Opening a bundle before the first packet and re-opening it whenever the limit is reached.
+                if (isBundling == true && i % MAX_BUNDLE_SIZE == 0) {
+                    if (i != 0)
+                        user.writePacketSilently(new WrapperPlayServerBundle());
+                    user.writePacketSilently(new WrapperPlayServerBundle());
+                }
+                user.writePacketSilently(packets.get(i));
+            }
+            // Closing the bundle.
+            if (isBundling == true)
+                user.writePacketSilently(new WrapperPlayServerBundle());
+            // Flushing all written packets at once.
+            user.flushPackets();
+        }
+        queued.clear();
+    }
+
+}
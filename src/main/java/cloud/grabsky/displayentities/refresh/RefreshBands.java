@@ -0,0 +1,110 @@
+/*
+ * DisplayEntities (https://github.com/Grabsky/DisplayEntities)
+ *
+ * MIT License
+ *
+ * Copyright (c) 2026 Grabsky (michal.czopek.foss@proton.me)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cloud.grabsky.displayentities.refresh;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Distance bands used to lower the rate at which placeholders are refreshed for viewers that are far away from a text display.
+ * Each band has an upper distance bound and a divisor, by which the refresh rate is divided for viewers within that band.
+ * Viewers beyond the farthest band are {@link #FROZEN frozen} and do not receive any refreshes until they come closer.
+ */
+public final class RefreshBands {
+
+    /**
+     * Divisor of viewers that should not receive any refreshes.
+     */
+    public static final int FROZEN = 0;
+
+    /**
+     * Bands that refresh text at full rate for all viewers, regardless of their distance.
+     */
+    public static final RefreshBands NONE = new RefreshBands(new double[0], new int[0]);
+
+    // Squared upper distance bounds of all bands, in ascending order.
+    private final double[] squaredDistances;
+
+    // Divisors of all bands, in the same order as distances.
+    private final int[] divisors;
+
+    private RefreshBands(final double[] squaredDistances, final int[] divisors) {
+        this.squaredDistances = squaredDistances;
+        this.divisors = divisors;
+    }
+
+    /**
+     * Creates bands from specified map of distances (in blocks) to divisors. Returns {@link #NONE} if map is empty.
+     *
+     * @throws IllegalArgumentException if any of the distances is not a positive number, or any of the divisors is negative.
+     */
+    public static @NotNull RefreshBands of(final @NotNull Map<String, Integer> bands) throws IllegalArgumentException {
+        if (bands.isEmpty() == true)
+            return NONE;
+        // Parsing and validating all bands.
+        final double[][] parsed = new double[bands.size()][];
+        int index = 0;
+        for (final Map.Entry<String, Integer> band : bands.entrySet()) {
+            final double distance;
+            try {
+                distance = Double.parseDouble(band.getKey());
+            } catch (final NumberFormatException e) {
+                throw new IllegalArgumentException("Distance '" + band.getKey() + "' is not a number.");
+            }
+            if (distance <= 0.0D || Double.isFinite(distance) == false)
+                throw new IllegalArgumentException("Distance '" + band.getKey() + "' must be a positive number.");
+            if (band.getValue() == null || band.getValue() < 0)
+                throw new IllegalArgumentException("Divisor of distance '" + band.getKey() + "' must be a non-negative integer.");
+            parsed[index++] = new double[] { distance, band.getValue() };
+        }
+        // Sorting bands by their distance, so the nearest matching band is found first.
+        Arrays.sort(parsed, Comparator.comparingDouble(it -> it[0]));
+        final double[] squaredDistances = new double[parsed.length];
+        final int[] divisors = new int[parsed.length];
+        for (int i = 0; i < parsed.length; i++) {
+            squaredDistances[i] = parsed[i][0] * parsed[i][0];
+            divisors[i] = (int) parsed[i][1];
+        }
+        return new RefreshBands(squaredDistances, divisors);
+    }
+
+    /**
+     * Returns divisor of the refresh rate for a viewer at specified squared distance. Returns {@link #FROZEN} for viewers beyond the farthest band.
+     */
+    public int divisor(final double squaredDistance) {
+        // Refreshing at full rate when no bands are configured.
+        if (divisors.length == 0)
+            return 1;
+        for (int i = 0; i < squaredDistances.length; i++)
+            if (squaredDistance <= squaredDistances[i])
+                return divisors[i];
+        return FROZEN;
+    }
+
+}
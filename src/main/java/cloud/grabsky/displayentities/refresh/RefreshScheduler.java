@@ -0,0 +1,298 @@
+/*
+ * DisplayEntities (https://github.com/Grabsky/DisplayEntities)
+ *
+ * MIT License
+ *
+ * Copyright (c) 2026 Grabsky (michal.czopek.foss@proton.me)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cloud.grabsky.displayentities.refresh;
+
+import cloud.grabsky.displayentities.DisplayEntities;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Hashed timing wheel responsible for scheduling placeholder refreshes of all text display entities.
+ * Instead of running a separate repeating task per entity, a single task advances the wheel every tick
+ * and hands all entities that are due over to the {@link Refresher} in one batch, on {@link RenderWorkers}.
+ */
+public final class RefreshScheduler {
+
+    // Number of buckets in the wheel. Must be a power of two.
+    private static final int WHEEL_SIZE = 512;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    // Delay before the first refresh, in ticks. Matches the initial delay of previously used per-entity tasks.
+    private static final int INITIAL_DELAY = 10;
+
+    // Responsible for rendering and sending refreshed text to specified viewers.
+    private final @NotNull Refresher refresher;
+
+    // Buckets of the wheel. Only accessed from the thread that advances the wheel.
+    @SuppressWarnings("unchecked")
+    private final List<Entry>[] wheel = new List[WHEEL_SIZE];
+
+    // Stores all scheduled entries, keyed by entity id.
+    private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+
+    // Stores entries that were registered but not yet inserted into the wheel.
+    private final Queue<Entry> pending = new ConcurrentLinkedQueue<>();
+
+    private @Nullable DisplayEntities plugin;
+    private @Nullable RenderWorkers workers;
+    private @Nullable ScheduledTask task;
+
+    // Current tick of the wheel. Written only by the thread that advances the wheel.
+    private volatile long tick = 0L;
+
+    public RefreshScheduler(final @NotNull Refresher refresher) {
+        this.refresher = refresher;
+        for (int i = 0; i < WHEEL_SIZE; i++)
+            wheel[i] = new ArrayList<>();
+    }
+
+    /**
+     * Starts advancing the wheel. Must be called after the plugin is enabled.
+     */
+    public void start(final @NotNull DisplayEntities plugin, final @NotNull RenderWorkers workers) {
+        this.plugin = plugin;
+        this.workers = workers;
+        // Advancing the wheel every tick on the global region. This is the main thread on Paper.
+        this.task = plugin.getServer().getGlobalRegionScheduler().runAtFixedRate(plugin, (it) -> advance(), 1L, 1L);
+    }
+
+    /**
+     * Stops advancing the wheel and forgets all scheduled entries.
+     */
+    public void stop() {
+        if (task != null)
+            task.cancel();
+        entries.clear();
+        pending.clear();
+        // Emptying all buckets, so entries are not dispatched once the wheel is started again.
+        for (final List<Entry> bucket : wheel)
+            bucket.clear();
+    }
+
+    /**
+     * Schedules refreshes of specified entity, every {@code interval} ticks. Returns {@code false} if entity was already scheduled.
+     */
+    public boolean schedule(final @NotNull Entity entity, final int interval) {
+        final Entry entry = new Entry(entity, entity.getEntityId(), Math.max(1, interval));
+        // Skipping entities that are already scheduled.
+        if (entries.putIfAbsent(entry.entityId, entry) != null)
+            return false;
+        pending.add(entry);
+        return true;
+    }
+
+    /**
+     * Stops refreshing entity with specified id. Returns {@code false} if entity was not scheduled.
+     */
+    public boolean unschedule(final int entityId) {
+        final @Nullable Entry entry = entries.get(entityId);
+        // Skipping entities that are not scheduled.
+        if (entry == null)
+            return false;
+        // Retiring the entry. It is dropped from the wheel once it's bucket is reached.
+        retire(entry, "UNSCHEDULED");
+        return true;
+    }
+
+    /**
+     * Returns {@code true} if specified entity is currently scheduled.
+     */
+    public boolean isScheduled(final int entityId) {
+        return entries.containsKey(entityId);
+    }
+
+    /**
+     * Returns current tick of the wheel. Used to identify refresh cycles.
+     */
+    public long currentTick() {
+        return tick;
+    }
+
+    private void advance() {
+        // Inserting newly registered entries. First refresh is spread across the interval, so entities registered at the same time do not all refresh on the same tick.
+        Entry registered;
+        while ((registered = pending.poll()) != null)
+            insert(registered, tick + INITIAL_DELAY + jitter(registered.entityId, registered.interval));
+        // Getting the bucket of the current tick.
+        final List<Entry> bucket = wheel[(int) (tick & WHEEL_MASK)];
+        // Collecting entries that are due. Entries scheduled for one of the next rotations are left in the bucket.
+        final List<Entry> due = new ArrayList<>();
+        final Iterator<Entry> iterator = bucket.iterator();
+        while (iterator.hasNext() == true) {
+            final Entry entry = iterator.next();
+            // Dropping retired entries.
+            if (entry.retired == true) {
+                iterator.remove();
+                continue;
+            }
+            if (entry.dueTick <= tick) {
+                iterator.remove();
+                due.add(entry);
+            }
+        }
+        // Dispatching due entries.
+        if (due.isEmpty() == false)
+            dispatch(due);
+        tick++;
+    }
+
+    private void dispatch(final @NotNull List<Entry> due) {
+        // Folia; each entity must be accessed from it's owning region. Snapshots are captured on entity schedulers, which follow entities across regions,
+        // and joined once all of them are captured, so the whole tick is rendered in a single job on the workers, with a single flush per viewer.
+        if (DisplayEntities.isFolia() == true) {
+            final Queue<Snapshot> snapshots = new ConcurrentLinkedQueue<>();
+            final AtomicInteger remaining = new AtomicInteger(due.size());
+            // Submitting the batch once the last entity task is done, regardless of whether it was run or retired.
+            final Runnable done = () -> {
+                if (remaining.decrementAndGet() == 0)
+                    submit(List.copyOf(snapshots));
+            };
+            for (final Entry entry : due) {
+                insert(entry, tick + entry.interval);
+                final @Nullable ScheduledTask scheduled = entry.entity.getScheduler().run(plugin, (it) -> {
+                    // Retiring the entry if nobody is tracking the entity. Otherwise, capturing the snapshot while still on the owning thread.
+                    if (entry.entity.getTrackedBy().isEmpty() == true)
+                        retire(entry, "SELF");
+                    else snapshots.add(snapshot(entry));
+                    done.run();
+                }, () -> {
+                    retire(entry, "RETIRED");
+                    done.run();
+                });
+                // Retiring the entry if scheduler of the entity was already retired. Neither of the callbacks is called in such case.
+                if (scheduled == null) {
+                    retire(entry, "RETIRED");
+                    done.run();
+                }
+            }
+            return;
+        }
+        // Paper; snapshots are captured on the main thread and all due entities are refreshed in a single job on the workers.
+        final List<Snapshot> snapshots = new ArrayList<>(due.size());
+        for (final Entry entry : due) {
+            // Retiring entries of entities that were removed from the world.
+            if (entry.entity.isValid() == false) {
+                retire(entry, "RETIRED");
+                continue;
+            }
+            // Retiring entries of entities that are not tracked by anyone.
+            if (entry.entity.getTrackedBy().isEmpty() == true) {
+                retire(entry, "SELF");
+                continue;
+            }
+            insert(entry, tick + entry.interval);
+            snapshots.add(snapshot(entry));
+        }
+        submit(snapshots);
+    }
+
+    // Captures text and viewers of specified entry. Must be called from the thread that owns the entity.
+    private @NotNull Snapshot snapshot(final @NotNull Entry entry) {
+        // Compiling the text while still on the owning thread, so workers never have to access data container of the entity.
+        plugin.textCache().get(entry.entity);
+        // Capturing positions of viewers. Entity is tracked only by players in it's own region, so they can be read here as well.
+        final List<ViewerSnapshot> viewers = new ArrayList<>();
+        for (final Player viewer : entry.entity.getTrackedBy())
+            viewers.add(ViewerSnapshot.of(viewer));
+        return new Snapshot(entry.entity, viewers);
+    }
+
+    private void submit(final @NotNull List<Snapshot> snapshots) {
+        // Skipping if there is nothing to refresh.
+        if (snapshots.isEmpty() == true)
+            return;
+        workers.submit(() -> {
+            // Queuing packets of all due entities, so each viewer is flushed only once per cycle.
+            final PacketBatch packets = new PacketBatch(plugin.configuration().bundleRefreshPackets());
+            for (final Snapshot snapshot : snapshots)
+                refresher.refresh(snapshot.entity(), snapshot.viewers(), packets);
+            packets.flush();
+        });
+    }
+
+    private void insert(final @NotNull Entry entry, final long dueTick) {
+        entry.dueTick = dueTick;
+        wheel[(int) (dueTick & WHEEL_MASK)].add(entry);
+    }
+
+    private void retire(final @NotNull Entry entry, final @NotNull String cause) {
+        entry.retired = true;
+        // Removing the entry, so the entity can be scheduled again once it starts being tracked.
+        entries.remove(entry.entityId, entry);
+        // Logging debug information to the console.
+        plugin.debug("[E:" + entry.entityId + "] Unscheduling the placeholders refresh... [C:" + cause + "]");
+    }
+
+    // Spreads the first refresh of entities across their refresh interval, based on the entity id.
+    private static int jitter(final int entityId, final int interval) {
+        return Math.floorMod(entityId * 0x9E3779B9, interval);
+    }
+
+    private static final class Entry {
+
+        private final @NotNull Entity entity;
+        private final int entityId;
+        private final int interval;
+
+        private long dueTick;
+        private volatile boolean retired;
+
+        private Entry(final @NotNull Entity entity, final int entityId, final int interval) {
+            this.entity = entity;
+            this.entityId = entityId;
+            this.interval = interval;
+        }
+
+    }
+
+    // Entity that is due, along with viewers captured on the thread that owns it.
+    private record Snapshot(@NotNull Entity entity, @NotNull List<ViewerSnapshot> viewers) {}
+
+    /**
+     * Responsible for rendering refreshed text of specified entity and queuing it to be sent to specified viewers.
+     */
+    @FunctionalInterface
+    public interface Refresher {
+
+        void refresh(final @NotNull Entity entity, final @NotNull Collection<ViewerSnapshot> viewers, final @NotNull PacketBatch packets);
+
+    }
+
+}
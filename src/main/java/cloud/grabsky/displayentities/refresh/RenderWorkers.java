@@ -0,0 +1,78 @@
+/*
+ * DisplayEntities (https://github.com/Grabsky/DisplayEntities)
+ *
+ * MIT License
+ *
+ * Copyright (c) 2026 Grabsky (michal.czopek.foss@proton.me)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cloud.grabsky.displayentities.refresh;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Dedicated pool of threads rendering text of text displays. Keeps slow placeholder expansions away from network
+ * threads, as well as from the shared asynchronous scheduler of the server.
+ */
+public final class RenderWorkers {
+
+    private @Nullable ExecutorService executor;
+
+    /**
+     * Starts specified number of worker threads.
+     */
+    public void start(final int threads) {
+        final AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), (runnable) -> {
+            final Thread thread = new Thread(runnable, "DisplayEntities Render Worker #" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Stops all worker threads. Tasks that have not been started yet are discarded.
+     */
+    public void stop() {
+        if (executor != null)
+            executor.shutdownNow();
+    }
+
+    /**
+     * Submits specified task to be executed by one of the worker threads. Nothing happens if workers are not running.
+     */
+    public void submit(final @NotNull Runnable task) {
+        final @Nullable ExecutorService executor = this.executor;
+        if (executor == null)
+            return;
+        try {
+            executor.execute(task);
+        } catch (final RejectedExecutionException e) {
+            // Workers have been stopped. Ignoring.
+        }
+    }
+
+}
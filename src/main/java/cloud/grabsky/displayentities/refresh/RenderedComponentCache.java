@@ -0,0 +1,79 @@
+/*
+ * DisplayEntities (https://github.com/Grabsky/DisplayEntities)
+ *
+ * MIT License
+ *
+ * Copyright (c) 2026 Grabsky (michal.czopek.foss@proton.me)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cloud.grabsky.displayentities.refresh;
+
+import cloud.grabsky.displayentities.text.DisplayText;
+import net.kyori.adventure.text.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Stores the most recently rendered text component of each text display entity, for each viewer. Filled by render workers
+ * and read by the packet listener, which this way never has to resolve placeholders on network threads.
+ */
+public final class RenderedComponentCache {
+
+    // Stores rendered components, keyed by the viewer id and entity id pair.
+    private final Map<Long, Rendered> components = new ConcurrentHashMap<>();
+
+    /**
+     * Returns component rendered for specified viewer from specified text, or {@code null} if there is none. Components
+     * rendered from a different text, for example before text contents were modified, are not returned.
+     */
+    public @Nullable Component get(final int viewerId, final int entityId, final @NotNull DisplayText text) {
+        final @Nullable Rendered rendered = components.get(SentComponentTracker.key(viewerId, entityId));
+        return (rendered != null && rendered.text() == text) ? rendered.component() : null;
+    }
+
+    /**
+     * Stores component rendered for specified viewer from specified text.
+     */
+    public void put(final int viewerId, final int entityId, final @NotNull DisplayText text, final @NotNull Component component) {
+        components.put(SentComponentTracker.key(viewerId, entityId), new Rendered(text, component));
+    }
+
+    /**
+     * Forgets component rendered for specified viewer. Should be called once the entity is no longer visible to the viewer.
+     */
+    public void forget(final int viewerId, final int entityId) {
+        components.remove(SentComponentTracker.key(viewerId, entityId));
+    }
+
+    /**
+     * Forgets all components rendered for specified viewer.
+     */
+    public void forgetViewer(final int viewerId) {
+        components.keySet().removeIf(key -> (int) (key >>> 32) == viewerId);
+    }
+
+    // Component along with the text it was rendered from.
+    private record Rendered(@NotNull DisplayText text, @NotNull Component component) {}
+
+}
@@ -0,0 +1,127 @@
+/*
+ * DisplayEntities (https://github.com/Grabsky/DisplayEntities)
+ *
+ * MIT License
+ *
+ * Copyright (c) 2026 Grabsky (michal.czopek.foss@proton.me)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cloud.grabsky.displayentities.refresh;
+
+import net.kyori.adventure.text.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Keeps track of the last text component sent to each viewer of each text display entity.
+ * Used to drop refresh packets which would not change anything on the client.
+ */
+public final class SentComponentTracker {
+
+    // Stores the last component sent along with it's hash, keyed by the viewer id and entity id pair.
+    private final Map<Long, Sent> components = new ConcurrentHashMap<>();
+
+    // Number of refresh packets that were sent.
+    private final LongAdder sent = new LongAdder();
+
+    // Number of refresh packets that were suppressed.
+    private final LongAdder suppressed = new LongAdder();
+
+    /**
+     * Returns {@code true} if specified component differs from the one last sent to the viewer.
+     * Component is then remembered as the last sent one.
+     */
+    public boolean shouldSend(final int viewerId, final int entityId, final @NotNull Component component) {
+        final int hash = component.hashCode();
+        final @Nullable Sent previous = components.put(key(viewerId, entityId), new Sent(component, hash));
+        // Suppressing if the same component was already sent to this viewer.
+        if (previous != null && previous.isSame(component, hash) == true) {
+            suppressed.increment();
+            return false;
+        }
+        sent.increment();
+        return true;
+    }
+
+    /**
+     * Remembers specified component as the last one sent to the viewer. Called for packets that are sent by the server.
+     */
+    public void record(final int viewerId, final int entityId, final @NotNull Component component) {
+        components.put(key(viewerId, entityId), new Sent(component, component.hashCode()));
+    }
+
+    /**
+     * Returns {@code true} if any component has been sent to the viewer since the entity became visible to them.
+     */
+    public boolean contains(final int viewerId, final int entityId) {
+        return components.containsKey(key(viewerId, entityId));
+    }
+
+    /**
+     * Forgets the last component sent to the viewer. Should be called once the entity is no longer visible to the viewer.
+     */
+    public void forget(final int viewerId, final int entityId) {
+        components.remove(key(viewerId, entityId));
+    }
+
+    /**
+     * Forgets all components sent to the viewer.
+     */
+    public void forgetViewer(final int viewerId) {
+        components.keySet().removeIf(key -> (int) (key >>> 32) == viewerId);
+    }
+
+    /**
+     * Returns number of refresh packets that were sent.
+     */
+    public long sent() {
+        return sent.sum();
+    }
+
+    /**
+     * Returns number of refresh packets that were suppressed, because the viewer already had the same text.
+     */
+    public long suppressed() {
+        return suppressed.sum();
+    }
+
+    /**
+     * Packs viewer id and entity id into a single {@code long} value.
+     */
+    public static long key(final int viewerId, final int entityId) {
+        return ((long) viewerId << 32) | (entityId & 0xFFFFFFFFL);
+    }
+
+    // Component sent to the viewer, along with it's hash.
+    private record Sent(@NotNull Component component, int hash) {
+
+        // Returns true if specified component, with specified hash, is equal to this one. Identity is checked first, then hash, and only then the full equality.
+        private boolean isSame(final @NotNull Component other, final int otherHash) {
+            return this.component == other || (this.hash == otherHash && this.component.equals(other) == true);
+        }
+
+    }
+
+}
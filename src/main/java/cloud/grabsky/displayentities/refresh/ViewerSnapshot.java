@@ -0,0 +1,52 @@
+/*
+ * DisplayEntities (https://github.com/Grabsky/DisplayEntities)
+ *
+ * MIT License
+ *
+ * Copyright (c) 2026 Grabsky (michal.czopek.foss@proton.me)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cloud.grabsky.displayentities.refresh;
+
+import org.bukkit.entity.Player;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Position and rotation of a viewer, captured on the thread that owns it, so it can be safely read from any other thread.
+ *
+ * @param player Viewer this snapshot was captured from.
+ * @param x X coordinate of the viewer.
+ * @param y Y coordinate of the viewer.
+ * @param z Z coordinate of the viewer.
+ * @param eyeY Y coordinate of viewer's eyes.
+ * @param yaw Yaw rotation of the viewer.
+ * @param pitch Pitch rotation of the viewer.
+ */
+public record ViewerSnapshot(@NotNull Player player, double x, double y, double z, double eyeY, float yaw, float pitch) {
+
+    /**
+     * Captures snapshot of specified viewer. Must be called from the thread that owns the viewer.
+     */
+    public static @NotNull ViewerSnapshot of(final @NotNull Player player) {
+        return new ViewerSnapshot(player, player.getX(), player.getY(), player.getZ(), player.getY() + player.getEyeHeight(), player.getYaw(), player.getPitch());
+    }
+
+}
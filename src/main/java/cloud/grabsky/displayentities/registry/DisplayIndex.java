@@ -0,0 +1,274 @@
+/*
+ * DisplayEntities (https://github.com/Grabsky/DisplayEntities)
+ *
+ * MIT License
+ *
+ * Copyright (c) 2026 Grabsky (michal.czopek.foss@proton.me)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cloud.grabsky.displayentities.registry;
+
+import cloud.grabsky.displayentities.DisplayEntities;
+import org.bukkit.Location;
+import org.bukkit.NamespacedKey;
+import org.bukkit.attribute.Attribute;
+import org.bukkit.attribute.AttributeInstance;
+import org.bukkit.entity.Display;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Interaction;
+import org.bukkit.entity.Mannequin;
+import org.bukkit.entity.TextDisplay;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+import org.joml.Vector3f;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Index of all loaded entities managed by the plugin, by name and by chunk section.
+ * Entries are immutable snapshots, so lookups and range queries can safely be performed from any thread.
+ * Writes are expected to happen only when entities are added, removed, renamed or moved.
+ */
+public final class DisplayIndex {
+
+    /**
+     * Snapshot of an indexed entity. Position, refresh interval and properties are the ones entity had when it was last indexed.
+     */
+    public record Entry(@NotNull String name, @NotNull Entity entity, @NotNull UUID worldId, double x, double y, double z, @Nullable Integer refreshInterval, @NotNull Map<Property, String> properties) {
+
+        /**
+         * Returns snapshot of specified property formatted for use in completions, or {@code null} if entity does not have it.
+         */
+        public @Nullable String property(final @NotNull Property property) {
+            return properties.get(property);
+        }
+
+    }
+
+    /**
+     * Properties of indexed entities, snapshotted so they can be suggested from completion threads. Entities must be
+     * re-indexed whenever any of these is modified.
+     */
+    public enum Property {
+        CLICK_COMMAND, CUSTOM_NAME, DESCRIPTION, SCALE, BLOCK_LIGHT, SKY_LIGHT, VIEW_RANGE, LINE_WIDTH, WIDTH, HEIGHT, TEXT_CONTENTS, LINE_REFRESH_INTERVALS, TRANSLATIONS
+    }
+
+    // Stores entries by unique id of the entity.
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    // Stores entries by name. Lists are never modified after being published.
+    private final Map<String, List<Entry>> names = new ConcurrentHashMap<>();
+
+    // Stores entries by world and chunk section key. Lists are never modified after being published.
+    private final Map<UUID, Map<Long, List<Entry>>> sections = new ConcurrentHashMap<>();
+
+    /**
+     * Returns {@code true} if specified entity can be indexed. This is the case for all supported entities with {@link DisplayEntities.Keys#NAME} set.
+     */
+    public static boolean isIndexable(final @NotNull Entity entity) {
+        return (entity instanceof Display || entity instanceof Interaction || entity instanceof Mannequin) && entity.getPersistentDataContainer().has(DisplayEntities.Keys.NAME, PersistentDataType.STRING) == true;
+    }
+
+    /**
+     * Indexes specified entity at its current location, replacing previous entry of this entity.
+     */
+    public void update(final @NotNull Entity entity) {
+        this.update(entity, entity.getLocation());
+    }
+
+    /**
+     * Indexes specified entity at specified location, replacing previous entry of this entity. Entity is removed from the index if it cannot be indexed.
+     */
+    public synchronized void update(final @NotNull Entity entity, final @NotNull Location location) {
+        // Removing previous entry of this entity.
+        this.remove(entity);
+        // Skipping entities that cannot be indexed.
+        if (isIndexable(entity) == false)
+            return;
+        final String name = entity.getPersistentDataContainer().get(DisplayEntities.Keys.NAME, PersistentDataType.STRING);
+        final @Nullable Integer refreshInterval = entity.getPersistentDataContainer().get(DisplayEntities.Keys.REFRESH_INTERVAL, PersistentDataType.INTEGER);
+        final Entry entry = new Entry(name, entity, location.getWorld().getUID(), location.getX(), location.getY(), location.getZ(), refreshInterval, properties(entity));
+        // Adding entry to all maps.
+        entries.put(entity.getUniqueId(), entry);
+        names.put(name, with(names.get(name), entry));
+        final Map<Long, List<Entry>> worldSections = sections.computeIfAbsent(entry.worldId(), (it) -> new ConcurrentHashMap<>());
+        final long key = key(entry.x(), entry.y(), entry.z());
+        worldSections.put(key, with(worldSections.get(key), entry));
+    }
+
+    /**
+     * Removes specified entity from the index.
+     */
+    public synchronized void remove(final @NotNull Entity entity) {
+        final @Nullable Entry entry = entries.remove(entity.getUniqueId());
+        // Returning if entity was not indexed.
+        if (entry == null)
+            return;
+        // Removing entry from all maps.
+        names.compute(entry.name(), (name, list) -> without(list, entry));
+        sections.get(entry.worldId()).compute(key(entry.x(), entry.y(), entry.z()), (key, list) -> without(list, entry));
+    }
+
+    /**
+     * Returns entry of specified entity, or {@code null} if it is not indexed.
+     */
+    public @Nullable Entry get(final @NotNull Entity entity) {
+        return entries.get(entity.getUniqueId());
+    }
+
+    /**
+     * Returns all entries. Returned collection is a live view.
+     */
+    public @NotNull Collection<Entry> entries() {
+        return Collections.unmodifiableCollection(entries.values());
+    }
+
+    /**
+     * Returns all entries with specified name. In most cases, this is at most one entry.
+     */
+    public @NotNull List<Entry> byName(final @NotNull String name) {
+        return names.getOrDefault(name, List.of());
+    }
+
+    /**
+     * Calls specified consumer for all entries within a box of specified radius around specified position.
+     */
+    public void forEachNearby(final @NotNull UUID worldId, final double x, final double y, final double z, final double radius, final @NotNull Consumer<Entry> consumer) {
+        final @Nullable Map<Long, List<Entry>> worldSections = sections.get(worldId);
+        // Returning if there are no entries in this world.
+        if (worldSections == null || worldSections.isEmpty() == true)
+            return;
+        // Calculating range of chunk sections to look up.
+        final int minX = ((int) Math.floor(x - radius)) >> 4, maxX = ((int) Math.floor(x + radius)) >> 4;
+        final int minY = ((int) Math.floor(y - radius)) >> 4, maxY = ((int) Math.floor(y + radius)) >> 4;
+        final int minZ = ((int) Math.floor(z - radius)) >> 4, maxZ = ((int) Math.floor(z + radius)) >> 4;
+        // Iterating over all chunk sections in the range.
+        for (int sectionX = minX; sectionX <= maxX; sectionX++) {
+            for (int sectionZ = minZ; sectionZ <= maxZ; sectionZ++) {
+                for (int sectionY = minY; sectionY <= maxY; sectionY++) {
+                    final @Nullable List<Entry> list = worldSections.get(key(sectionX, sectionY, sectionZ));
+                    // Skipping empty sections.
+                    if (list == null)
+                        continue;
+                    // Filtering entries that are within the box.
+                    for (final Entry entry : list)
+                        if (Math.abs(entry.x() - x) <= radius && Math.abs(entry.y() - y) <= radius && Math.abs(entry.z() - z) <= radius)
+                            consumer.accept(entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns number of indexed entities.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    // Returns snapshot of all properties of specified entity. Must be called from the thread that owns the entity.
+    private static @NotNull Map<Property, String> properties(final @NotNull Entity entity) {
+        final Map<Property, String> properties = new EnumMap<>(Property.class);
+        final @Nullable String clickCommand = entity.getPersistentDataContainer().get(DisplayEntities.Keys.CLICK_COMMAND, PersistentDataType.STRING);
+        if (clickCommand != null)
+            properties.put(Property.CLICK_COMMAND, clickCommand);
+        // Snapshotting properties specific to display entities.
+        if (entity instanceof Display display) {
+            final Vector3f scale = display.getTransformation().getScale();
+            properties.put(Property.SCALE, String.format("%.2f %.2f %.2f", scale.x, scale.y, scale.z));
+            properties.put(Property.VIEW_RANGE, String.format("%.2f", display.getViewRange()));
+            final @Nullable Display.Brightness brightness = display.getBrightness();
+            if (brightness != null) {
+                properties.put(Property.BLOCK_LIGHT, String.valueOf(brightness.getBlockLight()));
+                properties.put(Property.SKY_LIGHT, String.valueOf(brightness.getSkyLight()));
+            }
+            if (display instanceof TextDisplay text) {
+                properties.put(Property.LINE_WIDTH, String.valueOf(text.getLineWidth()));
+                // Snapshotting raw text contents, refresh intervals of lines and translated locales. Intervals and locales are joined with commas.
+                final @Nullable String contents = entity.getPersistentDataContainer().get(DisplayEntities.Keys.TEXT_CONTENTS, PersistentDataType.STRING);
+                if (contents != null)
+                    properties.put(Property.TEXT_CONTENTS, contents);
+                final int[] intervals = entity.getPersistentDataContainer().get(DisplayEntities.Keys.LINE_REFRESH_INTERVALS, PersistentDataType.INTEGER_ARRAY);
+                if (intervals != null)
+                    properties.put(Property.LINE_REFRESH_INTERVALS, Arrays.stream(intervals).mapToObj(String::valueOf).collect(Collectors.joining(",")));
+                final @Nullable PersistentDataContainer translations = entity.getPersistentDataContainer().get(DisplayEntities.Keys.TEXT_TRANSLATIONS, PersistentDataType.TAG_CONTAINER);
+                if (translations != null && translations.isEmpty() == false)
+                    properties.put(Property.TRANSLATIONS, translations.getKeys().stream().map(NamespacedKey::getKey).collect(Collectors.joining(",")));
+            }
+        }
+        // Snapshotting properties specific to interaction entities.
+        else if (entity instanceof Interaction interaction) {
+            properties.put(Property.WIDTH, String.valueOf(interaction.getInteractionWidth()));
+            properties.put(Property.HEIGHT, String.valueOf(interaction.getInteractionHeight()));
+        }
+        // Snapshotting properties specific to mannequin entities.
+        else if (entity instanceof Mannequin mannequin) {
+            final @Nullable String customName = entity.getPersistentDataContainer().get(DisplayEntities.Keys.MANNEQUIN_CUSTOM_NAME, PersistentDataType.STRING);
+            if (customName != null)
+                properties.put(Property.CUSTOM_NAME, customName);
+            final @Nullable String description = entity.getPersistentDataContainer().get(DisplayEntities.Keys.MANNEQUIN_DESCRIPTION, PersistentDataType.STRING);
+            if (description != null)
+                properties.put(Property.DESCRIPTION, description);
+            final @Nullable AttributeInstance scale = mannequin.getAttribute(Attribute.SCALE);
+            if (scale != null)
+                properties.put(Property.SCALE, String.format("%.2f", scale.getBaseValue()));
+        }
+        return Collections.unmodifiableMap(properties);
+    }
+
+    // Returns a copy of specified list with specified entry added.
+    private static @NotNull List<Entry> with(final @Nullable List<Entry> list, final @NotNull Entry entry) {
+        final List<Entry> copy = (list != null) ? new ArrayList<>(list) : new ArrayList<>(1);
+        copy.add(entry);
+        return List.copyOf(copy);
+    }
+
+    // Returns a copy of specified list with specified entry removed, or null if the list would be empty.
+    private static @Nullable List<Entry> without(final @Nullable List<Entry> list, final @NotNull Entry entry) {
+        if (list == null)
+            return null;
+        final List<Entry> copy = new ArrayList<>(list);
+        copy.remove(entry);
+        return (copy.isEmpty() == false) ? List.copyOf(copy) : null;
+    }
+
+    private static long key(final double x, final double y, final double z) {
+        return key(((int) Math.floor(x)) >> 4, ((int) Math.floor(y)) >> 4, ((int) Math.floor(z)) >> 4);
+    }
+
+    // Packs chunk section coordinates into a single long. Same layout as used by the server.
+    private static long key(final int sectionX, final int sectionY, final int sectionZ) {
+        return ((long) sectionX & 0x3FFFFFL) << 42 | ((long) sectionY & 0xFFFFFL) | ((long) sectionZ & 0x3FFFFFL) << 20;
+    }
+
+}
@@ -0,0 +1,151 @@
+/*
+ * DisplayEntities (https://github.com/Grabsky/DisplayEntities)
+ *
+ * MIT License
+ *
+ * Copyright (c) 2026 Grabsky (michal.czopek.foss@proton.me)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cloud.grabsky.displayentities.registry;
+
+import cloud.grabsky.displayentities.DisplayEntities;
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.ints.Int2ByteLinkedOpenHashMap;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Mannequin;
+import org.bukkit.entity.TextDisplay;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Bounded cache of entity classifications, keyed by entity id. Used by the packet listener to
+ * quickly skip entities that are not handled by the plugin, without looking them up in the world.
+ * Cache is split into segments, each guarded by it's own lock, so packets sent from different threads rarely contend.
+ * Least recently used entries of each segment are evicted once the segment is full.
+ */
+public final class EntityClassificationCache {
+
+    // Value returned by the underlying maps for missing keys.
+    private static final byte ABSENT = -1;
+
+    // Number of segments. Must be a power of two.
+    private static final int SEGMENTS = 16;
+    private static final int SEGMENT_MASK = SEGMENTS - 1;
+
+    // Maximum number of entries in each segment.
+    private final int segmentSize;
+
+    // Each segment is guarded by itself.
+    private final Int2ByteLinkedOpenHashMap[] segments = new Int2ByteLinkedOpenHashMap[SEGMENTS];
+
+    public EntityClassificationCache(final int maximumSize) {
+        this.segmentSize = Math.max(1, maximumSize / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Int2ByteLinkedOpenHashMap(Math.min(segmentSize, 1024));
+            segments[i].defaultReturnValue(ABSENT);
+        }
+    }
+
+    /**
+     * Returns cached classification of entity with specified id, or {@code null} if not cached.
+     */
+    public @Nullable Classification get(final int entityId) {
+        final Int2ByteLinkedOpenHashMap segment = segment(entityId);
+        final byte value;
+        synchronized (segment) {
+            value = segment.getAndMoveToLast(entityId);
+        }
+        return (value != ABSENT) ? Classification.VALUES[value] : null;
+    }
+
+    /**
+     * Classifies specified entity and stores the result.
+     */
+    public @NotNull Classification classify(final @NotNull Entity entity) {
+        final Classification classification = Classification.of(entity);
+        put(entity.getEntityId(), classification);
+        return classification;
+    }
+
+    /**
+     * Stores classification of entity with specified id.
+     */
+    public void put(final int entityId, final @NotNull Classification classification) {
+        final Int2ByteLinkedOpenHashMap segment = segment(entityId);
+        synchronized (segment) {
+            segment.putAndMoveToLast(entityId, (byte) classification.ordinal());
+            // Evicting least recently used entries of the segment.
+            while (segment.size() > segmentSize)
+                segment.removeFirstByte();
+        }
+    }
+
+    /**
+     * Removes classification of entity with specified id.
+     */
+    public void invalidate(final int entityId) {
+        final Int2ByteLinkedOpenHashMap segment = segment(entityId);
+        synchronized (segment) {
+            segment.remove(entityId);
+        }
+    }
+
+    /**
+     * Returns number of cached classifications.
+     */
+    public int size() {
+        int size = 0;
+        for (final Int2ByteLinkedOpenHashMap segment : segments)
+            synchronized (segment) {
+                size += segment.size();
+            }
+        return size;
+    }
+
+    // Returns segment responsible for entity with specified id. Ids are mixed, as consecutive ids would otherwise land in consecutive segments.
+    private @NotNull Int2ByteLinkedOpenHashMap segment(final int entityId) {
+        return segments[HashCommon.mix(entityId) & SEGMENT_MASK];
+    }
+
+    public enum Classification {
+        /** Entity is not created or handled by the plugin. */
+        NOT_HANDLED,
+        /** Text display entity with contents managed by the plugin. */
+        TEXT_DISPLAY,
+        /** Mannequin entity created by the plugin. */
+        MANNEQUIN;
+
+        private static final Classification[] VALUES = values();
+
+        /**
+         * Returns classification of specified entity.
+         */
+        public static @NotNull Classification of(final @NotNull Entity entity) {
+            if (entity instanceof TextDisplay && entity.getPersistentDataContainer().has(DisplayEntities.Keys.TEXT_CONTENTS) == true)
+                return TEXT_DISPLAY;
+            else if (entity instanceof Mannequin && entity.getPersistentDataContainer().has(DisplayEntities.Keys.NAME) == true)
+                return MANNEQUIN;
+            return NOT_HANDLED;
+        }
+
+    }
+
+}
@@ -0,0 +1,191 @@
+/*
+ * DisplayEntities (https://github.com/Grabsky/DisplayEntities)
+ *
+ * MIT License
+ *
+ * Copyright (c) 2026 Grabsky (michal.czopek.foss@proton.me)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cloud.grabsky.displayentities.registry;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Persistent registry of names of all entities managed by the plugin, including these in unloaded chunks.
+ * Each name points to the world, chunk and unique id of the entity, so it can be found without loading any chunks.
+ */
+public final class NameRegistry {
+
+    /**
+     * Last known position of a named entity.
+     */
+    public record Entry(@NotNull String name, @NotNull UUID worldId, int chunkX, int chunkZ, @NotNull UUID entityId) {}
+
+    // Identifies a single chunk of a single world.
+    private record ChunkId(@NotNull UUID worldId, int chunkX, int chunkZ) {}
+
+    private final @NotNull File file;
+
+    // Stores entries by name.
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // Stores names of entries by chunk they are in. Used to reconcile entries when chunks are loaded.
+    private final Map<ChunkId, Set<String>> chunks = new ConcurrentHashMap<>();
+
+    // Whether registry has been modified since it was last saved.
+    private volatile boolean isDirty = false;
+
+    public NameRegistry(final @NotNull File file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns entry with specified name, or {@code null} if no entity has this name.
+     */
+    public @Nullable Entry get(final @NotNull String name) {
+        return entries.get(name);
+    }
+
+    /**
+     * Returns {@code true} if any entity, loaded or not, has specified name.
+     */
+    public boolean contains(final @NotNull String name) {
+        return entries.containsKey(name);
+    }
+
+    /**
+     * Registers specified entity with specified name at specified location, replacing previous entry with this name.
+     */
+    public synchronized void put(final @NotNull String name, final @NotNull Entity entity, final @NotNull Location location) {
+        final Entry entry = new Entry(name, location.getWorld().getUID(), location.getBlockX() >> 4, location.getBlockZ() >> 4, entity.getUniqueId());
+        // Skipping if nothing has changed.
+        if (entry.equals(entries.get(name)) == true)
+            return;
+        this.unlink(entries.put(name, entry));
+        chunks.computeIfAbsent(new ChunkId(entry.worldId(), entry.chunkX(), entry.chunkZ()), (it) -> ConcurrentHashMap.newKeySet()).add(name);
+        isDirty = true;
+    }
+
+    /**
+     * Removes entry with specified name, but only if it belongs to specified entity.
+     */
+    public synchronized void remove(final @NotNull String name, final @NotNull UUID entityId) {
+        final @Nullable Entry entry = entries.get(name);
+        // Skipping if entry does not exist or belongs to another entity.
+        if (entry == null || entry.entityId().equals(entityId) == false)
+            return;
+        entries.remove(name);
+        this.unlink(entry);
+        isDirty = true;
+    }
+
+    /**
+     * Removes entries pointing to specified chunk that do not belong to any of specified entities.
+     * Called when entities of a chunk are loaded, to forget entities that no longer exist.
+     */
+    public synchronized void reconcile(final @NotNull UUID worldId, final int chunkX, final int chunkZ, final @NotNull Collection<UUID> entityIds) {
+        final @Nullable Set<String> names = chunks.get(new ChunkId(worldId, chunkX, chunkZ));
+        // Skipping chunks without any entries.
+        if (names == null)
+            return;
+        for (final String name : List.copyOf(names)) {
+            final Entry entry = entries.get(name);
+            if (entityIds.contains(entry.entityId()) == false)
+                this.remove(name, entry.entityId());
+        }
+    }
+
+    /**
+     * Loads all entries from the file. Previously loaded entries are discarded.
+     */
+    public synchronized void load() throws IOException {
+        entries.clear();
+        chunks.clear();
+        // Skipping if nothing has been saved yet.
+        if (file.exists() == false)
+            return;
+        // Each line contains name, world id, chunk coordinates and entity id, separated by a space.
+        for (final String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            final String[] parts = line.split(" ");
+            // Skipping malformed lines.
+            if (parts.length != 5)
+                continue;
+            final Entry entry = new Entry(parts[0], UUID.fromString(parts[1]), Integer.parseInt(parts[2]), Integer.parseInt(parts[3]), UUID.fromString(parts[4]));
+            entries.put(entry.name(), entry);
+            chunks.computeIfAbsent(new ChunkId(entry.worldId(), entry.chunkX(), entry.chunkZ()), (it) -> ConcurrentHashMap.newKeySet()).add(entry.name());
+        }
+        isDirty = false;
+    }
+
+    /**
+     * Saves all entries to the file, unless nothing has changed since the last save.
+     */
+    public void save() throws IOException {
+        final List<String> lines;
+        // Copying entries while holding the lock. Writing to the file happens outside of it.
+        synchronized (this) {
+            if (isDirty == false)
+                return;
+            lines = new ArrayList<>(entries.size());
+            for (final Entry entry : entries.values())
+                lines.add(entry.name() + " " + entry.worldId() + " " + entry.chunkX() + " " + entry.chunkZ() + " " + entry.entityId());
+            isDirty = false;
+        }
+        // Creating directories if they don't exist.
+        file.getParentFile().mkdirs();
+        // Writing all lines to the file.
+        Files.write(file.toPath(), lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * Returns number of registered names.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    // Removes specified entry from the chunk index.
+    private void unlink(final @Nullable Entry entry) {
+        if (entry == null)
+            return;
+        final ChunkId id = new ChunkId(entry.worldId(), entry.chunkX(), entry.chunkZ());
+        final @Nullable Set<String> names = chunks.get(id);
+        if (names != null && names.remove(entry.name()) == true && names.isEmpty() == true)
+            chunks.remove(id);
+    }
+
+}
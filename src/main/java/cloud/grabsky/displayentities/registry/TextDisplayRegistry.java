@@ -0,0 +1,84 @@
+/*
+ * DisplayEntities (https://github.com/Grabsky/DisplayEntities)
+ *
+ * MIT License
+ *
+ * Copyright (c) 2026 Grabsky (michal.czopek.foss@proton.me)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cloud.grabsky.displayentities.registry;
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+
+/**
+ * Registry of ids of text display entities managed by the plugin.
+ * Backed by a copy-on-write primitive set, so lookups are lock-free and never box the id.
+ * Lookups happen for every entity metadata packet sent to every player, while writes happen only when a text display is loaded or removed.
+ */
+public final class TextDisplayRegistry {
+
+    // Never modified after being published. Replaced with a modified copy while holding the lock.
+    private volatile IntOpenHashSet ids = new IntOpenHashSet();
+
+    /**
+     * Returns {@code true} if entity with specified id is a text display managed by the plugin.
+     */
+    public boolean contains(final int entityId) {
+        return ids.contains(entityId);
+    }
+
+    /**
+     * Adds entity with specified id to the registry.
+     */
+    public void add(final int entityId) {
+        // Skipping the copy if entity is already registered. Spawn packets register the same entity many times.
+        if (ids.contains(entityId) == true)
+            return;
+        synchronized (this) {
+            final IntOpenHashSet copy = new IntOpenHashSet(ids);
+            // Publishing the copy only if it was modified, as entity could be registered in the meantime.
+            if (copy.add(entityId) == true)
+                this.ids = copy;
+        }
+    }
+
+    /**
+     * Removes entity with specified id from the registry.
+     */
+    public void remove(final int entityId) {
+        // Skipping the copy if entity is not registered.
+        if (ids.contains(entityId) == false)
+            return;
+        synchronized (this) {
+            final IntOpenHashSet copy = new IntOpenHashSet(ids);
+            // Publishing the copy only if it was modified, as entity could be removed in the meantime.
+            if (copy.remove(entityId) == true)
+                this.ids = copy;
+        }
+    }
+
+    /**
+     * Returns number of registered entities.
+     */
+    public int size() {
+        return ids.size();
+    }
+
+}
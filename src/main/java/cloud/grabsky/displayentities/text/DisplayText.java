@@ -0,0 +1,288 @@
+/*
+ * DisplayEntities (https://github.com/Grabsky/DisplayEntities)
+ *
+ * MIT License
+ *
+ * Copyright (c) 2026 Grabsky (michal.czopek.foss@proton.me)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cloud.grabsky.displayentities.text;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.JoinConfiguration;
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Compiled text of a text display entity, made of one {@link TextTemplate} per line. Each line has its own refresh interval,
+ * so refreshing the text only resolves placeholders of lines that are due and re-uses components previously rendered for the rest.
+ * Text can have per-locale variants, each compiled separately, so viewers sharing a locale share rendered components.
+ */
+public final class DisplayText {
+
+    // Templates of all lines, in order.
+    private final @NotNull TextTemplate[] templates;
+
+    // Refresh intervals of all lines. See TextLines#DEFAULT_INTERVAL and TextLines#STATIC.
+    private final int[] intervals;
+
+    // Whether at least one of the lines has placeholders that need to be refreshed.
+    private final boolean isRefreshed;
+
+    // Compiled per-locale variants of this text, keyed by lower-cased locale or language. Empty for variants themselves.
+    private final @NotNull Map<String, DisplayText> variants;
+
+    // Components most recently rendered for each viewer, keyed by viewer's entity id.
+    private final Map<Integer, ViewerState> viewers = new ConcurrentHashMap<>();
+
+    // Most recently composed text, along with components it was composed from. Shared by all viewers that rendered the same components.
+    private volatile @Nullable Composed composed;
+
+    private DisplayText(final @NotNull TextTemplate[] templates, final int[] intervals, final @NotNull Map<String, DisplayText> variants) {
+        this.templates = templates;
+        this.intervals = intervals;
+        this.variants = variants;
+        boolean isRefreshed = false;
+        for (int i = 0; i < templates.length; i++)
+            if (templates[i].hasSlots() == true && intervals[i] != TextLines.STATIC)
+                isRefreshed = true;
+        // Text must be refreshed also when any of its variants needs to be.
+        for (final DisplayText variant : variants.values())
+            if (variant.isRefreshed() == true)
+                isRefreshed = true;
+        this.isRefreshed = isRefreshed;
+    }
+
+    /**
+     * Compiles each of specified lines into a separate template.
+     */
+    public static @NotNull DisplayText compile(final @NotNull TextLines lines, final @NotNull PlaceholderClassifier classifier) {
+        return compile(lines, Map.of(), classifier);
+    }
+
+    /**
+     * Compiles each of specified lines into a separate template, along with specified per-locale variants, keyed by lower-cased locale or language.
+     */
+    public static @NotNull DisplayText compile(final @NotNull TextLines lines, final @NotNull Map<String, TextLines> translations, final @NotNull PlaceholderClassifier classifier) {
+        final List<TextLines.Line> list = lines.lines();
+        final TextTemplate[] templates;
+        final int[] intervals;
+        // Compiling spanning text as a whole, as its lines render differently on their own.
+        if (lines.isSpanning() == true) {
+            templates = new TextTemplate[] { TextTemplate.compile(lines.source(), classifier) };
+            intervals = new int[] { interval(list, classifier) };
+        } else {
+            templates = new TextTemplate[list.size()];
+            intervals = new int[list.size()];
+            // Compiling each line along with tags carried over from previous lines.
+            for (int i = 0; i < templates.length; i++) {
+                templates[i] = TextTemplate.compile(list.get(i).contents(), classifier);
+                intervals[i] = list.get(i).interval();
+            }
+        }
+        // Compiling all variants.
+        final Map<String, DisplayText> variants = new HashMap<>(translations.size());
+        translations.forEach((locale, translation) -> variants.put(locale, compile(translation, classifier)));
+        return new DisplayText(templates, intervals, variants);
+    }
+
+    /**
+     * Returns variant of this text for specified locale. Variant of the language is used when there is none for the exact locale.
+     * Returns this text if there is no matching variant.
+     */
+    public @NotNull DisplayText variant(final @NotNull Locale locale) {
+        // Skipping the lookup for texts without any variants. This is the most common case.
+        if (variants.isEmpty() == true)
+            return this;
+        final @Nullable DisplayText exact = variants.get(locale.toString().toLowerCase(Locale.ROOT));
+        if (exact != null)
+            return exact;
+        return variants.getOrDefault(locale.getLanguage().toLowerCase(Locale.ROOT), this);
+    }
+
+    /**
+     * Returns {@code true} if this text has at least one per-locale variant.
+     */
+    public boolean isTranslated() {
+        return variants.isEmpty() == false;
+    }
+
+    /**
+     * Returns {@code true} if any of the lines contains placeholder slots.
+     */
+    public boolean hasSlots() {
+        return Arrays.stream(templates).anyMatch(TextTemplate::hasSlots);
+    }
+
+    /**
+     * Returns {@code true} if any of the lines has placeholders that must be periodically refreshed.
+     */
+    public boolean isRefreshed() {
+        return isRefreshed;
+    }
+
+    /**
+     * Returns interval, in ticks, at which this text must be refreshed. This is the shortest interval of all refreshed lines, including lines of all variants.
+     * Lines using {@link TextLines#DEFAULT_INTERVAL} are refreshed every {@code defaultInterval} ticks.
+     */
+    public int refreshInterval(final int defaultInterval) {
+        int result = Integer.MAX_VALUE;
+        for (int i = 0; i < templates.length; i++)
+            if (templates[i].hasSlots() == true && intervals[i] != TextLines.STATIC)
+                result = Math.min(result, (intervals[i] == TextLines.DEFAULT_INTERVAL) ? defaultInterval : intervals[i]);
+        for (final DisplayText variant : variants.values())
+            if (variant.isRefreshed() == true)
+                result = Math.min(result, variant.refreshInterval(defaultInterval));
+        return (result == Integer.MAX_VALUE) ? defaultInterval : result;
+    }
+
+    /**
+     * Returns text with all placeholders left out. Cheap to use as a stand-in until the text is fully rendered.
+     */
+    public @NotNull Component preview() {
+        final Component[] components = new Component[templates.length];
+        for (int i = 0; i < templates.length; i++)
+            components[i] = templates[i].preview();
+        return compose(components);
+    }
+
+    /**
+     * Renders all lines for specified viewer. Global slots are resolved only once for each distinct {@code cycle} value.
+     */
+    public @NotNull Component render(final @Nullable Player viewer, final long cycle) {
+        return compose(this.renderAll(viewer, cycle));
+    }
+
+    /**
+     * Renders text for specified viewer, resolving only lines that are due at specified {@code cycle}. Remaining lines are
+     * re-used from previous render for the same viewer. Lines using {@link TextLines#DEFAULT_INTERVAL} are due every {@code defaultInterval} ticks.
+     * Intervals of all lines are multiplied by {@code divisor}, which lowers the refresh rate for viewers that are far away.
+     * Text is expected to be refreshed every {@code cadence} ticks, which is the {@link #refreshInterval} of the text that was scheduled.
+     */
+    public @NotNull Component refresh(final @NotNull Player viewer, final long cycle, final int defaultInterval, final int cadence, final int divisor) {
+        final @Nullable ViewerState state = viewers.get(viewer.getEntityId());
+        // Rendering everything if nothing has been refreshed for this viewer yet.
+        if (state == null) {
+            final Component[] components = this.renderAll(viewer, cycle);
+            final Component composed = compose(components);
+            viewers.put(viewer.getEntityId(), new ViewerState(components, filled(templates.length, cycle), composed));
+            return composed;
+        }
+        // Copying previous components, so state is never seen half-updated by concurrent readers.
+        final Component[] components = state.components().clone();
+        final long[] renderedAt = state.renderedAt().clone();
+        boolean isChanged = false;
+        for (int i = 0; i < templates.length; i++) {
+            // Skipping lines without placeholders and lines that are never refreshed.
+            if (templates[i].hasSlots() == false || intervals[i] == TextLines.STATIC)
+                continue;
+            final long interval = (long) ((intervals[i] == TextLines.DEFAULT_INTERVAL) ? defaultInterval : intervals[i]) * Math.max(1, divisor);
+            // Skipping lines that are not due yet. Line is due once waiting for the next refresh would exceed it's interval.
+            if (cycle - renderedAt[i] < interval - cadence + 1)
+                continue;
+            components[i] = templates[i].render(viewer, cycle);
+            renderedAt[i] = cycle;
+            isChanged = true;
+        }
+        // Returning previously composed text if none of the lines were due.
+        if (isChanged == false)
+            return state.composed();
+        final Component composed = compose(components);
+        viewers.put(viewer.getEntityId(), new ViewerState(components, renderedAt, composed));
+        return composed;
+    }
+
+    /**
+     * Forgets components rendered for specified viewer, including components rendered by all variants.
+     */
+    public void forget(final int viewerId) {
+        viewers.remove(viewerId);
+        for (final DisplayText variant : variants.values())
+            variant.forget(viewerId);
+    }
+
+    private @NotNull Component[] renderAll(final @Nullable Player viewer, final long cycle) {
+        final Component[] components = new Component[templates.length];
+        for (int i = 0; i < templates.length; i++)
+            components[i] = templates[i].render(viewer, cycle);
+        return components;
+    }
+
+    private @NotNull Component compose(final @NotNull Component[] components) {
+        if (components.length == 1)
+            return components[0];
+        final @Nullable Composed previous = this.composed;
+        // Re-using text composed earlier from the same components. Shared lines render to the same instances, so this is the case for all viewers that see the same text.
+        if (previous != null && isSame(previous.components(), components) == true)
+            return previous.component();
+        // Composing and remembering the text. Concurrent renders may compose it twice, which is harmless.
+        final Component component = Component.join(JoinConfiguration.newlines(), components);
+        this.composed = new Composed(components, component);
+        return component;
+    }
+
+    // Returns true if both arrays contain exactly the same component instances.
+    private static boolean isSame(final @NotNull Component[] first, final @NotNull Component[] second) {
+        if (first.length != second.length)
+            return false;
+        for (int i = 0; i < first.length; i++)
+            if (first[i] != second[i])
+                return false;
+        return true;
+    }
+
+    // Returns refresh interval of text made of specified lines, compiled as a whole. Shortest custom interval of lines with placeholders is used,
+    // unless any of them uses the default interval. Text is static only if all lines with placeholders are.
+    private static int interval(final @NotNull List<TextLines.Line> lines, final @NotNull PlaceholderClassifier classifier) {
+        int result = Integer.MAX_VALUE;
+        for (final TextLines.Line line : lines) {
+            // Skipping lines without placeholders and lines that are never refreshed.
+            if (line.interval() == TextLines.STATIC || TextTemplate.compile(line.contents(), classifier).hasSlots() == false)
+                continue;
+            if (line.interval() == TextLines.DEFAULT_INTERVAL)
+                return TextLines.DEFAULT_INTERVAL;
+            result = Math.min(result, line.interval());
+        }
+        // Returning STATIC if no line needs to be refreshed. Text without placeholders is never refreshed anyway.
+        return (result == Integer.MAX_VALUE) ? TextLines.STATIC : result;
+    }
+
+    private static long[] filled(final int length, final long value) {
+        final long[] array = new long[length];
+        Arrays.fill(array, value);
+        return array;
+    }
+
+    // Components most recently rendered for a single viewer, along with the cycle each line was rendered at and all lines composed together.
+    private record ViewerState(@NotNull Component[] components, long[] renderedAt, @NotNull Component composed) {}
+
+    // Text composed from specific components.
+    private record Composed(@NotNull Component[] components, @NotNull Component component) {}
+
+}
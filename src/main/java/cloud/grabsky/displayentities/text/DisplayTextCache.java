@@ -0,0 +1,186 @@
+/*
+ * DisplayEntities (https://github.com/Grabsky/DisplayEntities)
+ *
+ * MIT License
+ *
+ * Copyright (c) 2026 Grabsky (michal.czopek.foss@proton.me)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cloud.grabsky.displayentities.text;
+
+import cloud.grabsky.displayentities.DisplayEntities;
+import org.bukkit.NamespacedKey;
+import org.bukkit.entity.Entity;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Stores {@link DisplayText compiled text}, parsed {@link TextLines lines} and per-locale translations of text display entities, keyed by entity id.
+ * Entries must be invalidated whenever text contents of the entity are modified.
+ */
+public final class DisplayTextCache {
+
+    private final Map<Integer, DisplayText> texts = new ConcurrentHashMap<>();
+
+    private final Map<Integer, TextLines> lines = new ConcurrentHashMap<>();
+
+    private final Map<Integer, Map<String, TextLines>> translations = new ConcurrentHashMap<>();
+
+    // Used to classify placeholders of newly compiled texts.
+    private volatile @NotNull PlaceholderClassifier classifier = PlaceholderClassifier.EMPTY;
+
+    /**
+     * Returns compiled text of specified entity. Text is compiled from {@link #lines(Entity) lines} and {@link #translations(Entity) translations} of the entity if not cached yet.
+     */
+    public @NotNull DisplayText get(final @NotNull Entity entity) {
+        final @Nullable DisplayText text = texts.get(entity.getEntityId());
+        // Returning cached text if present.
+        if (text != null)
+            return text;
+        // Compiling and caching the text.
+        final DisplayText compiled = DisplayText.compile(this.lines(entity), this.translations(entity), classifier);
+        texts.put(entity.getEntityId(), compiled);
+        return compiled;
+    }
+
+    /**
+     * Returns parsed lines of specified entity. Lines are parsed from the {@link DisplayEntities.Keys#TEXT_CONTENTS} if not cached yet.
+     */
+    public @NotNull TextLines lines(final @NotNull Entity entity) {
+        final @Nullable TextLines cached = lines.get(entity.getEntityId());
+        // Returning cached lines if present.
+        if (cached != null)
+            return cached;
+        // Getting the text contents and line refresh intervals stored inside PDC.
+        final String text = entity.getPersistentDataContainer().getOrDefault(DisplayEntities.Keys.TEXT_CONTENTS, PersistentDataType.STRING, "");
+        final int[] intervals = entity.getPersistentDataContainer().get(DisplayEntities.Keys.LINE_REFRESH_INTERVALS, PersistentDataType.INTEGER_ARRAY);
+        // Parsing and caching the lines.
+        final TextLines parsed = TextLines.parse(text, intervals);
+        lines.put(entity.getEntityId(), parsed);
+        return parsed;
+    }
+
+    /**
+     * Returns parsed per-locale translations of specified entity, keyed by lower-cased locale or language. Translations are parsed from
+     * the {@link DisplayEntities.Keys#TEXT_TRANSLATIONS} if not cached yet. Lines of translations share refresh intervals with lines of the entity.
+     */
+    public @NotNull Map<String, TextLines> translations(final @NotNull Entity entity) {
+        final @Nullable Map<String, TextLines> cached = translations.get(entity.getEntityId());
+        // Returning cached translations if present.
+        if (cached != null)
+            return cached;
+        // Getting the container of translations stored inside PDC. Entities without translations have no container at all.
+        final @Nullable PersistentDataContainer container = entity.getPersistentDataContainer().get(DisplayEntities.Keys.TEXT_TRANSLATIONS, PersistentDataType.TAG_CONTAINER);
+        final int[] intervals = entity.getPersistentDataContainer().get(DisplayEntities.Keys.LINE_REFRESH_INTERVALS, PersistentDataType.INTEGER_ARRAY);
+        // Parsing and caching the translations.
+        final Map<String, TextLines> parsed = new HashMap<>();
+        if (container != null)
+            for (final NamespacedKey key : container.getKeys())
+                parsed.put(key.getKey(), TextLines.parse(container.getOrDefault(key, PersistentDataType.STRING, ""), intervals));
+        final Map<String, TextLines> result = Collections.unmodifiableMap(parsed);
+        translations.put(entity.getEntityId(), result);
+        return result;
+    }
+
+    /**
+     * Returns cached lines of entity with specified id, or {@code null} if not cached. Never touches the entity, so it's safe to be called from completion threads.
+     */
+    public @Nullable TextLines cachedLines(final int entityId) {
+        return lines.get(entityId);
+    }
+
+    /**
+     * Returns cached translations of entity with specified id, or {@code null} if not cached. Never touches the entity, so it's safe to be called from completion threads.
+     */
+    public @Nullable Map<String, TextLines> cachedTranslations(final int entityId) {
+        return translations.get(entityId);
+    }
+
+    /**
+     * Replaces cached translations of specified entity with modified ones. Cached text is invalidated and compiled again when needed.
+     */
+    public void update(final @NotNull Entity entity, final @NotNull Map<String, TextLines> modified) {
+        translations.put(entity.getEntityId(), Collections.unmodifiableMap(new HashMap<>(modified)));
+        texts.remove(entity.getEntityId());
+    }
+
+    /**
+     * Replaces cached lines of specified entity with modified ones. Cached text is invalidated and compiled again when needed.
+     */
+    public void update(final @NotNull Entity entity, final @NotNull TextLines modified) {
+        lines.put(entity.getEntityId(), modified);
+        // Translations are parsed again, as they share refresh intervals with the modified lines.
+        translations.remove(entity.getEntityId());
+        texts.remove(entity.getEntityId());
+    }
+
+    /**
+     * Removes cached text, lines and translations of entity with specified id.
+     */
+    public void invalidate(final int entityId) {
+        texts.remove(entityId);
+        lines.remove(entityId);
+        translations.remove(entityId);
+    }
+
+    /**
+     * Forgets components rendered for specified viewer of entity with specified id.
+     */
+    public void forget(final int entityId, final int viewerId) {
+        final @Nullable DisplayText text = texts.get(entityId);
+        if (text != null)
+            text.forget(viewerId);
+    }
+
+    /**
+     * Forgets components rendered for specified viewer of all entities.
+     */
+    public void forgetViewer(final int viewerId) {
+        for (final DisplayText text : texts.values())
+            text.forget(viewerId);
+    }
+
+    /**
+     * Sets the classifier used to compile templates. All cached texts are invalidated.
+     */
+    public void classifier(final @NotNull PlaceholderClassifier classifier) {
+        this.classifier = classifier;
+        // Invalidating texts compiled with the previous classifier.
+        texts.clear();
+    }
+
+    /**
+     * Removes all cached texts, lines and translations.
+     */
+    public void invalidateAll() {
+        texts.clear();
+        lines.clear();
+        translations.clear();
+    }
+
+}
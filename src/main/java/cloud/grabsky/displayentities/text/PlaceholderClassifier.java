@@ -0,0 +1,84 @@
+/*
+ * DisplayEntities (https://github.com/Grabsky/DisplayEntities)
+ *
+ * MIT License
+ *
+ * Copyright (c) 2026 Grabsky (michal.czopek.foss@proton.me)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cloud.grabsky.displayentities.text;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Classifies placeholders as either global (same value for every viewer) or player-relative.
+ * Placeholders are matched without the surrounding {@code %} characters, either exactly or by prefix when pattern ends with {@code *}.
+ */
+public final class PlaceholderClassifier {
+
+    /** Classifier which considers all placeholders player-relative. */
+    public static final PlaceholderClassifier EMPTY = new PlaceholderClassifier(Set.of(), List.of());
+
+    private final @NotNull Set<String> exact;
+    private final @NotNull List<String> prefixes;
+
+    private PlaceholderClassifier(final @NotNull Set<String> exact, final @NotNull List<String> prefixes) {
+        this.exact = exact;
+        this.prefixes = prefixes;
+    }
+
+    /**
+     * Returns {@code true} if placeholder with specified identifier and parameters does not depend on the viewer.
+     */
+    public boolean isGlobal(final @NotNull String identifier, final @NotNull String params) {
+        final String placeholder = (params.isEmpty() == true) ? identifier : identifier + "_" + params.toLowerCase(Locale.ROOT);
+        // Checking exact matches first.
+        if (exact.contains(placeholder) == true)
+            return true;
+        // Checking prefix matches.
+        for (final String prefix : prefixes)
+            if (placeholder.startsWith(prefix) == true)
+                return true;
+        return false;
+    }
+
+    /**
+     * Creates new {@link PlaceholderClassifier} from specified list of patterns.
+     */
+    public static @NotNull PlaceholderClassifier of(final @NotNull List<String> patterns) {
+        // Normalizing patterns. Surrounding percent signs are optional.
+        final List<String> normalized = patterns.stream()
+                .map(it -> it.trim().toLowerCase(Locale.ROOT))
+                .map(it -> (it.length() > 1 && it.startsWith("%") == true && it.endsWith("%") == true) ? it.substring(1, it.length() - 1) : it)
+                .filter(it -> it.isEmpty() == false)
+                .toList();
+        // Splitting into exact and prefix matches.
+        return new PlaceholderClassifier(
+                normalized.stream().filter(it -> it.endsWith("*") == false).collect(Collectors.toUnmodifiableSet()),
+                normalized.stream().filter(it -> it.endsWith("*") == true).map(it -> it.substring(0, it.length() - 1)).toList()
+        );
+    }
+
+}
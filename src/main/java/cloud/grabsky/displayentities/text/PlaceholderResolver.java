@@ -0,0 +1,64 @@
+/*
+ * DisplayEntities (https://github.com/Grabsky/DisplayEntities)
+ *
+ * MIT License
+ *
+ * Copyright (c) 2026 Grabsky (michal.czopek.foss@proton.me)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cloud.grabsky.displayentities.text;
+
+import cloud.grabsky.displayentities.DisplayEntities;
+import me.clip.placeholderapi.PlaceholderAPI;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resolves individual {@link TextTemplate.Slot slots} using expansions registered in PlaceholderAPI.
+ * Slots are left unresolved when PlaceholderAPI is not installed, which is the case for virtual displays on servers without it.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class PlaceholderResolver {
+
+    // Whether PlaceholderAPI is installed. PlaceholderAPI classes must not be accessed otherwise.
+    private static final boolean IS_ENABLED = Bukkit.getPluginManager().getPlugin("PlaceholderAPI") != null;
+
+    /**
+     * Returns value of specified slot, or it's raw form if it could not be resolved.
+     */
+    public static @NotNull String resolve(final @Nullable OfflinePlayer viewer, final @NotNull TextTemplate.Slot slot) {
+        // Returning raw placeholder if PlaceholderAPI is not installed.
+        if (IS_ENABLED == false)
+            return slot.raw();
+        // Resolving the placeholder through PlaceholderAPI, so it behaves exactly the same as everywhere else, and recording how long it took.
+        // Raw placeholder is returned as-is if expansion is not registered or could not provide the value.
+        final long start = System.nanoTime();
+        final String value = PlaceholderAPI.setPlaceholders(viewer, slot.raw());
+        DisplayEntities.instance().placeholderStats().recordPlaceholder(slot, System.nanoTime() - start);
+        return value;
+    }
+
+}
@@ -0,0 +1,220 @@
+/*
+ * DisplayEntities (https://github.com/Grabsky/DisplayEntities)
+ *
+ * MIT License
+ *
+ * Copyright (c) 2026 Grabsky (michal.czopek.foss@proton.me)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cloud.grabsky.displayentities.text;
+
+import cloud.grabsky.displayentities.DisplayEntities;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Collects latency of placeholder resolution, per placeholder and per expansion, as well as latency of rendering
+ * the whole text, per display. Placeholders that take longer than the configured budget are flagged and reported once.
+ */
+public final class PlaceholderStats {
+
+    private final @NotNull DisplayEntities plugin;
+
+    // Latency of individual placeholders, keyed by their raw form.
+    private final Map<String, Histogram> placeholders = new ConcurrentHashMap<>();
+
+    // Latency of placeholders, keyed by identifier of the expansion.
+    private final Map<String, Histogram> expansions = new ConcurrentHashMap<>();
+
+    // Latency of rendering whole text for a single viewer, keyed by name of the display.
+    private final Map<String, Histogram> displays = new ConcurrentHashMap<>();
+
+    // Raw forms of placeholders which exceeded the budget at least once.
+    private final Set<String> flagged = ConcurrentHashMap.newKeySet();
+
+    // Maximum time a single placeholder may take before it is flagged, in nanoseconds.
+    private volatile long budget = TimeUnit.MILLISECONDS.toNanos(5);
+
+    public PlaceholderStats(final @NotNull DisplayEntities plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Sets maximum time, in milliseconds, a single placeholder may take before it is flagged as slow.
+     */
+    public void budget(final double milliseconds) {
+        this.budget = (long) (milliseconds * 1_000_000D);
+    }
+
+    /**
+     * Records time it took to resolve specified slot.
+     */
+    public void recordPlaceholder(final @NotNull TextTemplate.Slot slot, final long nanos) {
+        placeholders.computeIfAbsent(slot.raw(), (it) -> new Histogram()).record(nanos);
+        expansions.computeIfAbsent(slot.identifier(), (it) -> new Histogram()).record(nanos);
+        // Flagging placeholders that exceeded the budget.
+        if (nanos > budget) {
+            // Warning about the placeholder the first time it happens.
+            if (flagged.add(slot.raw()) == true)
+                plugin.getLogger().warning("Placeholder " + slot.raw() + " took " + Histogram.format(nanos) + "ms to resolve, which is more than configured budget of " + Histogram.format(budget) + "ms. Use /display stats to see more details.");
+            // Logging debug information to the console.
+            plugin.debug("[PH:" + slot.raw() + "] Slow placeholder... [T:" + Histogram.format(nanos) + "ms]");
+        }
+    }
+
+    /**
+     * Records time it took to render whole text of display with specified name, for a single viewer.
+     */
+    public void recordDisplay(final @NotNull String name, final long nanos) {
+        displays.computeIfAbsent(name, (it) -> new Histogram()).record(nanos);
+    }
+
+    /**
+     * Returns {@code true} if placeholder with specified raw form exceeded the budget at least once.
+     */
+    public boolean isFlagged(final @NotNull String raw) {
+        return flagged.contains(raw);
+    }
+
+    /**
+     * Returns at most {@code limit} placeholders that took the most time in total, slowest first.
+     */
+    public @NotNull List<Map.Entry<String, Histogram>> placeholders(final int limit) {
+        return top(placeholders, limit);
+    }
+
+    /**
+     * Returns at most {@code limit} expansions that took the most time in total, slowest first.
+     */
+    public @NotNull List<Map.Entry<String, Histogram>> expansions(final int limit) {
+        return top(expansions, limit);
+    }
+
+    /**
+     * Returns at most {@code limit} displays that took the most time in total, slowest first.
+     */
+    public @NotNull List<Map.Entry<String, Histogram>> displays(final int limit) {
+        return top(displays, limit);
+    }
+
+    /**
+     * Forgets all collected statistics and flags.
+     */
+    public void reset() {
+        placeholders.clear();
+        expansions.clear();
+        displays.clear();
+        flagged.clear();
+    }
+
+    private static @NotNull List<Map.Entry<String, Histogram>> top(final @NotNull Map<String, Histogram> map, final int limit) {
+        return map.entrySet().stream()
+                .map(it -> Map.entry(it.getKey(), it.getValue()))
+                .sorted(Comparator.comparingLong((Map.Entry<String, Histogram> it) -> it.getValue().total()).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Latency histogram with power-of-two buckets, starting at one microsecond. Safe to be updated from multiple threads.
+     */
+    public static final class Histogram {
+
+        // Number of buckets. Last bucket holds everything above ~0.5 seconds.
+        private static final int BUCKETS = 20;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        public void record(final long nanos) {
+            // Finding the bucket; bucket i holds values below 2^(i+1) microseconds.
+            final long micros = Math.max(1, nanos / 1_000);
+            buckets.incrementAndGet(Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(micros)));
+            count.increment();
+            total.add(nanos);
+            max.accumulateAndGet(nanos, Math::max);
+        }
+
+        /**
+         * Returns number of recorded values.
+         */
+        public long count() {
+            return count.sum();
+        }
+
+        /**
+         * Returns sum of all recorded values, in nanoseconds.
+         */
+        public long total() {
+            return total.sum();
+        }
+
+        /**
+         * Returns highest recorded value, in nanoseconds.
+         */
+        public long max() {
+            return max.get();
+        }
+
+        /**
+         * Returns average of recorded values, in nanoseconds.
+         */
+        public long average() {
+            final long count = this.count();
+            return (count > 0) ? this.total() / count : 0;
+        }
+
+        /**
+         * Returns upper bound of the bucket containing specified percentile, in nanoseconds.
+         */
+        public long percentile(final double percentile) {
+            final long threshold = (long) Math.ceil(this.count() * percentile);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= threshold && seen > 0)
+                    return (i == BUCKETS - 1) ? this.max() : Math.min(this.max(), (1L << (i + 1)) * 1_000);
+            }
+            return this.max();
+        }
+
+        /**
+         * Formats specified amount of nanoseconds as milliseconds, with two decimal places.
+         */
+        public static @NotNull String format(final long nanos) {
+            return String.format(Locale.ROOT, "%.2f", nanos / 1_000_000D);
+        }
+
+    }
+
+}
@@ -0,0 +1,296 @@
+/*
+ * DisplayEntities (https://github.com/Grabsky/DisplayEntities)
+ *
+ * MIT License
+ *
+ * Copyright (c) 2026 Grabsky (michal.czopek.foss@proton.me)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cloud.grabsky.displayentities.text;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.JoinConfiguration;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Immutable list of lines of a text display. Each line is parsed on its own and keeps its parsed {@link Component}, so
+ * modifying a single line only parses that line, while the remaining components are re-used when composing the text.
+ * Styling tags left open by a line are carried over to the following lines, so they render the same as when parsed together.
+ * Text with a {@link #isSpanning() spanning} tag, such as a gradient, left open across lines must be parsed as a whole instead.
+ * Lines are stored inside {@link cloud.grabsky.displayentities.DisplayEntities.Keys#TEXT_CONTENTS} joined with {@link #SEPARATOR}.
+ * Refresh intervals of lines are stored separately, inside {@link cloud.grabsky.displayentities.DisplayEntities.Keys#LINE_REFRESH_INTERVALS}.
+ */
+public final class TextLines {
+
+    public static final String SEPARATOR = "<newline>";
+
+    /** Line is refreshed along with the rest of the display, using refresh interval of the entity. */
+    public static final int DEFAULT_INTERVAL = 0;
+
+    /** Placeholders of the line are resolved once, when display is shown to the viewer, and never refreshed. */
+    public static final int STATIC = -1;
+
+    /** Text without any lines. */
+    public static final TextLines EMPTY = new TextLines(new ArrayList<>());
+
+    // Tags that only style contents that follow them. These are carried over to following lines when left open.
+    private static final Set<String> CARRIED_TAGS = Set.of("color", "colour", "c", "bold", "b", "italic", "i", "em", "underlined", "u", "strikethrough", "st", "obfuscated", "obf", "font", "insertion", "shadow", "hover", "click");
+
+    // Tags that style contents based on all of them. Text is parsed as a whole when any of these is left open across lines.
+    private static final Set<String> SPANNING_TAGS = Set.of("gradient", "rainbow", "transition", "pride");
+
+    /**
+     * Single line, along with tags carried over from previous lines, the component parsed from both and its refresh interval.
+     */
+    public record Line(@NotNull String prefix, @NotNull String source, @NotNull Component component, int interval) {
+
+        public static @NotNull Line of(final @NotNull String source, final int interval) {
+            return Line.of("", source, interval);
+        }
+
+        public static @NotNull Line of(final @NotNull String prefix, final @NotNull String source, final int interval) {
+            return new Line(prefix, source, MiniMessage.miniMessage().deserialize(prefix + source), interval);
+        }
+
+        /**
+         * Returns source of this line preceded by tags carried over from previous lines. This is what the component is parsed from.
+         */
+        public @NotNull String contents() {
+            return prefix + source;
+        }
+
+    }
+
+    private final @NotNull List<Line> lines;
+
+    // Whether a spanning tag is left open across lines.
+    private final boolean isSpanning;
+
+    private TextLines(final @NotNull List<Line> lines) {
+        List<String> open = Collections.emptyList();
+        boolean isSpanning = false;
+        for (int i = 0; i < lines.size(); i++) {
+            final Line line = lines.get(i);
+            final String prefix = String.join("", open);
+            // Parsing the line again only if tags carried over to it have changed.
+            if (line.prefix().equals(prefix) == false)
+                lines.set(i, Line.of(prefix, line.source(), line.interval()));
+            open = open(open, line.source());
+            // Checking whether a spanning tag is carried over to the next line.
+            if (i < lines.size() - 1 && open.stream().anyMatch(it -> SPANNING_TAGS.contains(name(it)) == true))
+                isSpanning = true;
+        }
+        this.lines = Collections.unmodifiableList(lines);
+        this.isSpanning = isSpanning;
+    }
+
+    /**
+     * Parses specified text contents into lines. Lines without a corresponding interval use {@link #DEFAULT_INTERVAL}.
+     */
+    public static @NotNull TextLines parse(final @NotNull String contents, final int[] intervals) {
+        final String[] sources = contents.split(SEPARATOR);
+        final List<Line> lines = new ArrayList<>(sources.length);
+        for (int i = 0; i < sources.length; i++)
+            lines.add(Line.of(sources[i], (intervals != null && i < intervals.length) ? intervals[i] : DEFAULT_INTERVAL));
+        return new TextLines(lines);
+    }
+
+    /**
+     * Returns number of lines.
+     */
+    public int size() {
+        return lines.size();
+    }
+
+    /**
+     * Returns source of line at specified index, starting from {@code 0}.
+     */
+    public @NotNull String line(final int index) {
+        return lines.get(index).source();
+    }
+
+    /**
+     * Returns all lines.
+     */
+    public @NotNull List<Line> lines() {
+        return lines;
+    }
+
+    /**
+     * Returns a copy with specified line added at the end.
+     */
+    public @NotNull TextLines add(final @NotNull String source) {
+        final List<Line> copy = new ArrayList<>(lines);
+        copy.add(Line.of(source, DEFAULT_INTERVAL));
+        return new TextLines(copy);
+    }
+
+    /**
+     * Returns a copy with specified line inserted at specified index, starting from {@code 0}.
+     */
+    public @NotNull TextLines insert(final int index, final @NotNull String source) {
+        final List<Line> copy = new ArrayList<>(lines);
+        copy.add(index, Line.of(source, DEFAULT_INTERVAL));
+        return new TextLines(copy);
+    }
+
+    /**
+     * Returns a copy with line at specified index, starting from {@code 0}, replaced. Refresh interval of the line is kept.
+     */
+    public @NotNull TextLines set(final int index, final @NotNull String source) {
+        final List<Line> copy = new ArrayList<>(lines);
+        copy.set(index, Line.of(source, lines.get(index).interval()));
+        return new TextLines(copy);
+    }
+
+    /**
+     * Returns a copy with refresh interval of line at specified index, starting from {@code 0}, changed. Line is not parsed again.
+     */
+    public @NotNull TextLines interval(final int index, final int interval) {
+        final List<Line> copy = new ArrayList<>(lines);
+        final Line line = lines.get(index);
+        copy.set(index, new Line(line.prefix(), line.source(), line.component(), interval));
+        return new TextLines(copy);
+    }
+
+    /**
+     * Returns a copy with line at specified index, starting from {@code 0}, removed.
+     */
+    public @NotNull TextLines remove(final int index) {
+        final List<Line> copy = new ArrayList<>(lines);
+        copy.remove(index);
+        return new TextLines(copy);
+    }
+
+    /**
+     * Returns lines joined with {@link #SEPARATOR}. This is the form stored inside PDC.
+     */
+    public @NotNull String source() {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < lines.size(); i++) {
+            if (i > 0)
+                builder.append(SEPARATOR);
+            builder.append(lines.get(i).source());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Returns refresh intervals of all lines, or {@code null} if every line uses {@link #DEFAULT_INTERVAL}.
+     */
+    public int[] intervals() {
+        // Returning null if there are no custom intervals, so nothing has to be stored.
+        if (lines.stream().allMatch(it -> it.interval() == DEFAULT_INTERVAL) == true)
+            return null;
+        return lines.stream().mapToInt(Line::interval).toArray();
+    }
+
+    /**
+     * Returns {@code true} if a tag styling contents based on all of them, such as a gradient, is left open across lines.
+     * Lines of such text render differently on their own, so the text must be parsed as a whole.
+     */
+    public boolean isSpanning() {
+        return isSpanning;
+    }
+
+    /**
+     * Returns components of all lines joined with new lines, or the whole text parsed at once if it is {@link #isSpanning() spanning}.
+     */
+    public @NotNull Component component() {
+        if (isSpanning == true)
+            return MiniMessage.miniMessage().deserialize(this.source());
+        return Component.join(JoinConfiguration.newlines(), lines.stream().map(Line::component).toList());
+    }
+
+    // Returns tags left open after specified source, given tags that were open before it. Tags other than styling ones are ignored.
+    private static @NotNull List<String> open(final @NotNull List<String> previous, final @NotNull String source) {
+        final List<String> open = new ArrayList<>(previous);
+        for (int i = 0; i < source.length(); i++) {
+            final char character = source.charAt(i);
+            // Skipping escaped characters.
+            if (character == '\\') {
+                i++;
+                continue;
+            }
+            if (character != '<')
+                continue;
+            // Finding the end of the tag. Quoted arguments may contain angle brackets.
+            int end = i + 1;
+            char quote = 0;
+            while (end < source.length()) {
+                final char current = source.charAt(end);
+                if (current == '\\')
+                    end++;
+                else if (quote != 0) {
+                    if (current == quote)
+                        quote = 0;
+                }
+                else if (current == '\'' || current == '"')
+                    quote = current;
+                else if (current == '>')
+                    break;
+                end++;
+            }
+            // Stopping at a tag that is never closed. It is parsed as text.
+            if (end >= source.length())
+                break;
+            final String tag = source.substring(i, end + 1);
+            final String name = name(tag);
+            i = end;
+            // Reset tag closes all tags opened before it.
+            if (name.equals("reset") == true)
+                open.clear();
+            // Skipping tags that do not style contents that follow them.
+            else if (CARRIED_TAGS.contains(name) == false && SPANNING_TAGS.contains(name) == false && name.startsWith("#") == false && NamedTextColor.NAMES.value(name) == null)
+                continue;
+            // Closing tag closes most recently opened tag with the same name, along with all tags opened after it.
+            else if (tag.startsWith("</") == true) {
+                for (int j = open.size() - 1; j >= 0; j--)
+                    if (name(open.get(j)).equals(name) == true) {
+                        open.subList(j, open.size()).clear();
+                        break;
+                    }
+            }
+            else open.add(tag);
+        }
+        return open;
+    }
+
+    // Returns lower-cased name of specified tag, without arguments and negation.
+    private static @NotNull String name(final @NotNull String tag) {
+        int start = tag.startsWith("</") ? 2 : 1;
+        if (start < tag.length() && tag.charAt(start) == '!')
+            start++;
+        int end = start;
+        while (end < tag.length() && tag.charAt(end) != ':' && tag.charAt(end) != '>')
+            end++;
+        return tag.substring(start, end).toLowerCase(Locale.ROOT);
+    }
+
+}
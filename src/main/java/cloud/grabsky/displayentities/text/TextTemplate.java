@@ -0,0 +1,264 @@
+/*
+ * DisplayEntities (https://github.com/Grabsky/DisplayEntities)
+ *
+ * MIT License
+ *
+ * Copyright (c) 2026 Grabsky (michal.czopek.foss@proton.me)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cloud.grabsky.displayentities.text;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.bukkit.OfflinePlayer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+/**
+ * Compiled representation of a MiniMessage string containing PlaceholderAPI placeholders.
+ * Placeholder slots are identified once, so rendering only resolves the slots and re-uses
+ * components that were already parsed for identical output. Global slots are resolved at most
+ * once per refresh cycle and shared across all viewers.
+ */
+@Accessors(fluent = true)
+public final class TextTemplate {
+
+    // Maximum number of parsed components kept per template. Prevents unbounded growth for placeholders with ever-changing output.
+    private static final int MAX_CACHED_COMPONENTS = 64;
+
+    @Getter(AccessLevel.PUBLIC)
+    private final @NotNull String source;
+
+    // Literal parts of the source string. There is always exactly one more literal than there are slots.
+    private final @NotNull String[] literals;
+
+    // Placeholder slots, in order of appearance.
+    private final @NotNull Slot[] slots;
+
+    // Component parsed from the source string. Only present when template contains no slots.
+    private final @Nullable Component staticComponent;
+
+    // Whether all slots of this template are global, which means rendered component is the same for every viewer.
+    private final boolean isGlobal;
+
+    // Components parsed for specific resolved strings. Shared across all viewers.
+    private final Map<String, Component> components = new ConcurrentHashMap<>();
+
+    // Values of global slots resolved during the most recent cycle.
+    private volatile @Nullable GlobalValues globalValues;
+
+    // Component parsed from literal parts only. Computed when first requested.
+    private volatile @Nullable Component preview;
+
+    private TextTemplate(final @NotNull String source, final @NotNull String[] literals, final @NotNull Slot[] slots) {
+        this.source = source;
+        this.literals = literals;
+        this.slots = slots;
+        this.staticComponent = (slots.length == 0) ? MiniMessage.miniMessage().deserialize(source) : null;
+        this.isGlobal = Arrays.stream(slots).allMatch(Slot::global);
+    }
+
+    /**
+     * Returns {@code true} if this template contains at least one placeholder slot.
+     */
+    public boolean hasSlots() {
+        return slots.length > 0;
+    }
+
+    /**
+     * Returns {@code true} if rendered component is the same for every viewer.
+     */
+    public boolean isGlobal() {
+        return isGlobal;
+    }
+
+    /**
+     * Resolves all placeholder slots for specified viewer and returns parsed {@link Component}.
+     * Global slots are resolved only once for each distinct {@code cycle} value.
+     */
+    public @NotNull Component render(final @Nullable OfflinePlayer viewer, final long cycle) {
+        // Returning pre-parsed component if there is nothing to resolve.
+        if (staticComponent != null)
+            return staticComponent;
+        // Getting values of global slots for this cycle.
+        final GlobalValues globals = globals(cycle);
+        // Returning component shared by all viewers, if there is nothing to resolve per viewer.
+        if (globals.component() != null)
+            return globals.component();
+        // Building the resolved string.
+        final StringBuilder builder = new StringBuilder(source.length() + 16);
+        for (int i = 0; i < slots.length; i++) {
+            builder.append(literals[i]);
+            builder.append((slots[i].global() == true) ? globals.values()[i] : PlaceholderResolver.resolve(viewer, slots[i]));
+        }
+        builder.append(literals[slots.length]);
+        // Parsing the resolved string, or re-using component parsed earlier for the same output.
+        return parse(builder.toString());
+    }
+
+    /**
+     * Returns component parsed from the source with all placeholder slots left out. Parsed once, so it is cheap to use
+     * as a stand-in until the text is fully rendered.
+     */
+    public @NotNull Component preview() {
+        // Returning pre-parsed component if there are no slots to leave out.
+        if (staticComponent != null)
+            return staticComponent;
+        @Nullable Component preview = this.preview;
+        // Parsing literals on first use. Concurrent calls may parse it twice, which is harmless.
+        if (preview == null) {
+            preview = MiniMessage.miniMessage().deserialize(String.join("", literals));
+            this.preview = preview;
+        }
+        return preview;
+    }
+
+    private @NotNull GlobalValues globals(final long cycle) {
+        final @Nullable GlobalValues current = globalValues;
+        // Returning values resolved earlier during the same cycle.
+        if (current != null && current.cycle() == cycle)
+            return current;
+        // Resolving all global slots. Player-relative slots are left empty.
+        final String[] values = new String[slots.length];
+        for (int i = 0; i < slots.length; i++)
+            if (slots[i].global() == true)
+                values[i] = PlaceholderResolver.resolve(null, slots[i]);
+        // Building the component shared by all viewers, if possible.
+        @Nullable Component component = null;
+        if (isGlobal == true) {
+            final StringBuilder builder = new StringBuilder(source.length() + 16);
+            for (int i = 0; i < slots.length; i++)
+                builder.append(literals[i]).append(values[i]);
+            builder.append(literals[slots.length]);
+            component = parse(builder.toString());
+        }
+        // Storing and returning the values. Concurrent renders may resolve the same cycle twice, which is harmless.
+        final GlobalValues resolved = new GlobalValues(cycle, values, component);
+        this.globalValues = resolved;
+        return resolved;
+    }
+
+    private @NotNull Component parse(final @NotNull String resolved) {
+        final @Nullable Component cached = components.get(resolved);
+        // Returning cached component if present.
+        if (cached != null)
+            return cached;
+        // Clearing the cache when it gets too large. Cheaper than maintaining LRU order on every render.
+        if (components.size() >= MAX_CACHED_COMPONENTS)
+            components.clear();
+        // Parsing and caching the component.
+        final Component component = MiniMessage.miniMessage().deserialize(resolved);
+        components.put(resolved, component);
+        return component;
+    }
+
+    /**
+     * Compiles specified string into a {@link TextTemplate}. Placeholders are identified exactly the same way PlaceholderAPI does:
+     * {@code %identifier_params%} or {@code %identifier%}, where identifier cannot contain spaces.
+     */
+    public static @NotNull TextTemplate compile(final @NotNull String source, final @NotNull PlaceholderClassifier classifier) {
+        final List<String> literals = new ArrayList<>();
+        final List<Slot> slots = new ArrayList<>();
+        // Holds the literal part that is currently being built.
+        final StringBuilder literal = new StringBuilder();
+        // Iterating over all characters in search for placeholders.
+        int index = 0;
+        while (index < source.length()) {
+            final char c = source.charAt(index);
+            // Appending regular characters to the current literal.
+            if (c != '%') {
+                literal.append(c);
+                index++;
+                continue;
+            }
+            // Searching for the end of placeholder.
+            int end = index + 1;
+            int separator = -1;
+            boolean hadSpace = false;
+            while (end < source.length()) {
+                final char p = source.charAt(end);
+                if (p == '%')
+                    break;
+                // Space inside identifier means this is not a placeholder.
+                if (p == ' ' && separator == -1) {
+                    hadSpace = true;
+                    break;
+                }
+                if (p == '_' && separator == -1)
+                    separator = end;
+                end++;
+            }
+            // Treating everything up to and including the whitespace as a literal.
+            if (hadSpace == true) {
+                literal.append(source, index, end + 1);
+                index = end + 1;
+                continue;
+            }
+            // Treating the rest of the string as a literal if placeholder was not closed.
+            if (end >= source.length()) {
+                literal.append(source, index, source.length());
+                break;
+            }
+            // Treating empty placeholders as literals. Both percent signs are consumed, same as in PlaceholderAPI.
+            if (end == index + 1) {
+                literal.append("%%");
+                index = end + 1;
+                continue;
+            }
+            final String identifier = (separator != -1) ? source.substring(index + 1, separator) : source.substring(index + 1, end);
+            final String params = (separator != -1) ? source.substring(separator + 1, end) : "";
+            // Finishing the current literal and adding the slot.
+            literals.add(literal.toString());
+            literal.setLength(0);
+            final String lowerCaseIdentifier = identifier.toLowerCase(Locale.ROOT);
+            slots.add(new Slot(lowerCaseIdentifier, params, source.substring(index, end + 1), classifier.isGlobal(lowerCaseIdentifier, params)));
+            index = end + 1;
+        }
+        literals.add(literal.toString());
+        // Creating and returning the template.
+        return new TextTemplate(source, literals.toArray(String[]::new), slots.toArray(Slot[]::new));
+    }
+
+    /**
+     * Represents a single placeholder slot.
+     *
+     * @param identifier Lower-cased identifier of the expansion.
+     * @param params Parameters passed to the expansion.
+     * @param raw Placeholder as it appears in the source string. Resolved through PlaceholderAPI as a whole.
+     * @param global Whether value of this placeholder is the same for every viewer.
+     */
+    public record Slot(@NotNull String identifier, @NotNull String params, @NotNull String raw, boolean global) {}
+
+    // Values of global slots resolved during a specific cycle.
+    private record GlobalValues(long cycle, @NotNull String[] values, @Nullable Component component) {}
+
+}
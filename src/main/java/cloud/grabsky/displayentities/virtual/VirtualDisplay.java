@@ -0,0 +1,93 @@
+/*
+ * DisplayEntities (https://github.com/Grabsky/DisplayEntities)
+ *
+ * MIT License
+ *
+ * Copyright (c) 2026 Grabsky (michal.czopek.foss@proton.me)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cloud.grabsky.displayentities.virtual;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Display;
+import org.bukkit.entity.Entity;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.Accessors;
+
+/**
+ * Display that exists only on the client-side. Server never creates an entity for it; spawn, metadata and destroy packets are sent by the {@link VirtualDisplayTracker}.
+ * Definition is a deserialized, but never spawned, entity. It is used to read display properties and provides a unique entity id.
+ */
+@Accessors(fluent = true)
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class VirtualDisplay {
+
+    @Getter(AccessLevel.PUBLIC)
+    private final @NotNull String name;
+
+    @Getter(AccessLevel.PUBLIC)
+    private final @NotNull String worldName;
+
+    // Serialized entity, as returned by UnsafeValues#serializeEntity.
+    @Getter(AccessLevel.PUBLIC)
+    private final byte[] data;
+
+    // Null if world of this display was not loaded yet. Such display is kept in the store and resolved once the world is loaded.
+    @Getter(AccessLevel.PUBLIC)
+    private final @Nullable Display definition;
+
+    /**
+     * Returns id used for this display in packets.
+     */
+    public int entityId() {
+        return (definition != null) ? definition.getEntityId() : -1;
+    }
+
+    /**
+     * Creates new {@link VirtualDisplay} from specified entity. Entity itself is not modified and should be removed afterwards.
+     */
+    public static @NotNull VirtualDisplay of(final @NotNull String name, final @NotNull Display entity) {
+        // Serializing the entity to bytes.
+        final byte[] data = Bukkit.getUnsafe().serializeEntity(entity);
+        // Creating a detached copy of the entity. It is never spawned in the world.
+        final Entity definition = Bukkit.getUnsafe().deserializeEntity(data, entity.getWorld(), true, false);
+        // Returning new instance of VirtualDisplay.
+        return new VirtualDisplay(name, entity.getWorld().getName(), data, (Display) definition);
+    }
+
+    /**
+     * Creates new {@link VirtualDisplay} from specified serialized entity data. Definition is {@code null} if specified world is not loaded.
+     */
+    public static @NotNull VirtualDisplay of(final @NotNull String name, final @NotNull String worldName, final byte[] data) {
+        final @Nullable World world = Bukkit.getWorld(worldName);
+        // Creating a detached copy of the entity, unless world is not loaded.
+        final @Nullable Entity definition = (world != null) ? Bukkit.getUnsafe().deserializeEntity(data, world, true, false) : null;
+        // Returning new instance of VirtualDisplay.
+        return new VirtualDisplay(name, worldName, data, (Display) definition);
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * DisplayEntities (https://github.com/Grabsky/DisplayEntities)
+ *
+ * MIT License
+ *
+ * Copyright (c) 2026 Grabsky (michal.czopek.foss@proton.me)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cloud.grabsky.displayentities.virtual;
+
+import com.github.retrooper.packetevents.protocol.entity.data.EntityData;
+import com.github.retrooper.packetevents.protocol.entity.data.EntityDataTypes;
+import com.github.retrooper.packetevents.util.Quaternion4f;
+import com.github.retrooper.packetevents.util.Vector3f;
+import io.github.retrooper.packetevents.util.SpigotConversionUtil;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Color;
+import org.bukkit.entity.BlockDisplay;
+import org.bukkit.entity.Display;
+import org.bukkit.entity.ItemDisplay;
+import org.bukkit.entity.TextDisplay;
+import org.bukkit.util.Transformation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Builds entity metadata of {@link VirtualDisplay virtual displays} from properties of their definitions.
+ * Indices correspond to the ones used by the vanilla client.
+ */
+public final class VirtualDisplayMetadata {
+
+    // Default background color of text displays. Used when background color is not set.
+    private static final int DEFAULT_BACKGROUND_COLOR = 0x40000000;
+
+    /**
+     * Returns complete entity metadata of specified display. Text of text displays is replaced with specified component.
+     */
+    public static @NotNull List<EntityData<?>> of(final @NotNull Display display, final @Nullable Component text) {
+        final List<EntityData<?>> data = new ArrayList<>();
+        // Entity flags. Glowing is the only one relevant for display entities.
+        data.add(new EntityData<>(0, EntityDataTypes.BYTE, (byte) (display.isGlowing() == true ? 0x40 : 0)));
+        // Transformation.
+        final Transformation transformation = display.getTransformation();
+        data.add(new EntityData<>(11, EntityDataTypes.VECTOR3F, new Vector3f(transformation.getTranslation().x(), transformation.getTranslation().y(), transformation.getTranslation().z())));
+        data.add(new EntityData<>(12, EntityDataTypes.VECTOR3F, new Vector3f(transformation.getScale().x(), transformation.getScale().y(), transformation.getScale().z())));
+        data.add(new EntityData<>(13, EntityDataTypes.QUATERNION, new Quaternion4f(transformation.getLeftRotation().x(), transformation.getLeftRotation().y(), transformation.getLeftRotation().z(), transformation.getLeftRotation().w())));
+        data.add(new EntityData<>(14, EntityDataTypes.QUATERNION, new Quaternion4f(transformation.getRightRotation().x(), transformation.getRightRotation().y(), transformation.getRightRotation().z(), transformation.getRightRotation().w())));
+        // Common display properties.
+        data.add(new EntityData<>(15, EntityDataTypes.BYTE, (byte) display.getBillboard().ordinal()));
+        data.add(new EntityData<>(16, EntityDataTypes.INT, (display.getBrightness() != null) ? (display.getBrightness().getBlockLight() << 4 | display.getBrightness().getSkyLight() << 20) : -1));
+        data.add(new EntityData<>(17, EntityDataTypes.FLOAT, display.getViewRange()));
+        data.add(new EntityData<>(18, EntityDataTypes.FLOAT, display.getShadowRadius()));
+        data.add(new EntityData<>(19, EntityDataTypes.FLOAT, display.getShadowStrength()));
+        data.add(new EntityData<>(20, EntityDataTypes.FLOAT, display.getDisplayWidth()));
+        data.add(new EntityData<>(21, EntityDataTypes.FLOAT, display.getDisplayHeight()));
+        data.add(new EntityData<>(22, EntityDataTypes.INT, (display.getGlowColorOverride() != null) ? display.getGlowColorOverride().asRGB() : -1));
+        // Type-specific properties.
+        switch (display) {
+            case TextDisplay textDisplay -> {
+                final @Nullable Color background = textDisplay.getBackgroundColor();
+                data.add(new EntityData<>(23, EntityDataTypes.ADV_COMPONENT, (text != null) ? text : textDisplay.text()));
+                data.add(new EntityData<>(24, EntityDataTypes.INT, textDisplay.getLineWidth()));
+                data.add(new EntityData<>(25, EntityDataTypes.INT, (background != null) ? background.asARGB() : DEFAULT_BACKGROUND_COLOR));
+                data.add(new EntityData<>(26, EntityDataTypes.BYTE, textDisplay.getTextOpacity()));
+                data.add(new EntityData<>(27, EntityDataTypes.BYTE, flags(textDisplay)));
+            }
+            case ItemDisplay itemDisplay -> {
+                data.add(new EntityData<>(23, EntityDataTypes.ITEMSTACK, SpigotConversionUtil.fromBukkitItemStack(itemDisplay.getItemStack())));
+                data.add(new EntityData<>(24, EntityDataTypes.BYTE, (byte) itemDisplay.getItemDisplayTransform().ordinal()));
+            }
+            case BlockDisplay blockDisplay ->
+                    data.add(new EntityData<>(23, EntityDataTypes.BLOCK_STATE, SpigotConversionUtil.fromBukkitBlockData(blockDisplay.getBlock()).getGlobalId()));
+            default -> { /* NO TYPE-SPECIFIC PROPERTIES */ }
+        }
+        return data;
+    }
+
+    // Returns text display flags, combined into a single byte.
+    private static byte flags(final @NotNull TextDisplay display) {
+        byte flags = 0;
+        if (display.isShadowed() == true)
+            flags |= 0x01;
+        if (display.isSeeThrough() == true)
+            flags |= 0x02;
+        if (display.isDefaultBackground() == true)
+            flags |= 0x04;
+        // Alignment. Center is the default and has no flag.
+        switch (display.getAlignment()) {
+            case LEFT -> flags |= 0x08;
+            case RIGHT -> flags |= 0x10;
+            default -> { /* CENTER */ }
+        }
+        return flags;
+    }
+
+}
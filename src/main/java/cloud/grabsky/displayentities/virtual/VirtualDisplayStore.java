@@ -0,0 +1,212 @@
+/*
+ * DisplayEntities (https://github.com/Grabsky/DisplayEntities)
+ *
+ * MIT License
+ *
+ * Copyright (c) 2026 Grabsky (michal.czopek.foss@proton.me)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cloud.grabsky.displayentities.virtual;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Stores definitions of all {@link VirtualDisplay virtual displays}, persisted to a single file.
+ * Displays are indexed by world and chunk, so displays around a player can be found without iterating over all of them.
+ */
+public final class VirtualDisplayStore {
+
+    private final @NotNull File file;
+
+    // Stores all displays by name.
+    private final Map<String, VirtualDisplay> displays = new ConcurrentHashMap<>();
+
+    // Stores displays by world name and chunk key. Lists are never modified after being published.
+    private final Map<String, Map<Long, List<VirtualDisplay>>> chunks = new ConcurrentHashMap<>();
+
+    // Whether displays were modified since the last save.
+    private volatile boolean isDirty = false;
+
+    public VirtualDisplayStore(final @NotNull File file) {
+        this.file = file;
+    }
+
+    /**
+     * Loads all displays from the file. Previously loaded displays are discarded.
+     */
+    public synchronized void load() throws IOException {
+        displays.clear();
+        chunks.clear();
+        isDirty = false;
+        // Skipping if nothing has been saved yet.
+        if (file.exists() == false)
+            return;
+        // Each line contains name, world name and Base64 encoded entity data, separated by a space.
+        for (final String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            final String[] parts = line.split(" ", 3);
+            // Skipping malformed lines.
+            if (parts.length != 3)
+                continue;
+            this.index(VirtualDisplay.of(parts[0], parts[1], Base64.getDecoder().decode(parts[2])));
+        }
+    }
+
+    /**
+     * Saves all displays to the file, unless nothing has changed since the last save. Can be called from any thread.
+     */
+    public void save() throws IOException {
+        // Writes are serialized, so a save that copied displays earlier never overwrites the file written by a later one.
+        synchronized (file) {
+            final List<String> lines;
+            // Copying displays while holding the lock. Writing to the file happens outside of it.
+            synchronized (this) {
+                if (isDirty == false)
+                    return;
+                lines = new ArrayList<>(displays.size());
+                for (final VirtualDisplay display : displays.values())
+                    lines.add(display.name() + " " + display.worldName() + " " + Base64.getEncoder().encodeToString(display.data()));
+                isDirty = false;
+            }
+            // Creating directories if they don't exist.
+            file.getParentFile().mkdirs();
+            // Writing all lines to the file.
+            Files.write(file.toPath(), lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+    }
+
+    /**
+     * Returns display with specified name, or {@code null} if it does not exist.
+     */
+    public @Nullable VirtualDisplay get(final @NotNull String name) {
+        return displays.get(name);
+    }
+
+    /**
+     * Returns names of all displays.
+     */
+    public @NotNull Collection<String> names() {
+        return Collections.unmodifiableCollection(displays.keySet());
+    }
+
+    /**
+     * Adds specified display. Store must be saved afterwards.
+     */
+    public synchronized void add(final @NotNull VirtualDisplay display) {
+        this.index(display);
+        isDirty = true;
+    }
+
+    /**
+     * Creates definitions of all displays in specified world, which were loaded before the world. Such displays are not shown until then.
+     */
+    public synchronized void resolve(final @NotNull World world) {
+        for (final VirtualDisplay display : List.copyOf(displays.values()))
+            if (display.definition() == null && display.worldName().equals(world.getName()) == true)
+                this.index(VirtualDisplay.of(display.name(), display.worldName(), display.data()));
+    }
+
+    /**
+     * Removes display with specified name. Returns removed display, or {@code null} if it did not exist. Store must be saved afterwards.
+     */
+    public synchronized @Nullable VirtualDisplay remove(final @NotNull String name) {
+        final @Nullable VirtualDisplay display = displays.remove(name);
+        // Returning if display does not exist.
+        if (display == null)
+            return null;
+        // Removing display from the chunk index.
+        if (display.definition() != null) {
+            final Map<Long, List<VirtualDisplay>> worldChunks = chunks.get(display.worldName());
+            final long key = key(display.definition().getLocation());
+            final List<VirtualDisplay> copy = new ArrayList<>(worldChunks.getOrDefault(key, List.of()));
+            copy.remove(display);
+            // Replacing the list, or removing it entirely if empty.
+            if (copy.isEmpty() == true)
+                worldChunks.remove(key);
+            else worldChunks.put(key, List.copyOf(copy));
+        }
+        isDirty = true;
+        return display;
+    }
+
+    /**
+     * Calls specified consumer for all displays within chunks in specified radius around specified location.
+     * Displays are not filtered by their exact distance.
+     */
+    public void forEachNearby(final @NotNull World world, final double x, final double z, final double radius, final @NotNull Consumer<VirtualDisplay> consumer) {
+        final @Nullable Map<Long, List<VirtualDisplay>> worldChunks = chunks.get(world.getName());
+        // Returning if there are no displays in this world.
+        if (worldChunks == null || worldChunks.isEmpty() == true)
+            return;
+        // Calculating range of chunks to look up.
+        final int minChunkX = ((int) Math.floor(x - radius)) >> 4;
+        final int maxChunkX = ((int) Math.floor(x + radius)) >> 4;
+        final int minChunkZ = ((int) Math.floor(z - radius)) >> 4;
+        final int maxChunkZ = ((int) Math.floor(z + radius)) >> 4;
+        // Iterating over all chunks in the range.
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                final @Nullable List<VirtualDisplay> list = worldChunks.get(key(chunkX, chunkZ));
+                // Skipping empty chunks.
+                if (list == null)
+                    continue;
+                list.forEach(consumer);
+            }
+        }
+    }
+
+    private void index(final @NotNull VirtualDisplay display) {
+        displays.put(display.name(), display);
+        // Skipping displays of worlds that are not loaded.
+        if (display.definition() == null)
+            return;
+        final Map<Long, List<VirtualDisplay>> worldChunks = chunks.computeIfAbsent(display.worldName(), (it) -> new ConcurrentHashMap<>());
+        final long key = key(display.definition().getLocation());
+        final List<VirtualDisplay> copy = new ArrayList<>(worldChunks.getOrDefault(key, List.of()));
+        copy.add(display);
+        worldChunks.put(key, List.copyOf(copy));
+    }
+
+    private static long key(final @NotNull Location location) {
+        return key(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+    }
+
+    private static long key(final int chunkX, final int chunkZ) {
+        return ((long) chunkX & 0xFFFFFFFFL) | (((long) chunkZ & 0xFFFFFFFFL) << 32);
+    }
+
+}
@@ -0,0 +1,314 @@
+/*
+ * DisplayEntities (https://github.com/Grabsky/DisplayEntities)
+ *
+ * MIT License
+ *
+ * Copyright (c) 2026 Grabsky (michal.czopek.foss@proton.me)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ */
+package cloud.grabsky.displayentities.virtual;
+
+import cloud.grabsky.displayentities.DisplayEntities;
+import cloud.grabsky.displayentities.refresh.PacketBatch;
+import cloud.grabsky.displayentities.refresh.RenderWorkers;
+import cloud.grabsky.displayentities.text.DisplayText;
+import com.github.retrooper.packetevents.protocol.entity.data.EntityData;
+import com.github.retrooper.packetevents.protocol.entity.data.EntityDataTypes;
+import com.github.retrooper.packetevents.util.Vector3d;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerDestroyEntities;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerEntityMetadata;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerSpawnEntity;
+import io.github.retrooper.packetevents.util.SpigotConversionUtil;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Location;
+import org.bukkit.entity.Display;
+import org.bukkit.entity.Player;
+import org.bukkit.entity.TextDisplay;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Sends {@link VirtualDisplay virtual displays} to players that are within range and destroys them once they are no longer in range.
+ * Each player is handled by a repeating task scheduled on their own entity scheduler, which only queues spawn and destroy packets.
+ * Text of virtual text displays is rendered on {@link RenderWorkers}, and placeholders are refreshed by a single task that follows
+ * refresh interval of each display.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PUBLIC)
+public final class VirtualDisplayTracker implements Listener {
+
+    // Interval between range checks, in ticks.
+    private static final long CHECK_INTERVAL = 10L;
+
+    // Holds reference to the plugin instance.
+    private final @NotNull DisplayEntities plugin;
+
+    // Dedicated threads on which text of virtual displays is rendered.
+    private final @NotNull RenderWorkers workers;
+
+    // Stores ids of virtual displays that are currently shown to each player. Each set is accessed only by the task of its player.
+    private final Map<UUID, IntSet> shownDisplays = new ConcurrentHashMap<>();
+
+    // Stores viewers of virtual text displays that are currently shown to at least one player, keyed by entity id.
+    private final Map<Integer, Viewers> viewers = new ConcurrentHashMap<>();
+
+    private @Nullable ScheduledTask task;
+
+    // Current refresh cycle. Written only by the refresh task.
+    private volatile long tick = 0L;
+
+    /**
+     * Starts tracking all players that are currently online and starts refreshing placeholders of virtual text displays.
+     */
+    public void start() {
+        plugin.getServer().getOnlinePlayers().forEach(this::track);
+        // Advancing the refresh cycle every tick on the global region. This is the main thread on Paper.
+        this.task = plugin.getServer().getGlobalRegionScheduler().runAtFixedRate(plugin, (it) -> this.refresh(), 1L, 1L);
+    }
+
+    /**
+     * Stops refreshing placeholders of virtual text displays.
+     */
+    public void stop() {
+        if (task != null)
+            task.cancel();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(final @NotNull PlayerJoinEvent event) {
+        this.track(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(final @NotNull PlayerQuitEvent event) {
+        final @Nullable IntSet shown = shownDisplays.remove(event.getPlayer().getUniqueId());
+        // Removing the player from viewers of all displays that were shown to them.
+        if (shown != null)
+            for (final IntIterator iterator = shown.iterator(); iterator.hasNext();)
+                this.hide(event.getPlayer(), iterator.nextInt());
+    }
+
+    // Client discards all entities when changing worlds. Displays will be sent again during the next check.
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorld(final @NotNull PlayerChangedWorldEvent event) {
+        this.forget(event.getPlayer());
+    }
+
+    // Client discards all entities when respawning. Displays will be sent again during the next check.
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerRespawn(final @NotNull PlayerRespawnEvent event) {
+        this.forget(event.getPlayer());
+    }
+
+    private void track(final @NotNull Player player) {
+        shownDisplays.put(player.getUniqueId(), new IntOpenHashSet());
+        // Scheduling a repeating task on player's scheduler. Task is retired automatically when player leaves the server.
+        player.getScheduler().runAtFixedRate(plugin, (it) -> this.check(player), null, 1L, CHECK_INTERVAL);
+    }
+
+    private void forget(final @NotNull Player player) {
+        final @Nullable IntSet shown = shownDisplays.get(player.getUniqueId());
+        // Skipping players that are not tracked anymore.
+        if (shown == null)
+            return;
+        // Removing the player from viewers of all displays. Nothing needs to be sent to the client.
+        for (final IntIterator iterator = shown.iterator(); iterator.hasNext();)
+            this.hide(player, iterator.nextInt());
+        shown.clear();
+    }
+
+    private void check(final @NotNull Player player) {
+        final @Nullable IntSet shown = shownDisplays.get(player.getUniqueId());
+        // Skipping players that are not tracked anymore.
+        if (shown == null)
+            return;
+        final Location location = player.getLocation();
+        final double range = plugin.configuration().virtualDisplaysViewDistance();
+        final double squaredRange = range * range;
+        // Stores ids of displays that are within range during this check.
+        final IntSet visible = new IntOpenHashSet();
+        // Stores text displays that were spawned with a preview during this check and must be rendered in full.
+        final List<Viewers> spawned = new ArrayList<>();
+        // Queuing all packets of this check, so the player is flushed only once.
+        final PacketBatch packets = new PacketBatch(plugin.configuration().bundleRefreshPackets());
+        // Iterating over displays in nearby chunks and spawning these that are within range and not shown yet.
+        plugin.virtualDisplays().forEachNearby(player.getWorld(), location.getX(), location.getZ(), range, (display) -> {
+            // Skipping displays that are not within range.
+            if (display.definition().getLocation().distanceSquared(location) > squaredRange)
+                return;
+            visible.add(display.entityId());
+            // Spawning the display if it is not shown yet.
+            if (shown.add(display.entityId()) == true)
+                this.spawn(player, display.definition(), packets, spawned);
+        });
+        // Displays within range are always a subset of displays shown to the player. Sizes are different only if something is no longer within range.
+        if (shown.size() != visible.size()) {
+            final IntSet outOfRange = new IntOpenHashSet();
+            // Collecting and forgetting displays that are no longer within range. This includes displays that were removed from the store.
+            for (final IntIterator iterator = shown.iterator(); iterator.hasNext();) {
+                final int entityId = iterator.nextInt();
+                if (visible.contains(entityId) == false) {
+                    outOfRange.add(entityId);
+                    iterator.remove();
+                    this.hide(player, entityId);
+                }
+            }
+            // Destroying all of them with a single packet.
+            packets.add(player, new WrapperPlayServerDestroyEntities(outOfRange.toIntArray()));
+        }
+        packets.flush();
+        // Skipping if there is nothing to render.
+        if (spawned.isEmpty() == true)
+            return;
+        // Rendering full text of displays that were spawned with a preview. Submitted after the flush, so metadata always follows the spawn packet.
+        final long cycle = tick;
+        workers.submit(() -> {
+            final PacketBatch rendered = new PacketBatch(plugin.configuration().bundleRefreshPackets());
+            for (final Viewers entry : spawned)
+                this.render(entry, player, cycle, rendered);
+            rendered.flush();
+        });
+    }
+
+    // Queues packets spawning specified display for the player. Text displays are spawned with a preview of their text and added to specified list if there are placeholders to render.
+    private void spawn(final @NotNull Player player, final @NotNull Display definition, final @NotNull PacketBatch packets, final @NotNull List<Viewers> spawned) {
+        final Location location = definition.getLocation();
+        @Nullable Component text = null;
+        // Registering the player as a viewer of text displays. Text is rendered on render workers, so a preview is sent for now.
+        if (definition instanceof TextDisplay && definition.getPersistentDataContainer().has(DisplayEntities.Keys.TEXT_CONTENTS) == true) {
+            final Viewers entry = viewers.compute(definition.getEntityId(), (id, existing) -> {
+                final Viewers it = (existing != null) ? existing : this.viewers(definition);
+                // Forgetting text rendered for the player previously, so all lines are rendered from scratch.
+                it.text().forget(player.getEntityId());
+                it.sent().put(player, it.text().variant(player.locale()).preview());
+                return it;
+            });
+            text = entry.sent().get(player);
+            // Rendering the full text later, if there are any placeholders.
+            if (entry.text().variant(player.locale()).hasSlots() == true)
+                spawned.add(entry);
+        }
+        // Queuing spawn and metadata packets. Packets are sent silently, as they don't need to go through the packet listener.
+        packets.add(player, new WrapperPlayServerSpawnEntity(
+                definition.getEntityId(),
+                Optional.of(definition.getUniqueId()),
+                SpigotConversionUtil.fromBukkitEntityType(definition.getType()),
+                new Vector3d(location.getX(), location.getY(), location.getZ()),
+                location.getPitch(),
+                location.getYaw(),
+                location.getYaw(),
+                0,
+                Optional.empty()
+        ));
+        packets.add(player, new WrapperPlayServerEntityMetadata(definition.getEntityId(), VirtualDisplayMetadata.of(definition, text)));
+        // Logging debug information to the console.
+        plugin.debug("[E:" + definition.getEntityId() + "] Virtual display sent to user " + player.getName() + "...");
+    }
+
+    // Removes the player from viewers of display with specified id. Display is forgotten entirely once nobody is viewing it.
+    private void hide(final @NotNull Player player, final int entityId) {
+        viewers.computeIfPresent(entityId, (id, entry) -> {
+            entry.sent().remove(player);
+            // Forgetting text rendered for the player, so it is rendered from scratch when display comes back into range.
+            entry.text().forget(player.getEntityId());
+            return (entry.sent().isEmpty() == true) ? null : entry;
+        });
+    }
+
+    // Called every tick on the global region. Hands all virtual text displays that are due over to the render workers in one batch.
+    private void refresh() {
+        final long cycle = tick;
+        // Collecting displays that are due during this cycle. First refresh of each display is spread across its interval, based on the entity id.
+        final List<Viewers> due = new ArrayList<>();
+        for (final Viewers entry : viewers.values())
+            if (entry.text().isRefreshed() == true && cycle % entry.interval() == Math.floorMod(entry.entityId() * 0x9E3779B9, entry.interval()))
+                due.add(entry);
+        tick = cycle + 1;
+        // Skipping if there is nothing to refresh.
+        if (due.isEmpty() == true)
+            return;
+        workers.submit(() -> {
+            // Queuing packets of all due displays, so each viewer is flushed only once per cycle.
+            final PacketBatch packets = new PacketBatch(plugin.configuration().bundleRefreshPackets());
+            for (final Viewers entry : due)
+                for (final Player viewer : entry.sent().keySet())
+                    this.render(entry, viewer, cycle, packets);
+            packets.flush();
+        });
+    }
+
+    // Called on render workers. Renders lines that are due and queues the text to be sent to the player, unless it has not changed since it was last sent.
+    private void render(final @NotNull Viewers entry, final @NotNull Player player, final long cycle, final @NotNull PacketBatch packets) {
+        final @Nullable Component previous = entry.sent().get(player);
+        // Skipping if display is no longer shown to the player.
+        if (previous == null)
+            return;
+        // Rendering lines that are due. Remaining lines are re-used from the previous render.
+        final Component component = entry.text().variant(player.locale()).refresh(player, cycle, entry.defaultInterval(), entry.interval(), 1);
+        // Skipping if text has not changed since it was last sent, or if display was hidden in the meantime.
+        if (component == previous || component.equals(previous) == true || entry.sent().replace(player, previous, component) == false)
+            return;
+        // Queuing metadata packet with the rendered text.
+        packets.add(player, new WrapperPlayServerEntityMetadata(entry.entityId(), List.of(new EntityData<>(23, EntityDataTypes.ADV_COMPONENT, component))));
+    }
+
+    // Creates viewers of specified text display. Text is compiled here, so render workers never have to access data container of the definition.
+    private @NotNull Viewers viewers(final @NotNull Display definition) {
+        final DisplayText text = plugin.textCache().get(definition);
+        // Getting refresh interval of the display, falling back to the one specified in the configuration.
+        final @Nullable Integer refreshInterval = definition.getPersistentDataContainer().get(DisplayEntities.Keys.REFRESH_INTERVAL, PersistentDataType.INTEGER);
+        final int defaultInterval = (refreshInterval != null) ? refreshInterval : plugin.configuration().refreshInterval();
+        // Lines with shorter interval make the whole text refresh more often.
+        return new Viewers(definition.getEntityId(), text, defaultInterval, Math.max(1, text.refreshInterval(defaultInterval)), new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Viewers of a single virtual text display, along with text last sent to each of them.
+     *
+     * @param entityId Id of the display.
+     * @param text Compiled text of the display.
+     * @param defaultInterval Refresh interval used by lines that do not specify their own.
+     * @param interval Interval at which text is refreshed. This is the shortest interval of all refreshed lines.
+     * @param sent Text last sent to each viewer.
+     */
+    private record Viewers(int entityId, @NotNull DisplayText text, int defaultInterval, int interval, @NotNull Map<Player, Component> sent) {}
+
+}